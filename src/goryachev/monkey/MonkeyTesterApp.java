@@ -24,18 +24,30 @@
  */
 package goryachev.monkey;
 
+import java.io.File;
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import goryachev.monkey.pages.DemoPage;
+import goryachev.monkey.util.BindingCheck;
 import goryachev.monkey.util.FX;
+import goryachev.monkey.util.LeakSentinel;
+import goryachev.monkey.util.LeakWindow;
+import goryachev.monkey.util.MonkeyWindow;
+import goryachev.monkey.util.SessionHost;
+import goryachev.monkey.util.SessionWindow;
 import goryachev.monkey.util.TestPaneBase;
 import goryachev.settings.FxSettings;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.NodeOrientation;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckMenuItem;
@@ -50,9 +62,15 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Priority;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 /**
  * Monkey Tester Application
+ * 
+ * Command line options:
+ * --leak-check=N  cycles through all the pages N times, prints the leak sentinel report, and exits.
+ * --binding-check=N  switches the pages N times, verifies that the number of content updates and the cost
+ *                    of toggling "Use Preferred Size" stay constant, and exits with 1 on failure.
  */
 public class MonkeyTesterApp extends Application {
     
@@ -62,6 +80,11 @@ public class MonkeyTesterApp extends Application {
     protected BorderPane contentPane;
     protected DemoPage currentPage;
     protected Label status;
+    private MonkeyWindow monkeyWindow;
+    private SessionWindow sessionWindow;
+    private LeakWindow leakWindow;
+    private final LeakSentinel leakSentinel = new LeakSentinel();
+    private static final String SETTINGS_DIR = ".MonkeyTesterApp";
     
     public static void main(String[] args) {
         Application.launch(MonkeyTesterApp.class, args);
@@ -69,7 +92,7 @@ public class MonkeyTesterApp extends Application {
     
     @Override
     public void init() {
-        FxSettings.useDirectory(".MonkeyTesterApp");
+        FxSettings.useDirectory(SETTINGS_DIR);
     }
 
     @Override
@@ -122,6 +145,16 @@ public class MonkeyTesterApp extends Application {
         updateStatus();
 
         stage.show();
+
+        String leakCheck = getParameters().getNamed().get("leak-check");
+        if (leakCheck != null) {
+            runLeakCheck(Integer.parseInt(leakCheck));
+        }
+
+        String bindingCheck = getParameters().getNamed().get("binding-check");
+        if (bindingCheck != null) {
+            runBindingCheck(Integer.parseInt(bindingCheck));
+        }
     }
     
     protected MenuBar createMenu() {
@@ -151,6 +184,12 @@ public class MonkeyTesterApp extends Application {
         FX.item(b, orientation);
         FX.separator(b);
         FX.item(b, "Open Dialog", this::openDialog);
+        // Tools
+        FX.menu(b, "_Tools");
+        FX.item(b, "Monkey...", this::openMonkey);
+        FX.item(b, "Record / Replay...", this::openSessionWindow);
+        FX.item(b, "Leak Sentinel...", this::openLeakWindow);
+        FX.item(b, "Layout Sweep...", this::openLayoutSweep);
         // Menu
         FX.menu(b, "_Menu");
         ToggleGroup g = new ToggleGroup();
@@ -163,11 +202,20 @@ public class MonkeyTesterApp extends Application {
     protected void updatePage(DemoPage p) {
         FxSettings.store(contentPane);
         currentPage = p;
+        Node old = contentPane.getCenter();
         contentPane.setCenter(p == null ? null : p.createPane());
+        leakSentinel.discarded(old);
         updateTitle();
         FxSettings.restore(contentPane);
     }
     
+    /** opens the layout sweep harness for the current page */
+    protected void openLayoutSweep() {
+        if (contentPane.getCenter() instanceof TestPaneBase p) {
+            p.openLayoutSweep();
+        }
+    }
+
     protected void reloadCurrentPage() {
         updatePage(currentPage);
     }
@@ -210,6 +258,112 @@ public class MonkeyTesterApp extends Application {
         return pages;
     }
     
+    /** returns the content area of the current page, or null */
+    private Node getPageContentArea() {
+        Node n = contentPane.getCenter();
+        if (n instanceof TestPaneBase p) {
+            return p.getContentArea();
+        }
+        return n;
+    }
+
+    protected File getSettingsDir() {
+        return new File(System.getProperty("user.home"), SETTINGS_DIR);
+    }
+
+    private SessionHost createSessionHost() {
+        return new SessionHost() {
+            @Override
+            public String getPageTitle() {
+                return currentPage == null ? null : currentPage.getTitle();
+            }
+
+            @Override
+            public List<String> getPageTitles() {
+                ArrayList<String> rv = new ArrayList<>(pages.size());
+                for (DemoPage p: pages) {
+                    rv.add(p.getTitle());
+                }
+                return rv;
+            }
+
+            @Override
+            public void selectPage(String title) {
+                for (DemoPage p: pages) {
+                    if (p.getTitle().equals(title)) {
+                        pageSelector.getSelectionModel().select(p);
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public Node getPage() {
+                return contentPane.getCenter();
+            }
+
+            @Override
+            public Node getContentArea() {
+                return getPageContentArea();
+            }
+
+            @Override
+            public ObservableValue<?> pageProperty() {
+                return pageSelector.getSelectionModel().selectedItemProperty();
+            }
+        };
+    }
+
+    protected void openMonkey() {
+        if (monkeyWindow == null) {
+            monkeyWindow = new MonkeyWindow(stage, createSessionHost(), getSettingsDir());
+        }
+        monkeyWindow.show();
+        monkeyWindow.toFront();
+    }
+
+    protected void openSessionWindow() {
+        if (sessionWindow == null) {
+            sessionWindow = new SessionWindow(stage, createSessionHost(), getSettingsDir());
+        }
+        sessionWindow.show();
+        sessionWindow.toFront();
+    }
+
+    protected void openLeakWindow() {
+        if (leakWindow == null) {
+            leakWindow = new LeakWindow(stage, createSessionHost(), leakSentinel);
+        }
+        leakWindow.show();
+        leakWindow.toFront();
+    }
+
+    /** batch mode: cycles through all the pages, prints the leak report and exits */
+    protected void runLeakCheck(int rounds) {
+        Platform.runLater(() -> {
+            LeakSentinel.cyclePages(createSessionHost(), rounds, () -> {
+                PauseTransition t = new PauseTransition(Duration.seconds(1));
+                t.setOnFinished((ev) -> {
+                    System.out.println(leakSentinel.check());
+                    Platform.exit();
+                });
+                t.play();
+            });
+        });
+    }
+
+    /** batch mode: switches the pages, prints the binding check report and exits */
+    protected void runBindingCheck(int switches) {
+        Platform.runLater(() -> {
+            BindingCheck.run(createSessionHost(), switches, System.out::println, (ok) -> {
+                Platform.exit();
+                if (!ok) {
+                    System.exit(1);
+                }
+            });
+        });
+    }
+
     protected void openDialog() {
         Button b = new Button("Platform.exit()");
         b.setOnAction((ev) -> Platform.exit());
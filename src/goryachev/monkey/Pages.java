@@ -47,6 +47,7 @@ public class Pages {
             // TODO InputField: DoubleField, IntegerField, WebColorField
             new DemoPage("Label", LabelPage::new),
             new DemoPage("ListView", ListViewPage::new),
+            new DemoPage("ListView: Log Tail", LogTailPage::new),
             // TODO MenuBar
             // TODO MenuButton
             // TODO Pagination
@@ -24,14 +24,33 @@
  */
 package goryachev.monkey.pages;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import goryachev.monkey.util.AsyncCellBinding;
+import goryachev.monkey.util.AsyncValueLoader;
+import goryachev.monkey.util.FX;
+import goryachev.monkey.util.FlingBenchmark;
+import goryachev.monkey.util.JumpBenchmark;
+import goryachev.monkey.util.MappedRecordSource;
 import goryachev.monkey.util.OptionPane;
+import goryachev.monkey.util.PagedFlingBenchmark;
+import goryachev.monkey.util.PagedList;
+import goryachev.monkey.util.ReportWindow;
+import goryachev.monkey.util.SlowPagedSource;
 import goryachev.monkey.util.TestPaneBase;
-import javafx.scene.Node;
-import javafx.scene.Parent;
+import javafx.application.Platform;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.SelectionMode;
 import javafx.scene.control.skin.VirtualFlow;
@@ -47,6 +66,10 @@ public class ListViewPage extends TestPaneBase {
         LARGE("Large"),
         SMALL("Small"),
         VARIABLE("Variable Height"),
+        MILLION("Million"),
+        VARIABLE_MILLION("Variable Height, Million"),
+        PAGED_SLOW("Paged, Slow Source"),
+        PAGED_MAPPED("Paged, Memory-Mapped File"),
         ;
 
         private final String text;
@@ -67,12 +90,23 @@ public class ListViewPage extends TestPaneBase {
     public enum Cmd {
         ROWS,
         VARIABLE_ROWS,
+        PAGED_SLOW,
+        PAGED_MAPPED,
     }
 
     protected final ComboBox<Demo> demoSelector;
     protected final ComboBox<Selection> selectionSelector;
     protected final CheckBox nullFocusModel;
+    protected final CheckBox asyncValues;
+    protected final Label asyncStatus;
+    protected final ComboBox<Integer> pageLatency;
+    protected final Label pagedStatus;
     protected ListView<Object> control;
+    protected AsyncValueLoader<String> asyncLoader;
+    protected PagedList<Object> pagedList;
+    private boolean suppressUpdates;
+    private boolean rebuildOnAttach;
+    private final Random random = new Random();
     
     public ListViewPage() {
         setId("ListViewPage");
@@ -115,6 +149,47 @@ public class ListViewPage extends TestPaneBase {
             jump();
         });
 
+        asyncValues = new CheckBox("async cell values");
+        asyncValues.setId("asyncValues");
+        asyncValues.selectedProperty().addListener((s,p,c) -> {
+            updatePane();
+        });
+
+        asyncStatus = new Label();
+        asyncStatus.setWrapText(true);
+
+        Button jumpBenchmarkButton = new Button("Jump Accuracy Benchmark");
+        jumpBenchmarkButton.setOnAction((ev) -> runJumpBenchmark());
+
+        Button flingButton = new Button("Async Fling Benchmark");
+        flingButton.setOnAction((ev) -> runFlingBenchmark());
+
+        pageLatency = new ComboBox<>();
+        pageLatency.setId("pageLatency");
+        pageLatency.getItems().addAll(10, 50, 200);
+        pageLatency.setEditable(false);
+        pageLatency.getSelectionModel().selectedItemProperty().addListener((s,p,c) -> {
+            updatePane();
+        });
+
+        pagedStatus = new Label();
+        pagedStatus.setWrapText(true);
+
+        Button pagedFlingButton = new Button("Paged Fling Benchmark");
+        pagedFlingButton.setOnAction((ev) -> runPagedFlingBenchmark());
+
+        sceneProperty().addListener((s,p,c) -> {
+            // the loader threads and the mapped file must not outlive the page
+            if (c == null) {
+                rebuildOnAttach = (asyncLoader != null) || (pagedList != null);
+                stopAsync();
+                stopPaged();
+            } else if ((p == null) && rebuildOnAttach) {
+                rebuildOnAttach = false;
+                updatePane();
+            }
+        });
+
         // layout
 
         OptionPane p = new OptionPane();
@@ -126,10 +201,20 @@ public class ListViewPage extends TestPaneBase {
         p.option(selectionSelector);
         p.option(nullFocusModel);
         p.option(jumpButton);
+        p.option(jumpBenchmarkButton);
+        p.label("Async Cell Values (%d ms lookup):".formatted(AsyncCellBinding.LOOKUP_MILLIS));
+        p.option(asyncValues);
+        p.option(asyncStatus);
+        p.option(flingButton);
+        p.label("Paged Source (page latency, ms):");
+        p.option(pageLatency);
+        p.option(pagedStatus);
+        p.option(pagedFlingButton);
         setOptions(p);
 
         demoSelector.getSelectionModel().selectFirst();
         selectionSelector.getSelectionModel().select(Selection.MULTIPLE);
+        pageLatency.getSelectionModel().select(Integer.valueOf(50));
     }
 
     protected Object[] createSpec(Demo d) {
@@ -149,12 +234,32 @@ public class ListViewPage extends TestPaneBase {
             return new Object[] {
                 Cmd.VARIABLE_ROWS, 500,
             };
+        case MILLION:
+            return new Object[] {
+                Cmd.ROWS, 1_000_000,
+            };
+        case VARIABLE_MILLION:
+            return new Object[] {
+                Cmd.VARIABLE_ROWS, 1_000_000,
+            };
+        case PAGED_SLOW:
+            return new Object[] {
+                Cmd.PAGED_SLOW, 1_000_000,
+            };
+        case PAGED_MAPPED:
+            return new Object[] {
+                Cmd.PAGED_MAPPED, MAPPED_RECORDS,
+            };
         default:
             throw new Error("?" + d);
         }
     }
 
     protected void updatePane() {
+        if (suppressUpdates) {
+            return;
+        }
+
         Demo d = demoSelector.getSelectionModel().getSelectedItem();
         Object[] spec = createSpec(d);
 
@@ -185,6 +290,9 @@ public class ListViewPage extends TestPaneBase {
             }
         }
 
+        stopAsync();
+        stopPaged();
+
         control = new ListView<>();
         control.getSelectionModel().setSelectionMode(selectionMode);
         if(nullSelectionModel) {
@@ -201,16 +309,53 @@ public class ListViewPage extends TestPaneBase {
                 case ROWS:
                     {
                         int n = (int)(spec[i++]);
+                        ArrayList<Object> items = new ArrayList<>(n);
                         for (int j = 0; j < n; j++) {
-                            control.getItems().add(newItem(i));
+                            items.add(newItem(i));
                         }
+                        control.getItems().addAll(items);
                     }
                     break;
                 case VARIABLE_ROWS:
                     {
                         int n = (int)(spec[i++]);
+                        ArrayList<Object> items = new ArrayList<>(n);
                         for (int j = 0; j < n; j++) {
-                            control.getItems().add(newVariableItem(j));
+                            items.add(newVariableItem(j));
+                        }
+                        control.getItems().addAll(items);
+                    }
+                    break;
+                case PAGED_SLOW:
+                    {
+                        int n = (int)(spec[i++]);
+                        int latency = pageLatency.getSelectionModel().getSelectedItem();
+                        pagedList = new PagedList<>(new SlowPagedSource(n, latency), PAGE_SIZE, PREFETCH_PAGES, MAX_PAGES, PAGED_THREADS, AsyncCellBinding.PLACEHOLDER);
+                        control.setItems(pagedList);
+                    }
+                    break;
+                case PAGED_MAPPED:
+                    {
+                        int n = (int)(spec[i++]);
+                        CompletableFuture<Path> f = MappedRecordSource.getSharedFile(n);
+                        if (f.isDone() && !f.isCompletedExceptionally()) {
+                            setMappedItems(control, f.join());
+                        } else {
+                            pagedStatus.setText("Generating the record file...");
+                            ListView<Object> c = control;
+                            f.whenComplete((file, err) -> Platform.runLater(() -> {
+                                if (control != c) {
+                                    // the page has been rebuilt meanwhile
+                                    return;
+                                }
+                                if (getScene() == null) {
+                                    rebuildOnAttach = true;
+                                } else if (err == null) {
+                                    setMappedItems(c, file);
+                                } else {
+                                    pagedStatus.setText("Failed to create the record file: " + cause(err));
+                                }
+                            }));
                         }
                     }
                     break;
@@ -222,17 +367,55 @@ public class ListViewPage extends TestPaneBase {
             }
         }
 
+        if (asyncValues.isSelected()) {
+            AsyncValueLoader<String> loader = AsyncCellBinding.createLoader("item.");
+            asyncLoader = loader;
+            control.setCellFactory((x) -> new AsyncCell(loader));
+        }
+
         BorderPane bp = new BorderPane();
         bp.setCenter(control);
         return bp;
     }
 
+    /** shows the records of the file, or the error in the status label */
+    protected void setMappedItems(ListView<Object> c, Path file) {
+        try {
+            MappedRecordSource src = new MappedRecordSource(file);
+            pagedList = new PagedList<>(src, PAGE_SIZE, PREFETCH_PAGES, MAX_PAGES, PAGED_THREADS, AsyncCellBinding.PLACEHOLDER);
+            c.setItems(pagedList);
+            pagedStatus.setText(null);
+        } catch (IOException e) {
+            pagedStatus.setText("Failed to map the record file: " + e);
+        }
+    }
+
+    private static Throwable cause(Throwable e) {
+        return ((e instanceof CompletionException) && (e.getCause() != null)) ? e.getCause() : e;
+    }
+
+    protected void stopAsync() {
+        if (asyncLoader != null) {
+            asyncLoader.shutdown();
+            asyncLoader = null;
+        }
+        asyncStatus.setText(null);
+    }
+
+    protected void stopPaged() {
+        if (pagedList != null) {
+            pagedList.shutdown();
+            pagedList = null;
+        }
+        pagedStatus.setText(null);
+    }
+
     protected String newItem(Object n) {
         return n + "." + System.currentTimeMillis() + "." + System.nanoTime();
     }
     
     protected String newVariableItem(Object n) {
-        int rows = 1 << new Random().nextInt(5);
+        int rows = 1 << random.nextInt(5);
         StringBuilder sb = new StringBuilder();
         for(int i=0; i<rows; i++) {
             if(i > 0) {
@@ -248,24 +431,141 @@ public class ListViewPage extends TestPaneBase {
         int ix = sz / 2;
         
         control.getSelectionModel().select(ix);
-        VirtualFlow f = findVirtualFlow(control);
+        VirtualFlow<?> f = FX.findVirtualFlow(control);
         f.scrollTo(ix);
         f.scrollPixels(-1.0);
     }
-    
-    private VirtualFlow findVirtualFlow(Parent parent) {
-        for (Node node : parent.getChildrenUnmodifiable()) {
-            if (node instanceof VirtualFlow f) {
-                return f;
+
+    /** the number of lines, which determines the height of a variable height item */
+    protected static int lineCount(Object item) {
+        String s = item.toString();
+        int n = 1;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '\n') {
+                n++;
             }
+        }
+        return n;
+    }
 
-            if (node instanceof Parent p) {
-                VirtualFlow f = findVirtualFlow(p);
-                if (f != null) {
-                    return f;
-                }
+    /**
+     * Jumps to random indices in the variable height demos, then scrolls with the wheel,
+     * and reports the drift of the visible index and of the scroll bar thumb from their true values.
+     */
+    protected void runJumpBenchmark() {
+        ReportWindow w = new ReportWindow(FX.getParentWindow(this), "ListView Jump Accuracy", JumpBenchmark.COLUMNS);
+        Set<String[]> drift = Collections.newSetFromMap(new IdentityHashMap<>());
+        w.setHighlight(drift::contains);
+        w.show();
+        runJumpBenchmark(w, drift, new Demo[] { Demo.VARIABLE, Demo.VARIABLE_MILLION }, 0);
+    }
+
+    private void runJumpBenchmark(ReportWindow w, Set<String[]> drift, Demo[] demos, int index) {
+        if (index >= demos.length) {
+            return;
+        }
+
+        Demo d = demos[index];
+        suppressUpdates = true;
+        try {
+            FX.select(demoSelector, d);
+            asyncValues.setSelected(false);
+        } finally {
+            suppressUpdates = false;
+        }
+        updatePane();
+
+        new JumpBenchmark(control, ListViewPage::lineCount).run(JUMPS, (steps) -> {
+            for (String[] row: JumpBenchmark.toRows(d.toString(), steps, drift)) {
+                w.addRow(row);
             }
+            runJumpBenchmark(w, drift, demos, index + 1);
+        });
+    }
+
+    /**
+     * Flings the paged demos, the slow source with the selected page latency and the memory-mapped file,
+     * and reports the blank cell ratio and the page latency.
+     */
+    protected void runPagedFlingBenchmark() {
+        ReportWindow w = new ReportWindow(FX.getParentWindow(this), "Paged List: Fling", PagedFlingBenchmark.COLUMNS);
+        w.show();
+        runPagedFlingBenchmark(w, new Demo[] { Demo.PAGED_SLOW, Demo.PAGED_MAPPED }, 0);
+    }
+
+    private void runPagedFlingBenchmark(ReportWindow w, Demo[] demos, int index) {
+        if (index >= demos.length) {
+            return;
+        }
+
+        Demo d = demos[index];
+        suppressUpdates = true;
+        try {
+            FX.select(demoSelector, d);
+            asyncValues.setSelected(false);
+        } finally {
+            suppressUpdates = false;
+        }
+        updatePane();
+
+        PagedList<Object> list = pagedList;
+        if (list == null) {
+            CompletableFuture<Path> f = MappedRecordSource.getSharedFile(MAPPED_RECORDS);
+            if ((d == Demo.PAGED_MAPPED) && !f.isDone()) {
+                // the record file is still being generated, retry when it is ready
+                f.whenComplete((file, err) -> Platform.runLater(() -> runPagedFlingBenchmark(w, demos, (err == null) ? index : index + 1)));
+            } else {
+                runPagedFlingBenchmark(w, demos, index + 1);
+            }
+            return;
+        }
+        String name = (d == Demo.PAGED_SLOW) ? d + ", " + pageLatency.getSelectionModel().getSelectedItem() + " ms" : d.toString();
+        PagedFlingBenchmark.run(control, list, (r) -> {
+            w.addRow(PagedFlingBenchmark.toRow(name, r));
+            pagedStatus.setText(list.getStatus());
+            runPagedFlingBenchmark(w, demos, index + 1);
+        });
+    }
+
+    /** flings the million item demo with the async cell values, and reports the cancel ratio and time to fill */
+    protected void runFlingBenchmark() {
+        suppressUpdates = true;
+        try {
+            FX.select(demoSelector, Demo.MILLION);
+            asyncValues.setSelected(true);
+        } finally {
+            suppressUpdates = false;
+        }
+        updatePane();
+
+        AsyncValueLoader<String> loader = asyncLoader;
+        ReportWindow w = new ReportWindow(FX.getParentWindow(this), "Async Cell Values: Fling, " + Demo.MILLION, FlingBenchmark.COLUMNS);
+        w.show();
+        FlingBenchmark.run(control, loader, AsyncCellBinding.PLACEHOLDER, (r) -> {
+            w.addRow(FlingBenchmark.toRow("ListView", r));
+            asyncStatus.setText(loader.getStatus());
+        });
+    }
+
+    protected static final int JUMPS = 50;
+    protected static final int PAGE_SIZE = 100;
+    protected static final int PREFETCH_PAGES = 3;
+    protected static final int MAX_PAGES = 200;
+    protected static final int PAGED_THREADS = 2;
+    protected static final int MAPPED_RECORDS = 1_000_000;
+
+    /** a cell which shows the asynchronously loaded value */
+    protected static class AsyncCell extends ListCell<Object> {
+        private final AsyncCellBinding binding;
+
+        public AsyncCell(AsyncValueLoader<String> loader) {
+            binding = new AsyncCellBinding(loader, this, "");
+        }
+
+        @Override
+        protected void updateItem(Object item, boolean empty) {
+            super.updateItem(item, empty);
+            binding.update(empty ? -1 : getIndex());
         }
-        return null;
     }
 }
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.pages;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import goryachev.monkey.util.FX;
+import goryachev.monkey.util.Histogram;
+import goryachev.monkey.util.LogTail;
+import goryachev.monkey.util.LogWriter;
+import goryachev.monkey.util.OptionPane;
+import goryachev.monkey.util.PulseMonitor;
+import goryachev.monkey.util.ReportWindow;
+import goryachev.monkey.util.TestPaneBase;
+import goryachev.monkey.util.VirtualList;
+import javafx.animation.AnimationTimer;
+import javafx.animation.PauseTransition;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+
+/**
+ * Log Tail page: a ListView which follows a large, growing text file.
+ * The lines are read on demand through the line index built by {@link LogTail}, and the built-in
+ * {@link LogWriter} appends to a temporary file for stress testing.
+ */
+public class LogTailPage extends TestPaneBase {
+    public static final String[] STRESS_COLUMNS = {
+        "Rate (lines/s)",
+        "Written",
+        "Written (lines/s)",
+        "Indexed",
+        "Lag (lines)",
+        "Index (lines/s)",
+        "Index (MB/s)",
+        "Index Memory (MB)",
+        "Per Million Lines (MB)",
+        "Frames",
+        "Frame avg (ms)",
+        "Frame p95 (ms)",
+        "Frame max (ms)"
+    };
+    protected static final int STRESS_SECONDS = 10;
+    protected final ListView<String> control;
+    protected final ComboBox<Integer> writerRate;
+    protected final CheckBox follow;
+    protected final Label fileLabel;
+    protected final Label status;
+    protected final PulseMonitor frames = new PulseMonitor();
+    protected final AnimationTimer ticker;
+    protected LogTail tail;
+    protected LogWriter writer;
+    protected VirtualList<String> lines;
+    /** the temporary file created for the writer, deleted when no longer tailed */
+    private Path writerFile;
+    private long statusTime;
+
+    public LogTailPage() {
+        setId("LogTailPage");
+
+        control = new ListView<>();
+        control.setId("control");
+
+        fileLabel = new Label();
+        fileLabel.setWrapText(true);
+
+        Button tailButton = new Button("Tail File...");
+        tailButton.setOnAction((ev) -> chooseFile());
+
+        writerRate = new ComboBox<>();
+        writerRate.setId("writerRate");
+        writerRate.getItems().addAll(10_000, 100_000, 500_000, 1_000_000);
+        writerRate.getSelectionModel().select(Integer.valueOf(100_000));
+        writerRate.getSelectionModel().selectedItemProperty().addListener((s,p,c) -> {
+            if ((writer != null) && (c != null)) {
+                writer.setRate(c);
+            }
+        });
+
+        Button startButton = new Button("Start Writer");
+        startButton.setOnAction((ev) -> startWriter());
+
+        Button stopButton = new Button("Stop Writer");
+        stopButton.setOnAction((ev) -> stopWriter());
+
+        follow = new CheckBox("follow end");
+        follow.setId("follow");
+        follow.setSelected(true);
+        follow.selectedProperty().addListener((s,p,c) -> {
+            if (c) {
+                frames.start();
+            }
+        });
+
+        status = new Label();
+        status.setWrapText(true);
+
+        Button stressButton = new Button("Stress Run (" + STRESS_SECONDS + " s)");
+        stressButton.setOnAction((ev) -> runStress());
+
+        ticker = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                refresh(now);
+            }
+        };
+
+        sceneProperty().addListener((s,p,c) -> {
+            if (c == null) {
+                ticker.stop();
+                frames.stop();
+                stopWriter();
+                // the indexer thread, the file channel and the writer file must not outlive the page
+                closeTail();
+            } else if (p == null) {
+                ticker.start();
+                frames.start();
+            }
+        });
+
+        // layout
+
+        OptionPane op = new OptionPane();
+        op.label("File:");
+        op.option(fileLabel);
+        op.option(tailButton);
+        op.label("Writer (lines/s):");
+        op.option(writerRate);
+        op.option(startButton);
+        op.option(stopButton);
+        op.label("View:");
+        op.option(follow);
+        op.label("Status:");
+        op.option(status);
+        op.option(stressButton);
+        setOptions(op);
+
+        BorderPane bp = new BorderPane();
+        bp.setCenter(control);
+        setContent(bp);
+    }
+
+    protected void chooseFile() {
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Tail File");
+        File f = fc.showOpenDialog(FX.getParentWindow(this));
+        if (f != null) {
+            stopWriter();
+            openTail(f.toPath());
+        }
+    }
+
+    /** starts following the file, replacing the current one */
+    protected void openTail(Path file) {
+        closeTail();
+        try {
+            tail = new LogTail(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            status.setText("Error: " + e);
+            return;
+        }
+        tail.start();
+
+        LogTail t = tail;
+        lines = new VirtualList<>(0, t::getLine);
+        control.setItems(lines);
+        fileLabel.setText(file.toString());
+        frames.start();
+    }
+
+    protected void closeTail() {
+        if (tail != null) {
+            tail.close();
+            if (tail.getFile().equals(writerFile)) {
+                try {
+                    Files.deleteIfExists(writerFile);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                writerFile = null;
+            }
+            tail = null;
+        }
+        lines = null;
+        control.setItems(null);
+        fileLabel.setText(null);
+    }
+
+    /** starts appending to a new temporary file, which is tailed */
+    protected void startWriter() {
+        if (writer != null) {
+            return;
+        }
+
+        Path f;
+        try {
+            f = Files.createTempFile("tail", ".log");
+            f.toFile().deleteOnExit();
+        } catch (IOException e) {
+            e.printStackTrace();
+            status.setText("Error: " + e);
+            return;
+        }
+        openTail(f);
+        writerFile = f;
+
+        Integer rate = FX.getSelectedItem(writerRate);
+        writer = new LogWriter(f, rate == null ? 100_000 : rate);
+        writer.start();
+    }
+
+    protected void stopWriter() {
+        if (writer != null) {
+            writer.stop();
+            writer = null;
+        }
+    }
+
+    /** picks up the newly indexed lines, and updates the status a few times per second */
+    protected void refresh(long now) {
+        if (tail == null) {
+            return;
+        }
+
+        int n = tail.getLineCount();
+        if (n != lines.size()) {
+            lines.setSize(n);
+            if (follow.isSelected() && (n > 0)) {
+                VirtualFlow<?> f = FX.findVirtualFlow(control);
+                if (f == null) {
+                    control.scrollTo(n - 1);
+                } else {
+                    f.scrollTo(n - 1);
+                }
+            }
+        }
+
+        if (now - statusTime > 250_000_000L) {
+            statusTime = now;
+            Histogram h = frames.getHistogram();
+            status.setText(String.format(
+                "%s, written %,d lines, frames avg %.1f p95 %.1f max %.1f ms",
+                tail.getStatus(),
+                writer == null ? 0 : writer.getWrittenLines(),
+                h.getAverage(),
+                h.percentile(95),
+                h.getMax()
+            ));
+        }
+    }
+
+    /**
+     * Runs the writer at the selected rate for a fixed time while following the end,
+     * then reports the indexing throughput, the index memory and the frame times.
+     */
+    protected void runStress() {
+        stopWriter();
+        follow.setSelected(true);
+        startWriter();
+        if (writer == null) {
+            return;
+        }
+
+        LogWriter w = writer;
+        LogTail t = tail;
+        long start = System.nanoTime();
+        frames.start();
+
+        PauseTransition p = new PauseTransition(Duration.seconds(STRESS_SECONDS));
+        p.setOnFinished((ev) -> {
+            double sec = (System.nanoTime() - start) / 1_000_000_000.0;
+            long written = w.getWrittenLines();
+            int indexed = t.getLineCount();
+            Histogram h = frames.getHistogram();
+            String[] row = {
+                String.format("%,d", w.getRate()),
+                String.format("%,d", written),
+                String.format("%,.0f", written / sec),
+                String.format("%,d", indexed),
+                String.format("%,d", written - indexed),
+                String.format("%,.0f", t.getLinesPerSecond()),
+                String.format("%.1f", t.getMegabytesPerSecond()),
+                String.format("%.1f", t.getIndexMemory() / 1_048_576.0),
+                String.format("%.2f", t.getMemoryPerMillionLines() / 1_048_576.0),
+                String.valueOf(h.getCount()),
+                String.format("%.1f", h.getAverage()),
+                String.format("%.1f", h.percentile(95)),
+                String.format("%.1f", h.getMax())
+            };
+            if (writer == w) {
+                stopWriter();
+            }
+
+            ReportWindow rw = new ReportWindow(FX.getParentWindow(this), "Log Tail Stress Run", STRESS_COLUMNS);
+            rw.addRow(row);
+            rw.show();
+        });
+        p.play();
+    }
+}
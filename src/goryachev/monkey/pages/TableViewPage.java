@@ -24,14 +24,42 @@
  */
 package goryachev.monkey.pages;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Predicate;
+import goryachev.monkey.util.AllocationCounter;
+import goryachev.monkey.util.AsyncCellBinding;
+import goryachev.monkey.util.AsyncValueLoader;
+import goryachev.monkey.util.BitSetSelectionModel;
+import goryachev.monkey.util.ColumnarModel;
+import goryachev.monkey.util.CsvExportPane;
+import goryachev.monkey.util.CsvExporter;
+import goryachev.monkey.util.FX;
+import goryachev.monkey.util.FlingBenchmark;
+import goryachev.monkey.util.Histogram;
+import goryachev.monkey.util.LeakSentinel;
+import goryachev.monkey.util.LiveFeed;
 import goryachev.monkey.util.OptionPane;
+import goryachev.monkey.util.ResizePolicyProfiler;
+import goryachev.monkey.util.ReportWindow;
+import goryachev.monkey.util.ScenarioMatrix;
+import goryachev.monkey.util.ScrollBenchmark;
+import goryachev.monkey.util.SelectionBenchmark;
+import goryachev.monkey.util.SortFilterPipeline;
 import goryachev.monkey.util.TestPaneBase;
+import goryachev.monkey.util.VirtualList;
+import goryachev.monkey.util.WideTableBenchmark;
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ObservableValueBase;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.ConstrainedColumnResizeBase;
+import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.SelectionMode;
 import javafx.scene.control.SplitMenuButton;
@@ -40,6 +68,8 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableColumnBase;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TableView.ResizeFeatures;
+import javafx.scene.control.TextField;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.Pane;
 import javafx.scene.text.Text;
@@ -68,8 +98,17 @@ public class TableViewPage extends TestPaneBase {
         NO_NESTED("no nested columns"),
         NESTED("nested columns"),
         MILLION("million rows"),
+        TEN_MILLION_VIRTUAL("10M rows, virtual list"),
+        HUNDRED_MILLION_VIRTUAL("100M rows, virtual list"),
+        COLUMNAR("1M rows, columnar model"),
+        COLUMNAR_10M("10M rows, columnar model"),
         MANY_COLUMNS("many columns"),
-        MANY_COLUMNS_SAME("many columns, same pref");
+        MANY_COLUMNS_SAME("many columns, same pref"),
+        WIDE_500("500 columns"),
+        WIDE_2000("2,000 columns"),
+        WIDE_2000_NESTED("2,000 columns, nested"),
+        WIDE_10000("10,000 columns"),
+        LIVE_FEED("live feed");
 
         private final String text;
         Demo(String text) { this.text = text; }
@@ -93,6 +132,8 @@ public class TableViewPage extends TestPaneBase {
         MULTIPLE_ROW("multiple row selection"),
         SINGLE_CELL("single cell selection"),
         MULTIPLE_CELL("multiple cell selection"),
+        BITSET_ROW("bitset multiple row selection"),
+        BITSET_CELL("bitset multiple cell selection"),
         NULL("null selection model");
         
         private final String text;
@@ -102,7 +143,12 @@ public class TableViewPage extends TestPaneBase {
 
     public enum Cmd {
         ROWS,
+        VIRTUAL_ROWS,
+        COLUMNAR_ROWS,
+        LIVE_FEED,
         COL,
+        COLS,
+        GROUPS,
         MIN,
         PREF,
         MAX,
@@ -116,7 +162,35 @@ public class TableViewPage extends TestPaneBase {
     protected final CheckBox nullFocusModel;
     protected final CheckBox hideColumn;
     protected final CheckBox fixedHeight;
-    protected TableView<String> table;
+    protected final CheckBox matrixAllDemos;
+    private boolean suppressUpdates;
+    protected final Label policyStats;
+    protected final ResizePolicyProfiler.PerPolicy<ResizePolicy> profilers;
+    protected final CheckBox cachedValues;
+    protected final Label allocationLabel;
+    protected final AllocationCounter allocation = new AllocationCounter();
+    protected final Runnable allocationMonitor = this::updateAllocation;
+    protected final ComboBox<Integer> feedRate;
+    protected final Label feedStatus;
+    protected final Runnable feedMonitor = this::feedPainted;
+    protected final ArrayList<LiveCell> liveCells = new ArrayList<>();
+    protected LiveFeed liveFeed;
+    protected final CheckBox backgroundSort;
+    protected final TextField filterField;
+    protected final Label pipelineStatus;
+    protected final CheckBox asyncValues;
+    protected final Label asyncStatus;
+    protected AsyncValueLoader<String> asyncLoader;
+    protected SortFilterPipeline<Object> pipeline;
+    protected ColumnarModel columnarModel;
+    private ObservableList<Object> unfiltered;
+    private long feedStatusTime;
+    protected TableView<Object> table;
+    private VirtualFlow<?> flow;
+    private double lastPosition;
+    private long lastAllocated;
+    private long scrollSteps;
+    private long scrollBytes;
     
     public TableViewPage() {
         setId("TableViewPage");
@@ -154,7 +228,11 @@ public class TableViewPage extends TestPaneBase {
         
         Button addButton = new Button("Add Data Item");
         addButton.setOnAction((ev) -> {
-            table.getItems().add(newItem());
+            if (table.getItems() instanceof VirtualList<?> v) {
+                v.setSize(v.size() + 1);
+            } else {
+                table.getItems().add(newItem());
+            }
         });
         
         Button clearButton = new Button("Clear Data Items");
@@ -188,6 +266,107 @@ public class TableViewPage extends TestPaneBase {
             updatePane();
         });
 
+        cachedValues = new CheckBox("cached cell values");
+        cachedValues.setId("cachedValues");
+        cachedValues.selectedProperty().addListener((s,p,c) -> {
+            updatePane();
+        });
+
+        allocationLabel = new Label();
+        sceneProperty().addListener((s,p,c) -> {
+            if (p != null) {
+                p.removePostLayoutPulseListener(allocationMonitor);
+                p.removePostLayoutPulseListener(feedMonitor);
+            }
+            if (c != null) {
+                c.addPostLayoutPulseListener(allocationMonitor);
+                c.addPostLayoutPulseListener(feedMonitor);
+            }
+            if (liveFeed != null) {
+                if (c == null) {
+                    liveFeed.stop();
+                } else {
+                    liveFeed.start();
+                }
+            }
+        });
+
+        policyStats = new Label();
+        profilers = new ResizePolicyProfiler.PerPolicy<>(policySelector, policyStats);
+
+        matrixAllDemos = new CheckBox("scenario matrix: all demos");
+        matrixAllDemos.setId("matrixAllDemos");
+
+        Button matrixButton = new Button("Scenario Matrix");
+        matrixButton.setOnAction((ev) -> runScenarioMatrix());
+
+        Button sweepButton = new Button("Resize Sweep");
+        sweepButton.setOnAction((ev) -> runResizeSweep());
+
+        Button resetStatsButton = new Button("Reset Statistics");
+        resetStatsButton.setOnAction((ev) -> profilers.reset());
+
+        feedRate = new ComboBox<>();
+        feedRate.setId("feedRate");
+        feedRate.getItems().addAll(1_000, 10_000, 100_000, 1_000_000);
+        feedRate.getSelectionModel().select(Integer.valueOf(10_000));
+        feedRate.getSelectionModel().selectedItemProperty().addListener((s,p,c) -> {
+            if ((liveFeed != null) && (c != null)) {
+                liveFeed.setRate(c);
+            }
+        });
+
+        feedStatus = new Label();
+        feedStatus.setWrapText(true);
+
+        backgroundSort = new CheckBox("background sort / filter");
+        backgroundSort.setId("backgroundSort");
+        backgroundSort.selectedProperty().addListener((s,p,c) -> {
+            updatePane();
+        });
+
+        filterField = new TextField();
+        filterField.setId("filterField");
+        filterField.setPromptText("filter");
+        filterField.textProperty().addListener((s,p,c) -> {
+            applyFilter(c);
+        });
+
+        pipelineStatus = new Label();
+        pipelineStatus.setWrapText(true);
+
+        Button scrollButton = new Button("Scroll Benchmark");
+        scrollButton.setOnAction((ev) -> runScrollBenchmark());
+
+        Button wideButton = new Button("Horizontal Scroll Benchmark");
+        wideButton.setOnAction((ev) -> runHorizontalScrollBenchmark());
+
+        Button selectionButton = new Button("Selection Model Benchmark");
+        selectionButton.setOnAction((ev) -> SelectionBenchmark.openWindow(FX.getParentWindow(this)));
+
+        asyncValues = new CheckBox("async cell values");
+        asyncValues.setId("asyncValues");
+        asyncValues.selectedProperty().addListener((s,p,c) -> {
+            updatePane();
+        });
+
+        asyncStatus = new Label();
+        asyncStatus.setWrapText(true);
+        sceneProperty().addListener((s,p,c) -> {
+            // the loader threads must not outlive the page
+            if (c == null) {
+                stopAsync();
+            } else if ((p == null) && asyncValues.isSelected() && (asyncLoader == null)) {
+                updatePane();
+            }
+        });
+
+        Button flingButton = new Button("Async Fling Benchmark");
+        flingButton.setOnAction((ev) -> runFlingBenchmark());
+
+        Button compareButton = new Button("Columnar vs String Rows");
+        compareButton.setOnAction((ev) -> compareModels());
+
         // layout
 
         OptionPane p = new OptionPane();
@@ -199,11 +378,37 @@ public class TableViewPage extends TestPaneBase {
         p.option(removeColumnButton);
         p.label("Column Resize Policy:");
         p.option(policySelector);
+        p.option(policyStats);
+        p.option(sweepButton);
+        p.option(resetStatsButton);
         p.label("Selection Model:");
         p.option(selectionSelector);
         p.option(nullFocusModel);
         p.option(hideColumn);
         p.option(fixedHeight);
+        p.option(cachedValues);
+        p.label("FX Thread Allocation per Scroll Step:");
+        p.option(allocationLabel);
+        p.label("Sort / Filter:");
+        p.option(backgroundSort);
+        p.option(filterField);
+        p.option(pipelineStatus);
+        p.label("Async Cell Values (%d ms lookup):".formatted(AsyncCellBinding.LOOKUP_MILLIS));
+        p.option(asyncValues);
+        p.option(asyncStatus);
+        p.option(flingButton);
+        p.label("Live Feed Updates per Second:");
+        p.option(feedRate);
+        p.option(feedStatus);
+        p.label("Export CSV:");
+        p.option(new CsvExportPane((sel) -> table == null ? null : CsvExporter.forTable(table, sel)));
+        p.label("Benchmark:");
+        p.option(scrollButton);
+        p.option(wideButton);
+        p.option(selectionButton);
+        p.option(compareButton);
+        p.option(matrixAllDemos);
+        p.option(matrixButton);
         setOptions(p);
 
         demoSelector.getSelectionModel().selectFirst();
@@ -218,9 +423,9 @@ public class TableViewPage extends TestPaneBase {
     }
 
     protected void addColumn(int where) {
-        TableColumn<String, String> c = new TableColumn<>();
+        TableColumn<Object, String> c = new TableColumn<>();
         c.setText("C" + System.currentTimeMillis());
-        c.setCellValueFactory((f) -> new SimpleStringProperty(describe(c)));
+        setDescriptionFactory(c);
 
         int ct = table.getColumns().size();
         int ix;
@@ -264,21 +469,60 @@ public class TableViewPage extends TestPaneBase {
         }
     }
 
-    protected Callback<ResizeFeatures,Boolean> wrap(Callback<ResizeFeatures,Boolean> policy) {
-        return new Callback<ResizeFeatures,Boolean>() {
-            @Override
-            public Boolean call(ResizeFeatures f) {
-                Boolean rv = policy.call(f);
-                int ix = f.getTable().getColumns().indexOf(f.getColumn());
-                System.out.println(
-                    "col=" + (ix < 0 ? f.getColumn() : ix) +
-                    " delta=" + f.getDelta() +
-                    " w=" + f.getTable().getWidth() +
-                    " rv=" + rv
-                );
-                return rv;
-            }
-        };
+    /** drags the column borders with every resize policy, for the current demo */
+    protected void runResizeSweep() {
+        profilers.sweep(
+            FX.getParentWindow(this),
+            "Resize Policy Sweep: TableView, " + FX.getSelectedItem(demoSelector),
+            () -> table,
+            () -> table.getVisibleLeafColumns().size(),
+            (ix, delta) -> table.resizeColumn(table.getVisibleLeafColumn(ix), delta)
+        );
+    }
+
+    /**
+     * Runs the scenario matrix workload for every combination of the resize policy, selection model,
+     * null focus model and fixed height options, with the current or all the lightweight demos.
+     */
+    protected void runScenarioMatrix() {
+        ScenarioMatrix.runStandard(
+            FX.getParentWindow(this),
+            "Scenario Matrix: TableView",
+            new ScenarioMatrix.Options<>(demoSelector, policySelector, selectionSelector, nullFocusModel, fixedHeight),
+            matrixAllDemos.isSelected(),
+            TableViewPage::isHeavy,
+            () -> table,
+            this::applyOptions
+        );
+    }
+
+    /** demos too large to be rebuilt a few hundred times in a row */
+    protected static boolean isHeavy(Demo d) {
+        switch(d) {
+        case MILLION:
+        case TEN_MILLION_VIRTUAL:
+        case HUNDRED_MILLION_VIRTUAL:
+        case COLUMNAR:
+        case COLUMNAR_10M:
+        case WIDE_2000:
+        case WIDE_2000_NESTED:
+        case WIDE_10000:
+        case LIVE_FEED:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /** sets the options with the updates suppressed, then rebuilds the pane once */
+    protected void applyOptions(Runnable setOptions) {
+        suppressUpdates = true;
+        try {
+            setOptions.run();
+        } finally {
+            suppressUpdates = false;
+        }
+        updatePane();
     }
 
     protected String describe(TableColumn c) {
@@ -526,12 +770,61 @@ public class TableViewPage extends TestPaneBase {
                 Cmd.COL,
                 Cmd.COL
             };
+        case TEN_MILLION_VIRTUAL:
+            return new Object[] {
+                Cmd.VIRTUAL_ROWS, 10_000_000,
+                Cmd.COL,
+                Cmd.COL
+            };
+        case HUNDRED_MILLION_VIRTUAL:
+            return new Object[] {
+                Cmd.VIRTUAL_ROWS, 100_000_000,
+                Cmd.COL,
+                Cmd.COL
+            };
+        case WIDE_500:
+            return new Object[] {
+                Cmd.ROWS, 1_000,
+                Cmd.COLS, 500
+            };
+        case WIDE_2000:
+            return new Object[] {
+                Cmd.ROWS, 1_000,
+                Cmd.COLS, 2_000
+            };
+        case WIDE_2000_NESTED:
+            return new Object[] {
+                Cmd.ROWS, 1_000,
+                Cmd.COLS, 2_000,
+                Cmd.GROUPS, 10
+            };
+        case WIDE_10000:
+            return new Object[] {
+                Cmd.ROWS, 1_000,
+                Cmd.COLS, 10_000
+            };
+        case LIVE_FEED:
+            return new Object[] {
+                Cmd.LIVE_FEED, 1_000, 8
+            };
+        case COLUMNAR:
+            return new Object[] {
+                Cmd.COLUMNAR_ROWS, 1_000_000
+            };
+        case COLUMNAR_10M:
+            return new Object[] {
+                Cmd.COLUMNAR_ROWS, 10_000_000
+            };
         default:
             throw new Error("?" + d);
         }
     }
 
     protected void updatePane() {
+        if (suppressUpdates) {
+            return;
+        }
+
         Demo d = demoSelector.getSelectionModel().getSelectedItem();
         ResizePolicy p = policySelector.getSelectionModel().getSelectedItem();
         Object[] spec = createSpec(d);
@@ -540,17 +833,37 @@ public class TableViewPage extends TestPaneBase {
         setContent(n);
     }
 
-    protected void combineColumns(TableView<String> t, int ix, int count, int name) {
-        TableColumn<String,?> tc = new TableColumn<>();
+    protected void combineColumns(TableView<Object> t, int ix, int count, int name) {
+        TableColumn<Object,?> tc = new TableColumn<>();
         tc.setText("N" + name);
 
         for (int i = 0; i < count; i++) {
-            TableColumn<String,?> c = t.getColumns().remove(ix);
+            TableColumn<Object,?> c = t.getColumns().remove(ix);
             tc.getColumns().add(c);
         }
         t.getColumns().add(ix, tc);
     }
 
+    /**
+     * Nests every group of consecutive top level columns in a new parent column,
+     * building the new column list at once.
+     * Returns the next available group name.
+     */
+    protected int groupColumns(TableView<Object> t, int size, int name) {
+        ArrayList<TableColumn<Object,?>> cs = new ArrayList<>(t.getColumns());
+        t.getColumns().clear();
+
+        ArrayList<TableColumn<Object,?>> groups = new ArrayList<>(cs.size() / size + 1);
+        for (int i = 0; i < cs.size(); i += size) {
+            TableColumn<Object,?> tc = new TableColumn<>();
+            tc.setText("N" + name++);
+            tc.getColumns().addAll(cs.subList(i, Math.min(i + size, cs.size())));
+            groups.add(tc);
+        }
+        t.getColumns().setAll(groups);
+        return name;
+    }
+
     protected Pane createPane(Demo demo, ResizePolicy policy, Object[] spec) {
         if ((demo == null) || (spec == null) || (policy == null)) {
             return new BorderPane();
@@ -558,6 +871,7 @@ public class TableViewPage extends TestPaneBase {
         
         boolean cellSelection = false;
         boolean nullSelectionModel = false;
+        boolean bitsetSelectionModel = false;
         SelectionMode selectionMode = SelectionMode.SINGLE;
         Selection sel = selectionSelector.getSelectionModel().getSelectedItem();
         if(sel != null) {
@@ -569,6 +883,15 @@ public class TableViewPage extends TestPaneBase {
             case MULTIPLE_ROW:
                 selectionMode = SelectionMode.MULTIPLE;
                 break;
+            case BITSET_CELL:
+                selectionMode = SelectionMode.MULTIPLE;
+                cellSelection = true;
+                bitsetSelectionModel = true;
+                break;
+            case BITSET_ROW:
+                selectionMode = SelectionMode.MULTIPLE;
+                bitsetSelectionModel = true;
+                break;
             case NULL:
                 nullSelectionModel = true;
                 break;
@@ -582,7 +905,23 @@ public class TableViewPage extends TestPaneBase {
             }
         }
 
+        stopFeed();
+        stopAsync();
+        if (pipeline != null) {
+            pipeline.cancel();
+            pipeline = null;
+        }
+        columnarModel = null;
+        unfiltered = null;
+        pipelineStatus.setText(null);
         table = new TableView<>();
+        flow = null;
+        scrollSteps = 0;
+        scrollBytes = 0;
+        allocationLabel.setText(allocation.isSupported() ? null : "not supported");
+        if (bitsetSelectionModel) {
+            table.setSelectionModel(new BitSetSelectionModel<>(table));
+        }
         table.getSelectionModel().setCellSelectionEnabled(cellSelection);
         table.getSelectionModel().setSelectionMode(selectionMode);
         if (nullSelectionModel) {
@@ -596,9 +935,9 @@ public class TableViewPage extends TestPaneBase {
         }
 
         Callback<ResizeFeatures, Boolean> p = createPolicy(policy);
-        table.setColumnResizePolicy(p);
+        table.setColumnResizePolicy(profilers.wrap(policy, p));
 
-        TableColumn<String,String> lastColumn = null;
+        TableColumn<Object,?> lastColumn = null;
         int id = 1;
 
         for (int i = 0; i < spec.length;) {
@@ -607,31 +946,67 @@ public class TableViewPage extends TestPaneBase {
                 switch (cmd) {
                 case COL:
                     {
-                        TableColumn<String,String> c = new TableColumn<>();
+                        TableColumn<Object,String> c = new TableColumn<>();
                         table.getColumns().add(c);
                         c.setText("C" + table.getColumns().size());
-                        c.setCellValueFactory((f) -> new SimpleStringProperty(describe(c)));
+                        setDescriptionFactory(c);
                         lastColumn = c;
                     }
                     break;
+                case COLS:
+                    {
+                        // mixed constraints, added at once
+                        int n = (int)(spec[i++]);
+                        ArrayList<TableColumn<Object,?>> cs = new ArrayList<>(n);
+                        for (int j = 0; j < n; j++) {
+                            TableColumn<Object,String> c = new TableColumn<>();
+                            c.setText("C" + (j + 1));
+                            setDescriptionFactory(c);
+                            switch (j % 7) {
+                            case 1:
+                                c.setMinWidth(50);
+                                break;
+                            case 3:
+                                c.setMaxWidth(120);
+                                break;
+                            case 5:
+                                c.setPrefWidth(40 + (j % 10) * 10);
+                                break;
+                            }
+                            cs.add(c);
+                            lastColumn = c;
+                        }
+                        table.getColumns().addAll(cs);
+                    }
+                    break;
+                case GROUPS:
+                    {
+                        int size = (int)(spec[i++]);
+                        id = groupColumns(table, size, id);
+                    }
+                    break;
                 case COL_WITH_GRAPHIC:
                     {
-                        TableColumn<String,String> c = new TableColumn<>();
+                        TableColumn<Object,String> c = new TableColumn<>();
                         table.getColumns().add(c);
                         c.setText("C" + table.getColumns().size());
-                        c.setCellValueFactory((f) -> new SimpleStringProperty(describe(c)));
-                        c.setCellFactory((r) -> {
-                            return new TableCell<>() {
-                                @Override
-                                protected void updateItem(String item, boolean empty) {
-                                    super.updateItem(item, empty);
-                                    Text t = new Text("11111111111111111111111111111111111111111111111111111111111111111111111111111111111111\n2\n3\n");
-                                    t.wrappingWidthProperty().bind(widthProperty());
-                                    setPrefHeight(USE_COMPUTED_SIZE);
-                                    setGraphic(t);
-                                }
-                            };
-                        });
+                        setDescriptionFactory(c);
+                        if (cachedValues.isSelected()) {
+                            c.setCellFactory((r) -> new GraphicCell());
+                        } else {
+                            c.setCellFactory((r) -> {
+                                return new TableCell<>() {
+                                    @Override
+                                    protected void updateItem(String item, boolean empty) {
+                                        super.updateItem(item, empty);
+                                        Text t = new Text(GRAPHIC_TEXT);
+                                        t.wrappingWidthProperty().bind(widthProperty());
+                                        setPrefHeight(USE_COMPUTED_SIZE);
+                                        setGraphic(t);
+                                    }
+                                };
+                            });
+                        }
                         lastColumn = c;
                     }
                     break;
@@ -656,9 +1031,35 @@ public class TableViewPage extends TestPaneBase {
                 case ROWS:
                     {
                         int n = (int)(spec[i++]);
+                        ArrayList<Object> items = new ArrayList<>(n);
                         for (int j = 0; j < n; j++) {
-                            table.getItems().add(newItem());
+                            items.add(newItem());
                         }
+                        table.getItems().setAll(items);
+                    }
+                    break;
+                case VIRTUAL_ROWS:
+                    {
+                        int n = (int)(spec[i++]);
+                        table.setItems(new VirtualList<>(n, (ix) -> "row." + ix));
+                    }
+                    break;
+                case LIVE_FEED:
+                    {
+                        int rows = (int)(spec[i++]);
+                        int cols = (int)(spec[i++]);
+                        startFeed(rows, cols);
+                        lastColumn = table.getColumns().get(cols - 1);
+                    }
+                    break;
+                case COLUMNAR_ROWS:
+                    {
+                        int n = (int)(spec[i++]);
+                        ColumnarModel m = ColumnarModel.generate(n, 1);
+                        columnarModel = m;
+                        table.setItems(m.createRows());
+                        table.getColumns().setAll(m.createTableColumns());
+                        lastColumn = table.getColumns().get(table.getColumns().size() - 1);
                     }
                     break;
                 case COMBINE:
@@ -674,6 +1075,22 @@ public class TableViewPage extends TestPaneBase {
             }
         }
         
+        if (asyncValues.isSelected()) {
+            setAsyncCells();
+        }
+
+        if (backgroundSort.isSelected()) {
+            pipeline = new SortFilterPipeline<>(table, this::createComparator);
+            pipeline.setReporter(pipelineStatus::setText);
+            for (TableColumn<Object,?> c: table.getVisibleLeafColumns()) {
+                c.setSortable(true);
+            }
+        }
+        String filter = filterField.getText();
+        if ((filter != null) && !filter.isEmpty()) {
+            applyFilter(filter);
+        }
+
         hideMiddleColumn(hideColumn.isSelected());
 
         BorderPane bp = new BorderPane();
@@ -694,10 +1111,401 @@ public class TableViewPage extends TestPaneBase {
         }
     }
 
+    /** sets the cell value factory which shows the column description */
+    protected void setDescriptionFactory(TableColumn<Object,String> c) {
+        if (cachedValues.isSelected()) {
+            DescriptionValue v = new DescriptionValue(c);
+            c.setCellValueFactory((f) -> v);
+        } else {
+            c.setCellValueFactory((f) -> new SimpleStringProperty(describe(c)));
+        }
+    }
+
+    protected void stopAsync() {
+        if (asyncLoader != null) {
+            asyncLoader.shutdown();
+            asyncLoader = null;
+        }
+        asyncStatus.setText(null);
+    }
+
+    /** replaces the cell factories of all the leaf columns with the asynchronously loaded cells */
+    @SuppressWarnings("unchecked")
+    protected void setAsyncCells() {
+        AsyncValueLoader<String> loader = AsyncCellBinding.createLoader("row.");
+        asyncLoader = loader;
+        int col = 0;
+        for (TableColumn<Object,?> c: table.getVisibleLeafColumns()) {
+            String suffix = " / C" + (++col);
+            ((TableColumn<Object,Object>)c).setCellFactory((x) -> new AsyncCell(loader, suffix));
+        }
+    }
+
+    /** flings the million row demo with the async cell values, and reports the cancel ratio and time to fill */
+    protected void runFlingBenchmark() {
+        suppressUpdates = true;
+        try {
+            FX.select(demoSelector, Demo.MILLION);
+            asyncValues.setSelected(true);
+        } finally {
+            suppressUpdates = false;
+        }
+        updatePane();
+
+        AsyncValueLoader<String> loader = asyncLoader;
+        ReportWindow w = new ReportWindow(FX.getParentWindow(this), "Async Cell Values: Fling, " + Demo.MILLION, FlingBenchmark.COLUMNS);
+        w.show();
+        FlingBenchmark.run(table, loader, AsyncCellBinding.PLACEHOLDER, (r) -> {
+            w.addRow(FlingBenchmark.toRow("TableView", r));
+            asyncStatus.setText(loader.getStatus());
+        });
+    }
+
+    /**
+     * Reports the bytes allocated in the FX thread between the last two pulses
+     * whenever the table has been scrolled vertically.
+     */
+    protected void updateAllocation() {
+        if ((table == null) || !allocation.isSupported()) {
+            return;
+        }
+
+        if (flow == null) {
+            flow = FX.findVirtualFlow(table);
+            if (flow == null) {
+                return;
+            }
+            lastPosition = flow.getPosition();
+        }
+
+        long bytes = allocation.getAllocatedBytes();
+        double pos = flow.getPosition();
+        if ((pos != lastPosition) && (lastAllocated != 0)) {
+            long delta = bytes - lastAllocated;
+            scrollSteps++;
+            scrollBytes += delta;
+            allocationLabel.setText(String.format("%,d bytes (avg %,d over %,d steps)", delta, scrollBytes / scrollSteps, scrollSteps));
+            // do not count the label update
+            bytes = allocation.getAllocatedBytes();
+        }
+        lastPosition = pos;
+        lastAllocated = bytes;
+    }
+
     protected String newItem() {
         return System.currentTimeMillis() + "." + System.nanoTime();
     }
 
+    /** creates a thread-safe comparator for the specified column */
+    protected Comparator<Object> createComparator(TableColumn<Object,?> c) {
+        if (c.getUserData() instanceof ColumnarModel.Column mc) {
+            return (a, b) -> mc.compare((Integer)a, (Integer)b);
+        }
+        // the String rows are the only data, the columns display the column description
+        return (a, b) -> String.valueOf(a).compareTo(String.valueOf(b));
+    }
+
+    /** creates a thread-safe filter which matches the rows containing the specified text */
+    protected Predicate<Object> createFilter(String text) {
+        ColumnarModel m = columnarModel;
+        if (m != null) {
+            List<ColumnarModel.Column> cs = m.getColumns();
+            return (x) -> {
+                int row = (Integer)x;
+                if (row < m.size()) {
+                    for (ColumnarModel.Column c: cs) {
+                        if (String.valueOf(c.getValue(row)).contains(text)) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            };
+        }
+        return (x) -> String.valueOf(x).contains(text);
+    }
+
+    /** filters the rows in the background, or with a FilteredList in the FX thread for comparison */
+    protected void applyFilter(String text) {
+        if (table == null) {
+            return;
+        }
+
+        Predicate<Object> p = ((text == null) || text.isEmpty()) ? null : createFilter(text);
+        if (pipeline != null) {
+            pipeline.setFilter(p);
+        } else {
+            if (unfiltered == null) {
+                unfiltered = table.getItems();
+            }
+            long start = System.nanoTime();
+            table.setItems(p == null ? unfiltered : new FilteredList<>(unfiltered, p));
+            pipelineStatus.setText(String.format(
+                "%,d of %,d rows in %.1f ms (FX thread)",
+                table.getItems().size(),
+                unfiltered.size(),
+                (System.nanoTime() - start) / 1_000_000.0
+            ));
+        }
+    }
+
+    /** creates the live feed columns and starts the producer */
+    protected void startFeed(int rows, int cols) {
+        Integer rate = FX.getSelectedItem(feedRate);
+        liveFeed = new LiveFeed(rows, cols, rate == null ? 10_000 : rate);
+        liveFeed.setOnBatch(this::feedBatch);
+
+        table.setItems(new VirtualList<>(rows, Integer::valueOf));
+        ArrayList<TableColumn<Object,?>> cs = new ArrayList<>(cols);
+        for (int c = 0; c < cols; c++) {
+            int col = c;
+            TableColumn<Object,Object> tc = new TableColumn<>("C" + (c + 1));
+            tc.setCellFactory((x) -> {
+                LiveCell cell = new LiveCell(col);
+                liveCells.add(cell);
+                return cell;
+            });
+            tc.setSortable(false);
+            cs.add(tc);
+        }
+        table.getColumns().setAll(cs);
+
+        if (getScene() != null) {
+            liveFeed.start();
+        }
+    }
+
+    protected void stopFeed() {
+        if (liveFeed != null) {
+            liveFeed.stop();
+            liveFeed = null;
+        }
+        liveCells.clear();
+        feedStatus.setText(null);
+    }
+
+    /** repaints the cells changed by the last batch, and updates the status a few times per second */
+    protected void feedBatch() {
+        for (LiveCell c: liveCells) {
+            c.refresh();
+        }
+
+        long now = System.nanoTime();
+        if (now - feedStatusTime > 250_000_000L) {
+            feedStatusTime = now;
+            feedStatus.setText(liveFeed.getStatus());
+        }
+    }
+
+    protected void feedPainted() {
+        if (liveFeed != null) {
+            liveFeed.painted();
+        }
+    }
+
+    /** scrolls the current demo with the variable and the fixed cell height */
+    protected void runScrollBenchmark() {
+        ScrollBenchmark.runSuite(
+            FX.getParentWindow(this),
+            "Scroll Benchmark: TableView, " + FX.getSelectedItem(demoSelector),
+            fixedHeight,
+            this::updatePane,
+            () -> table
+        );
+    }
+
+    /** scrolls the current demo horizontally from the first to the last column */
+    protected void runHorizontalScrollBenchmark() {
+        ReportWindow w = new ReportWindow(FX.getParentWindow(this), "Horizontal Scroll Benchmark", WideTableBenchmark.COLUMNS);
+        w.show();
+        String name = String.valueOf(FX.getSelectedItem(demoSelector));
+        if (fixedHeight.isSelected()) {
+            name += ", fixed height";
+        }
+        new WideTableBenchmark(table).run(name, (row) -> {
+            w.addRow(row);
+            // restore the default skin
+            updatePane();
+        });
+    }
+
+    /**
+     * Compares the heap footprint and the scroll frame times of the same data set
+     * held in the columnar model vs. one String[] per row.
+     */
+    protected void compareModels() {
+        int rows = 1_000_000;
+        ReportWindow w = new ReportWindow(FX.getParentWindow(this), "Columnar vs String Rows", COMPARE_COLUMNS);
+        w.show();
+
+        long h0 = LeakSentinel.usedHeapAfterGC();
+        long t0 = System.nanoTime();
+        ColumnarModel m = ColumnarModel.generate(rows, 1);
+        long t1 = System.nanoTime();
+        long h1 = LeakSentinel.usedHeapAfterGC();
+
+        long t2 = System.nanoTime();
+        ArrayList<String[]> strings = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            strings.add(m.toStrings(i));
+        }
+        long t3 = System.nanoTime();
+        long h2 = LeakSentinel.usedHeapAfterGC();
+
+        TableView<Object> columnar = new TableView<>(m.createRows());
+        columnar.getColumns().setAll(m.createTableColumns());
+
+        TableView<String[]> rowTable = new TableView<>();
+        List<ColumnarModel.Column> cs = m.getColumns();
+        for (int i = 0; i < cs.size(); i++) {
+            int ix = i;
+            TableColumn<String[],String> c = new TableColumn<>(cs.get(i).getName());
+            c.setCellValueFactory((f) -> new SimpleStringProperty(f.getValue()[ix]));
+            rowTable.getColumns().add(c);
+        }
+        rowTable.getItems().setAll(strings);
+
+        String[] columnarRow = result("columnar", rows, h1 - h0, t1 - t0);
+        String[] stringRow = result("String[] rows", rows, h2 - h1, t3 - t2);
+        w.addRow(columnarRow);
+        w.addRow(stringRow);
+
+        // scroll both tables in turn, in place of the page content
+        setContent(new BorderPane(columnar));
+        new ScrollBenchmark(columnar).run(COMPARE_PULSES, COMPARE_PIXELS, (hc) -> {
+            w.setRows(List.of(frames(columnarRow, hc), stringRow));
+
+            setContent(new BorderPane(rowTable));
+            new ScrollBenchmark(rowTable).run(COMPARE_PULSES, COMPARE_PIXELS, (hs) -> {
+                w.setRows(List.of(columnarRow, frames(stringRow, hs)));
+                updatePane();
+            });
+        });
+    }
+
+    protected static final String[] COMPARE_COLUMNS = {
+        "Model",
+        "Rows",
+        "Heap (MB)",
+        "Bytes/Row",
+        "Build (ms)",
+        "Frame Avg (ms)",
+        "Frame 95% (ms)",
+        "Frame Max (ms)"
+    };
+    protected static final int COMPARE_PULSES = 300;
+    protected static final double COMPARE_PIXELS = 97;
+
+    private static String[] result(String name, int rows, long bytes, long nanos) {
+        return new String[] {
+            name,
+            String.valueOf(rows),
+            String.format("%.1f", bytes / (1024.0 * 1024.0)),
+            String.valueOf(bytes / rows),
+            String.format("%.1f", nanos / 1_000_000.0),
+            null,
+            null,
+            null
+        };
+    }
+
+    private static String[] frames(String[] row, Histogram h) {
+        row[5] = String.format("%.2f", h.getAverage());
+        row[6] = String.format("%.2f", h.percentile(95));
+        row[7] = String.format("%.2f", h.getMax());
+        return row;
+    }
+
+    protected static final String GRAPHIC_TEXT = "11111111111111111111111111111111111111111111111111111111111111111111111111111111111111\n2\n3\n";
+
+    /**
+     * A flyweight read-only column description shared by all the cells of one column.
+     * The value is recomputed only when the column width constraints change.
+     */
+    protected class DescriptionValue extends ObservableValueBase<String> {
+        private final TableColumn<?,?> column;
+        private String text;
+
+        public DescriptionValue(TableColumn<?,?> c) {
+            this.column = c;
+            InvalidationListener li = (x) -> {
+                text = null;
+                fireValueChangedEvent();
+            };
+            c.minWidthProperty().addListener(li);
+            c.prefWidthProperty().addListener(li);
+            c.maxWidthProperty().addListener(li);
+        }
+
+        @Override
+        public String getValue() {
+            if (text == null) {
+                text = describe(column);
+            }
+            return text;
+        }
+    }
+
+    /** a live feed cell which repaints only when its value has changed */
+    protected class LiveCell extends TableCell<Object,Object> {
+        private final int column;
+        private int row = -1;
+        private int version;
+
+        public LiveCell(int column) {
+            this.column = column;
+        }
+
+        @Override
+        protected void updateItem(Object item, boolean empty) {
+            super.updateItem(item, empty);
+            row = -1;
+            refresh();
+        }
+
+        protected void refresh() {
+            LiveFeed f = liveFeed;
+            int ix = getIndex();
+            if ((f == null) || isEmpty() || (ix < 0) || (ix >= f.getRowCount())) {
+                row = -1;
+                setText(null);
+                return;
+            }
+
+            int v = f.getVersion(ix, column);
+            if ((ix != row) || (v != version)) {
+                row = ix;
+                version = v;
+                setText(String.format("%.2f", f.getValue(ix, column)));
+            }
+        }
+    }
+
+    /** a cell which shows the asynchronously loaded row value followed by the column suffix */
+    protected static class AsyncCell extends TableCell<Object,Object> {
+        private final AsyncCellBinding binding;
+
+        public AsyncCell(AsyncValueLoader<String> loader, String suffix) {
+            binding = new AsyncCellBinding(loader, this, suffix);
+        }
+
+        @Override
+        protected void updateItem(Object item, boolean empty) {
+            super.updateItem(item, empty);
+            binding.update(empty ? -1 : getIndex());
+        }
+    }
+
+    /** a cell which creates its multi-line graphic once and reuses it */
+    protected static class GraphicCell extends TableCell<Object,String> {
+        public GraphicCell() {
+            Text t = new Text(GRAPHIC_TEXT);
+            t.wrappingWidthProperty().bind(widthProperty());
+            setPrefHeight(USE_COMPUTED_SIZE);
+            setGraphic(t);
+        }
+    }
+
     /**
      * a user-defined policy demonstrates that we can indeed create a custom policy using the new API.
      * this policy simply sizes all columns equally.
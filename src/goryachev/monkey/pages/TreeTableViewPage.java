@@ -24,15 +24,29 @@
  */
 package goryachev.monkey.pages;
 
+import java.util.ArrayList;
 import java.util.List;
+import goryachev.monkey.util.CsvExportPane;
+import goryachev.monkey.util.CsvExporter;
+import goryachev.monkey.util.FX;
+import goryachev.monkey.util.LazyTreeItem;
 import goryachev.monkey.util.OptionPane;
+import goryachev.monkey.util.ResizePolicyProfiler;
+import goryachev.monkey.util.ScenarioMatrix;
+import goryachev.monkey.util.ScrollBenchmark;
 import goryachev.monkey.util.TestPaneBase;
+import goryachev.monkey.util.TreeExpansion;
+import goryachev.monkey.util.TreeFilter;
+import goryachev.monkey.util.TreeExpansionBenchmark;
+import goryachev.monkey.util.TreeShapeBenchmark;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.ConstrainedColumnResizeBase;
+import javafx.scene.control.Label;
 import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TextField;
 import javafx.scene.control.TableColumnBase;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeTableCell;
@@ -67,6 +81,13 @@ public class TreeTableViewPage extends TestPaneBase {
         NO_NESTED("no nested columns"),
         NESTED("nested columns"),
         MILLION("million rows"),
+        LAZY("12M nodes, lazy (depth 6, fanout 15)"),
+        LAZY_RELEASE("12M nodes, lazy, released on collapse"),
+        CHAIN("10,000-deep chain"),
+        STAR("star, 1M children"),
+        BINARY("complete binary, depth 20"),
+        SKEWED("random skewed"),
+        FILTERED("1M nodes, filtered"),
         MANY_COLUMNS("many columns"),
         MANY_COLUMNS_SAME("many columns, same pref");
 
@@ -106,13 +127,26 @@ public class TreeTableViewPage extends TestPaneBase {
         PREF,
         MAX,
         COMBINE,
-        COL_WITH_GRAPHIC
+        COL_WITH_GRAPHIC,
+        LAZY_TREE,
+        SHAPE,
+        FILTERED_TREE,
+        VALUE_COL,
     }
 
     protected final ComboBox<Demo> demoSelector;
     protected final ComboBox<ResizePolicy> policySelector;
     protected final ComboBox<Selection> selectionSelector;
     protected final CheckBox nullFocusModel;
+    protected final CheckBox fixedHeight;
+    protected final CheckBox matrixAllDemos;
+    private boolean suppressUpdates;
+    protected final Label policyStats;
+    protected final Label lazyStatus;
+    protected final TextField treeFilterField;
+    protected final Label treeFilterStatus;
+    protected TreeFilter<String> treeFilter;
+    protected final ResizePolicyProfiler.PerPolicy<ResizePolicy> profilers;
     protected TreeTableView<String> tree;
     
     public TreeTableViewPage() {
@@ -143,6 +177,57 @@ public class TreeTableViewPage extends TestPaneBase {
             updatePane();
         });
         
+        fixedHeight = new CheckBox("fixed height");
+        fixedHeight.setId("fixedHeight");
+        fixedHeight.selectedProperty().addListener((s,p,c) -> {
+            updatePane();
+        });
+
+        policyStats = new Label();
+        profilers = new ResizePolicyProfiler.PerPolicy<>(policySelector, policyStats);
+
+        lazyStatus = new Label();
+        lazyStatus.setWrapText(true);
+
+        treeFilterField = new TextField();
+        treeFilterField.setId("treeFilterField");
+        treeFilterField.setPromptText("filter (1M nodes, filtered demo)");
+        treeFilterField.textProperty().addListener((s,p,c) -> {
+            if (treeFilter != null) {
+                treeFilter.setFilter(c, (root) -> tree.setRoot(root));
+            }
+        });
+
+        treeFilterStatus = new Label();
+        treeFilterStatus.setWrapText(true);
+
+        matrixAllDemos = new CheckBox("scenario matrix: all demos");
+        matrixAllDemos.setId("matrixAllDemos");
+
+        Button matrixButton = new Button("Scenario Matrix");
+        matrixButton.setOnAction((ev) -> runScenarioMatrix());
+
+        Button sweepButton = new Button("Resize Sweep");
+        sweepButton.setOnAction((ev) -> runResizeSweep());
+
+        Button resetStatsButton = new Button("Reset Statistics");
+        resetStatsButton.setOnAction((ev) -> profilers.reset());
+
+        Button expandButton = new Button("Expand All");
+        expandButton.setOnAction((ev) -> setExpandedAll(true));
+
+        Button collapseButton = new Button("Collapse All");
+        collapseButton.setOnAction((ev) -> setExpandedAll(false));
+
+        Button expansionButton = new Button("Expand / Collapse Benchmark");
+        expansionButton.setOnAction((ev) -> TreeExpansionBenchmark.openWindow(FX.getParentWindow(this)));
+
+        Button shapesButton = new Button("Tree Shapes Benchmark");
+        shapesButton.setOnAction((ev) -> TreeShapeBenchmark.openWindow(FX.getParentWindow(this)));
+
+        Button scrollButton = new Button("Scroll Benchmark");
+        scrollButton.setOnAction((ev) -> runScrollBenchmark());
+
         Button clearButton = new Button("Clear Items");
         clearButton.setOnAction((ev) -> {
             tree.setRoot(new TreeItem(null));
@@ -155,11 +240,29 @@ public class TreeTableViewPage extends TestPaneBase {
         p.label("Data:");
         p.option(demoSelector);
         p.option(clearButton);
+        p.option(expandButton);
+        p.option(collapseButton);
+        p.option(lazyStatus);
+        p.label("Tree Filter:");
+        p.option(treeFilterField);
+        p.option(treeFilterStatus);
         p.label("Column Resize Policy:");
         p.option(policySelector);
+        p.option(policyStats);
+        p.option(sweepButton);
+        p.option(resetStatsButton);
         p.label("Selection Model:");
         p.option(selectionSelector);
         p.option(nullFocusModel);
+        p.option(fixedHeight);
+        p.label("Export CSV:");
+        p.option(new CsvExportPane((sel) -> tree == null ? null : CsvExporter.forTreeTable(tree, sel)));
+        p.label("Benchmark:");
+        p.option(scrollButton);
+        p.option(expansionButton);
+        p.option(shapesButton);
+        p.option(matrixAllDemos);
+        p.option(matrixButton);
         setOptions(p);
 
         demoSelector.getSelectionModel().selectFirst();
@@ -167,21 +270,57 @@ public class TreeTableViewPage extends TestPaneBase {
         selectionSelector.getSelectionModel().select(Selection.MULTIPLE_CELL);
     }
 
-    protected Callback<ResizeFeatures,Boolean> wrap(Callback<ResizeFeatures,Boolean> policy) {
-        return new Callback<ResizeFeatures,Boolean>() {
-            @Override
-            public Boolean call(ResizeFeatures f) {
-                Boolean rv = policy.call(f);
-                int ix = f.getTable().getColumns().indexOf(f.getColumn());
-                System.out.println(
-                    "col=" + (ix < 0 ? f.getColumn() : ix) +
-                    " delta=" + f.getDelta() +
-                    " w=" + f.getTable().getWidth() +
-                    " rv=" + rv
-                );
-                return rv;
-            }
-        };
+    /** drags the column borders with every resize policy, for the current demo */
+    protected void runResizeSweep() {
+        profilers.sweep(
+            FX.getParentWindow(this),
+            "Resize Policy Sweep: TreeTableView, " + FX.getSelectedItem(demoSelector),
+            () -> tree,
+            () -> tree.getVisibleLeafColumns().size(),
+            (ix, delta) -> tree.resizeColumn(tree.getVisibleLeafColumn(ix), delta)
+        );
+    }
+
+    /**
+     * Runs the scenario matrix workload for every combination of the resize policy, selection model,
+     * null focus model and fixed height options, with the current or all the lightweight demos.
+     */
+    protected void runScenarioMatrix() {
+        ScenarioMatrix.runStandard(
+            FX.getParentWindow(this),
+            "Scenario Matrix: TreeTableView",
+            new ScenarioMatrix.Options<>(demoSelector, policySelector, selectionSelector, nullFocusModel, fixedHeight),
+            matrixAllDemos.isSelected(),
+            TreeTableViewPage::isHeavy,
+            () -> tree,
+            this::applyOptions
+        );
+    }
+
+    /** demos too large to be rebuilt a few hundred times in a row */
+    protected static boolean isHeavy(Demo d) {
+        switch(d) {
+        case MILLION:
+        case CHAIN:
+        case STAR:
+        case BINARY:
+        case SKEWED:
+        case FILTERED:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /** sets the options with the updates suppressed, then rebuilds the pane once */
+    protected void applyOptions(Runnable setOptions) {
+        suppressUpdates = true;
+        try {
+            setOptions.run();
+        } finally {
+            suppressUpdates = false;
+        }
+        updatePane();
     }
 
     protected String describe(TreeTableColumn c) {
@@ -429,12 +568,58 @@ public class TreeTableViewPage extends TestPaneBase {
                 Cmd.COL,
                 Cmd.COL
             };
+        case CHAIN:
+            return new Object[] {
+                Cmd.SHAPE, TreeShapeBenchmark.Shape.CHAIN,
+                Cmd.VALUE_COL,
+                Cmd.COL
+            };
+        case STAR:
+            return new Object[] {
+                Cmd.SHAPE, TreeShapeBenchmark.Shape.STAR,
+                Cmd.VALUE_COL,
+                Cmd.COL
+            };
+        case BINARY:
+            return new Object[] {
+                Cmd.SHAPE, TreeShapeBenchmark.Shape.BINARY,
+                Cmd.VALUE_COL,
+                Cmd.COL
+            };
+        case SKEWED:
+            return new Object[] {
+                Cmd.SHAPE, TreeShapeBenchmark.Shape.SKEWED,
+                Cmd.VALUE_COL,
+                Cmd.COL
+            };
+        case FILTERED:
+            return new Object[] {
+                Cmd.FILTERED_TREE, 100, 3,
+                Cmd.VALUE_COL,
+                Cmd.COL
+            };
+        case LAZY:
+            return new Object[] {
+                Cmd.LAZY_TREE, 6, 15, 0,
+                Cmd.VALUE_COL,
+                Cmd.COL
+            };
+        case LAZY_RELEASE:
+            return new Object[] {
+                Cmd.LAZY_TREE, 6, 15, 1,
+                Cmd.VALUE_COL,
+                Cmd.COL
+            };
         default:
             throw new Error("?" + d);
         }
     }
 
     protected void updatePane() {
+        if (suppressUpdates) {
+            return;
+        }
+
         Demo d = demoSelector.getSelectionModel().getSelectedItem();
         ResizePolicy p = policySelector.getSelectionModel().getSelectedItem();
         Object[] spec = createSpec(d);
@@ -485,6 +670,12 @@ public class TreeTableViewPage extends TestPaneBase {
             }
         }
 
+        lazyStatus.setText(null);
+        if (treeFilter != null) {
+            treeFilter.cancel();
+            treeFilter = null;
+        }
+        treeFilterStatus.setText(null);
         tree = new TreeTableView<>(new TreeItem<>(null));
         tree.getSelectionModel().setCellSelectionEnabled(cellSelection);
         tree.getSelectionModel().setSelectionMode(selectionMode);
@@ -494,9 +685,12 @@ public class TreeTableViewPage extends TestPaneBase {
         if(nullFocusModel.isSelected()) {
             tree.setFocusModel(null);
         }
+        if (fixedHeight.isSelected()) {
+            tree.setFixedCellSize(20);
+        }
         
         Callback<ResizeFeatures,Boolean> p = createPolicy(policy);
-        tree.setColumnResizePolicy(p);
+        tree.setColumnResizePolicy(profilers.wrap(policy, p));
 
         TreeTableColumn<String,String> lastColumn = null;
         int id = 1;
@@ -514,6 +708,16 @@ public class TreeTableViewPage extends TestPaneBase {
                         lastColumn = c;
                     }
                     break;
+                case VALUE_COL:
+                    {
+                        TreeTableColumn<String,String> c = new TreeTableColumn<>();
+                        tree.getColumns().add(c);
+                        c.setText("Value");
+                        c.setPrefWidth(200);
+                        c.setCellValueFactory((f) -> f.getValue().valueProperty());
+                        lastColumn = c;
+                    }
+                    break;
                 case COL_WITH_GRAPHIC:
                     {
                         TreeTableColumn<String,String> c = new TreeTableColumn<>();
@@ -561,6 +765,27 @@ public class TreeTableViewPage extends TestPaneBase {
                         }
                     }
                     break;
+                case SHAPE:
+                    {
+                        TreeShapeBenchmark.Shape shape = (TreeShapeBenchmark.Shape)spec[i++];
+                        tree.setRoot(TreeShapeBenchmark.create(shape, true).root());
+                    }
+                    break;
+                case FILTERED_TREE:
+                    {
+                        int fanout = (int)(spec[i++]);
+                        int depth = (int)(spec[i++]);
+                        createFilteredTree(fanout, depth);
+                    }
+                    break;
+                case LAZY_TREE:
+                    {
+                        int depth = (int)(spec[i++]);
+                        int fanout = (int)(spec[i++]);
+                        boolean release = ((int)(spec[i++]) != 0);
+                        createLazyTree(depth, fanout, release);
+                    }
+                    break;
                 case COMBINE:
                     int ix = (int)(spec[i++]);
                     int ct = (int)(spec[i++]);
@@ -579,6 +804,95 @@ public class TreeTableViewPage extends TestPaneBase {
         return bp;
     }
 
+    /**
+     * Sets the root which generates the children on first expansion, with the specified depth and fanout.
+     * The children are released on collapse if requested.
+     */
+    protected void createLazyTree(int depth, int fanout, boolean release) {
+        LazyTreeItem.Model<String> m = new LazyTreeItem.Model<>((parent) -> {
+            if (parent.getDepth() >= depth) {
+                return null;
+            }
+            String prefix = (parent.getDepth() == 0) ? "" : parent.getValue() + ".";
+            ArrayList<String> rv = new ArrayList<>(fanout);
+            for (int j = 0; j < fanout; j++) {
+                rv.add(prefix + j);
+            }
+            return rv;
+        }, release);
+
+        long total = 0;
+        long level = 1;
+        for (int d = 0; d < depth; d++) {
+            level *= fanout;
+            total += level;
+        }
+        long logical = total;
+        m.setOnChange(() -> updateLazyStatus(m, logical));
+
+        LazyTreeItem<String> root = new LazyTreeItem<>("root", m);
+        root.setExpanded(true);
+        tree.setRoot(root);
+        tree.setShowRoot(false);
+        updateLazyStatus(m, logical);
+    }
+
+    /** creates a complete tree of the specified fanout and depth, decorated with the incremental filter */
+    protected void createFilteredTree(int fanout, int depth) {
+        int size = 1;
+        int level = 1;
+        for (int d = 0; d < depth; d++) {
+            level *= fanout;
+            size += level;
+        }
+        int[] parent = new int[size];
+        parent[0] = -1;
+        for (int j = 1; j < size; j++) {
+            parent[j] = (j - 1) / fanout;
+        }
+
+        TreeItem<String> source = TreeShapeBenchmark.create(parent, false).root();
+        source.setExpanded(true);
+        treeFilter = new TreeFilter<>(source);
+        treeFilter.setReporter(treeFilterStatus::setText);
+        tree.setShowRoot(false);
+
+        String text = treeFilterField.getText();
+        if ((text == null) || text.isEmpty()) {
+            tree.setRoot(treeFilter.getRoot());
+            treeFilterStatus.setText(String.format("%,d nodes", treeFilter.size()));
+        } else {
+            treeFilter.setFilter(text, (root) -> tree.setRoot(root));
+        }
+    }
+
+    protected void updateLazyStatus(LazyTreeItem.Model<?> m, long logical) {
+        Runtime r = Runtime.getRuntime();
+        lazyStatus.setText(String.format(
+            "%,d of %,d nodes materialized, heap %,d MB",
+            m.getMaterializedCount(),
+            logical,
+            (r.totalMemory() - r.freeMemory()) / (1024 * 1024)
+        ));
+    }
+
+    /** expands or collapses the selected subtree, or the whole tree, in a single pass */
+    protected void setExpandedAll(boolean expand) {
+        TreeItem<String> item = (tree.getSelectionModel() == null) ? null : tree.getSelectionModel().getSelectedItem();
+        TreeExpansion.setExpandedAll(tree, item, expand);
+    }
+
+    /** scrolls the current demo with the variable and the fixed cell height */
+    protected void runScrollBenchmark() {
+        ScrollBenchmark.runSuite(
+            FX.getParentWindow(this),
+            "Scroll Benchmark: TreeTableView, " + FX.getSelectedItem(demoSelector),
+            fixedHeight,
+            this::updatePane,
+            () -> tree
+        );
+    }
+
     protected String newItem() {
         return System.currentTimeMillis() + "." + System.nanoTime();
     }
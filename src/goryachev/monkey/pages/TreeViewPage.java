@@ -29,11 +29,19 @@ import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.CheckBoxTreeItem;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
+import javafx.scene.control.cell.CheckBoxTreeCell;
 import javafx.scene.layout.HBox;
 
+import goryachev.monkey.util.CheckBoxTreeBenchmark;
+import goryachev.monkey.util.FX;
 import goryachev.monkey.util.TestPaneBase;
+import goryachev.monkey.util.TreeExpansion;
+import goryachev.monkey.util.TreeExpansionBenchmark;
+import goryachev.monkey.util.TreeShapeBenchmark;
+import goryachev.monkey.util.TriStateTree;
 
 /**
  * Test code from CheckBoxTreeEditor, see https://bugs.openjdk.org/browse/JDK-8209017
@@ -41,6 +49,19 @@ import goryachev.monkey.util.TestPaneBase;
  * FIX don't see checkboxes for some reason!
  */
 public class TreeViewPage extends TestPaneBase {
+    enum LargeTree {
+        CHECKBOX_100K("100k CheckBoxTreeItems", 100_000, false),
+        CHECKBOX_1M("1M CheckBoxTreeItems", 1_000_000, false),
+        TRISTATE_100K("100k, tri-state model", 100_000, true),
+        TRISTATE_1M("1M, tri-state model", 1_000_000, true);
+
+        private final String text;
+        private final int size;
+        private final boolean compact;
+        LargeTree(String text, int size, boolean compact) { this.text = text; this.size = size; this.compact = compact; }
+        public String toString() { return text; }
+    }
+
     private TreeView<String> tree;
     private int childNum;
     
@@ -55,11 +76,53 @@ public class TreeViewPage extends TestPaneBase {
         Button remove = new Button("Remove");
         remove.setOnAction(e -> removeChild());
         
+        Button expand = new Button("Expand All");
+        expand.setOnAction(e -> TreeExpansion.setExpandedAll(tree, tree.getSelectionModel().getSelectedItem(), true));
+
+        Button collapse = new Button("Collapse All");
+        collapse.setOnAction(e -> TreeExpansion.setExpandedAll(tree, tree.getSelectionModel().getSelectedItem(), false));
+
+        Button benchmark = new Button("Expand / Collapse Benchmark");
+        benchmark.setOnAction(e -> TreeExpansionBenchmark.openWindow(FX.getParentWindow(this)));
+
+        ComboBox<TreeShapeBenchmark.Shape> shape = new ComboBox<>();
+        shape.setId("shape");
+        shape.setPromptText("Shape");
+        shape.getItems().addAll(TreeShapeBenchmark.Shape.values());
+        shape.getSelectionModel().selectedItemProperty().addListener((s,p,c) -> {
+            if (c != null) {
+                tree.setRoot(TreeShapeBenchmark.create(c, true).root());
+            }
+        });
+
+        ComboBox<LargeTree> large = new ComboBox<>();
+        large.setId("largeTree");
+        large.setPromptText("Large CheckBox Tree");
+        large.getItems().addAll(LargeTree.values());
+        large.getSelectionModel().selectedItemProperty().addListener((s,p,c) -> {
+            if (c != null) {
+                createLargeTree(c);
+            }
+        });
+
+        Button checkBoxes = new Button("CheckBox Tree Benchmark");
+        checkBoxes.setOnAction(e -> CheckBoxTreeBenchmark.openWindow(FX.getParentWindow(this)));
+
+        Button shapes = new Button("Tree Shapes Benchmark");
+        shapes.setOnAction(e -> TreeShapeBenchmark.openWindow(FX.getParentWindow(this)));
+
         toolbar().addAll(
             add,
             remove,
             indeterminate,
-            selected
+            selected,
+            expand,
+            collapse,
+            benchmark,
+            shape,
+            shapes,
+            large,
+            checkBoxes
         );
         
         updatePane();
@@ -79,6 +142,22 @@ public class TreeViewPage extends TestPaneBase {
         setContent(tree);
     }
 
+    /** creates a complete tree with the fanout of 10, of CheckBoxTreeItems or backed by the tri-state model */
+    protected void createLargeTree(LargeTree t) {
+        TriStateTree model = new TriStateTree(CheckBoxTreeBenchmark.createParents(t.size, 10));
+        tree = new TreeView<>();
+        if (t.compact) {
+            tree.setRoot(model.createTreeItems(TriStateTree.Item::new, false).get(0));
+            tree.setCellFactory((v) -> model.createCell());
+            model.setOnChange(tree::refresh);
+        } else {
+            tree.setRoot(model.createTreeItems((ix) -> new CheckBoxTreeItem<>("N" + ix), false).get(0));
+            tree.setCellFactory(CheckBoxTreeCell.forTreeView());
+        }
+        tree.getRoot().setExpanded(true);
+        setContent(tree);
+    }
+
     private void addChild(boolean indeterminate, boolean selected) {
         CheckBoxTreeItem<String> item = new CheckBoxTreeItem<>("child " + childNum++);
         Button button = new Button("" + childNum);
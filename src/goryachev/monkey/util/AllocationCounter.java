@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reports the number of bytes allocated by the thread which created this counter,
+ * using the HotSpot-specific com.sun.management.ThreadMXBean extension.
+ */
+public class AllocationCounter {
+    private final com.sun.management.ThreadMXBean mx;
+    private final long threadId;
+
+    public AllocationCounter() {
+        threadId = Thread.currentThread().getId();
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean m) {
+            if (m.isThreadAllocatedMemorySupported()) {
+                if (!m.isThreadAllocatedMemoryEnabled()) {
+                    m.setThreadAllocatedMemoryEnabled(true);
+                }
+                mx = m;
+                return;
+            }
+        }
+        mx = null;
+    }
+
+    public boolean isSupported() {
+        return mx != null;
+    }
+
+    /** returns the total number of bytes allocated by the thread so far, or -1 if not supported */
+    public long getAllocatedBytes() {
+        if (mx == null) {
+            return -1;
+        }
+        return mx.getThreadAllocatedBytes(threadId);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import javafx.scene.control.Cell;
+
+/**
+ * Shows the value loaded by {@link AsyncValueLoader} in a cell: the placeholder is shown until
+ * the value has been loaded, and the request is cancelled when the cell is reassigned to another index.
+ * Also provides the simulated slow lookup shared by the async cell value demos.
+ */
+public class AsyncCellBinding {
+    public static final String PLACEHOLDER = "...";
+    public static final int LOOKUP_MILLIS = 5;
+    public static final int THREADS = 4;
+    public static final int QUEUE = 1024;
+    public static final int CACHE = 10_000;
+    private final AsyncValueLoader<String> loader;
+    private final Cell<?> cell;
+    private final String suffix;
+    private AsyncValueLoader.Ticket<String> ticket;
+    private int index = -1;
+
+    /**
+     * @param loader the loader
+     * @param cell the cell showing the value
+     * @param suffix the text appended to the loaded value
+     */
+    public AsyncCellBinding(AsyncValueLoader<String> loader, Cell<?> cell, String suffix) {
+        this.loader = loader;
+        this.cell = cell;
+        this.suffix = suffix;
+    }
+
+    /** creates the loader which looks up the values with {@link #slowLookup(String, int)} */
+    public static AsyncValueLoader<String> createLoader(String prefix) {
+        return new AsyncValueLoader<>(THREADS, QUEUE, CACHE, (ix) -> slowLookup(prefix, ix));
+    }
+
+    /** simulates a slow lookup of the value, returns null when interrupted */
+    public static String slowLookup(String prefix, int index) {
+        if (!AsyncValueLoader.sleep(LOOKUP_MILLIS)) {
+            return null;
+        }
+        return prefix + index;
+    }
+
+    /** updates the cell, to be called from updateItem() with the cell index or -1 when empty */
+    public void update(int ix) {
+        if (ix == index) {
+            return;
+        }
+
+        if (ticket != null) {
+            loader.cancel(ticket);
+            ticket = null;
+        }
+        index = ix;
+
+        if (ix < 0) {
+            cell.setText(null);
+            return;
+        }
+
+        String v = loader.getCached(ix);
+        if (v == null) {
+            cell.setText(PLACEHOLDER);
+            ticket = loader.request(ix, (x) -> {
+                ticket = null;
+                cell.setText(x + suffix);
+            });
+        } else {
+            cell.setText(v + suffix);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import javafx.application.Platform;
+
+/**
+ * Resolves the values keyed by the row index asynchronously, using a bounded executor.
+ * <p>
+ * The cells request the value when they are assigned an index, show a placeholder in the meantime,
+ * and cancel the request when they are reassigned to another index before the value arrives.
+ * Concurrent requests for the same index share one lookup, which is cancelled when the last
+ * requester cancels.  The completed values are kept in an LRU cache.  The lookups which do not fit
+ * in the executor queue are deferred, and submitted as soon as the queue has room.
+ * <p>
+ * All the methods, except the lookup function, must be called in the FX application thread.
+ */
+public class AsyncValueLoader<V> {
+    /** identifies a single request, see {@link #cancel(Ticket)} */
+    public static final class Ticket<V> {
+        private final Pending<V> pending;
+        private final Consumer<V> consumer;
+
+        private Ticket(Pending<V> pending, Consumer<V> consumer) {
+            this.pending = pending;
+            this.consumer = consumer;
+        }
+    }
+
+    private static class Pending<V> {
+        final int index;
+        final long start = System.nanoTime();
+        final ArrayList<Ticket<V>> tickets = new ArrayList<>(2);
+        Future<?> future;
+        volatile V value;
+
+        public Pending(int index) {
+            this.index = index;
+        }
+    }
+
+    private final IntFunction<V> lookup;
+    private final ThreadPoolExecutor executor;
+    private final LinkedHashMap<Integer,V> cache;
+    private final HashMap<Integer,Pending<V>> pending = new HashMap<>();
+    private final ConcurrentLinkedQueue<Pending<V>> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ArrayDeque<Pending<V>> deferred = new ArrayDeque<>();
+    private volatile boolean hasDeferred;
+    private final Histogram latency = Histogram.millis();
+    private long requested;
+    private long lookups;
+    private long cancelled;
+    private long loaded;
+    private long rejected;
+    private long hits;
+
+    /**
+     * @param threads the number of worker threads
+     * @param queueSize the maximum number of lookups waiting for a worker
+     * @param cacheSize the maximum number of cached values
+     * @param lookup the (slow) lookup function, invoked in a worker thread
+     */
+    public AsyncValueLoader(int threads, int queueSize, int cacheSize, IntFunction<V> lookup) {
+        this.lookup = lookup;
+        this.executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            (r) -> {
+                Thread t = new Thread(r, "AsyncValueLoader");
+                t.setDaemon(true);
+                return t;
+            });
+        this.cache = new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer,V> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /** returns the cached value, or null */
+    public V getCached(int index) {
+        V v = cache.get(index);
+        if (v != null) {
+            hits++;
+        }
+        return v;
+    }
+
+    /**
+     * Requests the value, which will be passed to the consumer in the FX application thread.
+     * Returns the ticket for cancelling the request.
+     */
+    public Ticket<V> request(int index, Consumer<V> consumer) {
+        requested++;
+        Pending<V> p = pending.get(index);
+        if (p == null) {
+            p = new Pending<>(index);
+            pending.put(index, p);
+            lookups++;
+            if (!submit(p)) {
+                rejected++;
+                deferred.add(p);
+                hasDeferred = true;
+            }
+        }
+        Ticket<V> t = new Ticket<>(p, consumer);
+        p.tickets.add(t);
+        return t;
+    }
+
+    /** cancels the request.  The lookup is cancelled when no other request for the same index remains. */
+    public void cancel(Ticket<V> t) {
+        Pending<V> p = t.pending;
+        if (p.tickets.remove(t)) {
+            cancelled++;
+            if (p.tickets.isEmpty()) {
+                pending.remove(p.index);
+                if (p.future != null) {
+                    p.future.cancel(true);
+                    // do not let the cancelled lookup occupy the queue
+                    executor.remove((Runnable)p.future);
+                }
+                submitDeferred();
+            }
+        }
+    }
+
+    private boolean submit(Pending<V> p) {
+        try {
+            p.future = executor.submit(() -> run(p));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /** submits the deferred lookups which are still wanted, while the executor queue has room */
+    private void submitDeferred() {
+        Pending<V> p;
+        while ((p = deferred.peekFirst()) != null) {
+            if ((pending.get(p.index) == p) && !submit(p)) {
+                break;
+            }
+            deferred.pollFirst();
+        }
+        hasDeferred = !deferred.isEmpty();
+    }
+
+    private void run(Pending<V> p) {
+        V v = lookup.apply(p.index);
+        boolean done = (v != null) && !Thread.currentThread().isInterrupted();
+        if (done) {
+            p.value = v;
+            completed.add(p);
+        }
+        // the worker is about to take the next lookup, which makes room for a deferred one
+        if ((done || hasDeferred) && drainScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+    }
+
+    /** delivers all the values completed since the last call, in one event */
+    private void drain() {
+        drainScheduled.set(false);
+        submitDeferred();
+        Pending<V> p;
+        while ((p = completed.poll()) != null) {
+            cache.put(p.index, p.value);
+            if (pending.get(p.index) != p) {
+                // cancelled after completion
+                continue;
+            }
+            pending.remove(p.index);
+            loaded++;
+            latency.addNanos(System.nanoTime() - p.start);
+            for (Ticket<V> t: p.tickets) {
+                t.consumer.accept(p.value);
+            }
+        }
+    }
+
+    /** returns the number of lookups in progress, waiting for a worker, or deferred */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /** returns the fraction of requests cancelled before the value arrived */
+    public double getCancelRatio() {
+        return requested == 0 ? 0.0 : cancelled / (double)requested;
+    }
+
+    public long getRequested() {
+        return requested;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public long getLoaded() {
+        return loaded;
+    }
+
+    /** the number of lookups which did not fit in the executor queue and had to be deferred */
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getCacheHits() {
+        return hits;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public String getStatus() {
+        return String.format(
+            "requests %,d, lookups %,d, loaded %,d, cancelled %,d (%.1f%%), deferred %,d, cache hits %,d, latency avg %.1f ms",
+            requested,
+            lookups,
+            loaded,
+            cancelled,
+            getCancelRatio() * 100.0,
+            rejected,
+            hits,
+            latency.getAverage()
+        );
+    }
+
+    public void resetStatistics() {
+        requested = 0;
+        lookups = 0;
+        cancelled = 0;
+        loaded = 0;
+        rejected = 0;
+        hits = 0;
+        latency.clear();
+    }
+
+    /** clears the cache, so the values are loaded again */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /** cancels all the lookups and stops the worker threads */
+    public void shutdown() {
+        for (Pending<V> p: pending.values()) {
+            if (p.future != null) {
+                p.future.cancel(true);
+            }
+        }
+        pending.clear();
+        deferred.clear();
+        hasDeferred = false;
+        executor.shutdownNow();
+    }
+
+    /** simulates a slow lookup, returns false if interrupted */
+    public static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
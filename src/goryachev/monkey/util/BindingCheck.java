@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.List;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+
+/**
+ * Verifies that the pages stop listening to {@link TestPaneBase#usePreferredSize} when they are discarded:
+ * switches the pages the specified number of times, and compares the number of content updates per toggle
+ * of the property and the time per toggle before and after.
+ * Every page still reached by the property rebuilds its content on each toggle, so a leaked listener
+ * shows up as additional updates per toggle.
+ */
+public class BindingCheck {
+    /** a measurement taken while the original page is showing */
+    public record Sample(double updatesPerToggle, double millisPerToggle) { }
+
+    private static final int TOGGLES = 20;
+    /** the toggle time after the switches may exceed the initial time by this factor plus the slack */
+    private static final double MAX_SLOWDOWN = 3.0;
+    private static final double SLACK_MILLIS = 1.0;
+
+    /**
+     * Measures, performs the page switches, one per event loop iteration, and measures again.
+     * Passes the report and the verdict to the callback.
+     */
+    public static void run(SessionHost host, int switches, Consumer<String> report, Consumer<Boolean> onDone) {
+        String original = host.getPageTitle();
+        List<String> titles = host.getPageTitles();
+        Sample before = measure();
+
+        new Runnable() {
+            private int index;
+
+            @Override
+            public void run() {
+                if (index < switches) {
+                    host.selectPage(titles.get(index % titles.size()));
+                    index++;
+                    Platform.runLater(this);
+                    return;
+                }
+
+                host.selectPage(original);
+                Sample after = measure();
+                boolean ok =
+                    (after.updatesPerToggle() == before.updatesPerToggle()) &&
+                    (after.millisPerToggle() <= before.millisPerToggle() * MAX_SLOWDOWN + SLACK_MILLIS);
+
+                report.accept(String.format("binding check: %,d page switches", switches));
+                report.accept(String.format("  updates per toggle:    before %.1f, after %.1f", before.updatesPerToggle(), after.updatesPerToggle()));
+                report.accept(String.format("  toggle time (ms):      before %.3f, after %.3f", before.millisPerToggle(), after.millisPerToggle()));
+                report.accept(ok ? "PASS" : "FAIL");
+                onDone.accept(ok);
+            }
+        }.run();
+    }
+
+    /** toggles the property an even number of times, leaving it unchanged */
+    public static Sample measure() {
+        long u0 = TestPaneBase.getContentUpdateCount();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < TOGGLES; i++) {
+            TestPaneBase.usePreferredSize.set(!TestPaneBase.usePreferredSize.get());
+        }
+        long t = System.nanoTime() - t0;
+        long u = TestPaneBase.getContentUpdateCount() - u0;
+        return new Sample(
+            u / (double)TOGGLES,
+            t / 1_000_000.0 / TOGGLES
+        );
+    }
+}
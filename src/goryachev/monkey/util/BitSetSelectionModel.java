@@ -0,0 +1,498 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumnBase;
+import javafx.scene.control.TablePosition;
+import javafx.scene.control.TableView;
+
+/**
+ * A TableView selection model which keeps the selection in a run-length encoded {@link RangeSet}:
+ * the row indexes in the row selection mode, or the (visible leaf column index, row) keys in the
+ * cell selection mode, so each column is a separate range of keys.
+ * <p>
+ * The selected indices, items and cells are virtual lists synthesized from the set,
+ * and the change events describe the affected ranges rather than the individual indices,
+ * see {@link RangeSetList}.
+ * <p>
+ * Limitations: the selection is cleared when the items change (including sorting),
+ * when the selection mode changes, or when the cell selection is toggled;
+ * the cell selection refers to the visible leaf column indexes and is not updated
+ * when the columns are reordered or hidden.
+ */
+public class BitSetSelectionModel<S> extends TableView.TableViewSelectionModel<S> {
+    private final RangeSetList<Integer> indices;
+    private final RangeSetList<S> items;
+    private final RangeSetList<TablePosition<S,?>> cells;
+    private final ListChangeListener<S> itemsListener = (ch) -> clearSelection();
+    private RangeSet selection = RangeSet.EMPTY;
+    private boolean cellMode;
+
+    public BitSetSelectionModel(TableView<S> table) {
+        super(table);
+        indices = new RangeSetList<>((v) -> (int)v);
+        items = new RangeSetList<>((v) -> getModelItem((int)v));
+        cells = new RangeSetList<>(this::position);
+
+        cellMode = isCellSelectionEnabled();
+        cellSelectionEnabledProperty().addListener((s,p,c) -> {
+            // the keys are interpreted according to the old mode while clearing
+            clearSelection();
+            cellMode = c;
+        });
+        selectionModeProperty().addListener((s,p,c) -> clearSelection());
+
+        if (table.getItems() != null) {
+            table.getItems().addListener(itemsListener);
+        }
+        table.itemsProperty().addListener((s,p,c) -> {
+            if (p != null) {
+                p.removeListener(itemsListener);
+            }
+            if (c != null) {
+                c.addListener(itemsListener);
+            }
+            clearSelection();
+        });
+    }
+
+    /** returns the underlying set: rows, or cell keys in the cell selection mode */
+    public RangeSet getSelection() {
+        return selection;
+    }
+
+    @Override
+    public ObservableList<Integer> getSelectedIndices() {
+        return indices;
+    }
+
+    @Override
+    public ObservableList<S> getSelectedItems() {
+        return items;
+    }
+
+    @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public ObservableList<TablePosition> getSelectedCells() {
+        // the raw type is dictated by TableViewSelectionModel
+        return (ObservableList)cells;
+    }
+
+    protected void setSelection(RangeSet s) {
+        selection = s;
+        RangeSet rows = cellMode ? toRows(s) : s;
+        indices.update(rows);
+        items.update(rows);
+        cells.update(s);
+
+        if (s.isEmpty()) {
+            setSelectedIndex(-1);
+            setSelectedItem(null);
+        }
+    }
+
+    /** projects the cell keys onto the rows */
+    protected static RangeSet toRows(RangeSet keys) {
+        int n = keys.getRunCount();
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        for (int i = 0; i < n; i++) {
+            long start = keys.getStart(i);
+            starts[i] = row(start);
+            ends[i] = starts[i] + (keys.getEnd(i) - start);
+        }
+        return RangeSet.ofRuns(starts, ends, n);
+    }
+
+    private static long key(int column, long row) {
+        return (((long)column) << 32) | row;
+    }
+
+    private static long row(long key) {
+        return key & 0xffffffffL;
+    }
+
+    protected TablePosition<S,?> position(long key) {
+        TableView<S> t = getTableView();
+        int row = (int)row(key);
+        TableColumn<S,?> c = cellMode ? t.getVisibleLeafColumn((int)(key >>> 32)) : null;
+        return new TablePosition<>(t, row, c);
+    }
+
+    protected int columnIndex(TableColumnBase<S,?> c) {
+        return (c instanceof TableColumn<S,?> tc) ? getTableView().getVisibleLeafIndex(tc) : -1;
+    }
+
+    /**
+     * Returns the keys for the rows [start, end) in the specified column, or in all
+     * the visible leaf columns if the column is null (cell selection mode only).
+     */
+    protected RangeSet keys(long start, long end, TableColumnBase<S,?> column) {
+        if (!cellMode) {
+            return RangeSet.of(start, end);
+        }
+
+        if (column != null) {
+            int ix = columnIndex(column);
+            if (ix < 0) {
+                return RangeSet.EMPTY;
+            }
+            return RangeSet.of(key(ix, start), key(ix, end));
+        }
+
+        int n = getTableView().getVisibleLeafColumns().size();
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = key(i, start);
+            ends[i] = key(i, end);
+        }
+        return RangeSet.ofRuns(starts, ends, n);
+    }
+
+    private boolean isValid(int row) {
+        return (row >= 0) && (row < getItemCount());
+    }
+
+    private boolean isSingle() {
+        return getSelectionMode() == SelectionMode.SINGLE;
+    }
+
+    /** updates the selected index and item, and moves the focus */
+    protected void selected(int row, TableColumnBase<S,?> column) {
+        setSelectedIndex(row);
+        setSelectedItem(getModelItem(row));
+
+        TableView.TableViewFocusModel<S> fm = getTableView().getFocusModel();
+        if (fm != null) {
+            fm.focus(row, (column instanceof TableColumn<S,?> tc) ? tc : null);
+        }
+    }
+
+    /**
+     * Returns true if the row is selected, or, in the cell selection mode, if every visible cell
+     * of the row is selected, same as the default model.
+     */
+    @Override
+    public boolean isSelected(int row) {
+        return isSelected(row, null);
+    }
+
+    @Override
+    public boolean isSelected(int row, TableColumn<S,?> column) {
+        if (!cellMode) {
+            return indices.getRangeSet().contains(row);
+        }
+
+        if (column == null) {
+            int n = getTableView().getVisibleLeafColumns().size();
+            for (int i = 0; i < n; i++) {
+                if (!selection.contains(key(i, row))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int ix = columnIndex(column);
+        return (ix >= 0) && selection.contains(key(ix, row));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return selection.isEmpty();
+    }
+
+    @Override
+    public void select(int row) {
+        select(row, null);
+    }
+
+    @Override
+    public void select(int row, TableColumn<S,?> column) {
+        if (!isValid(row)) {
+            return;
+        }
+        if (isSingle()) {
+            clearAndSelect(row, column);
+            return;
+        }
+        setSelection(selection.union(keys(row, row + 1, column)));
+        selected(row, column);
+    }
+
+    @Override
+    public void select(S item) {
+        int ix = getTableView().getItems().indexOf(item);
+        if (ix >= 0) {
+            select(ix);
+        } else {
+            setSelectedItem(item);
+        }
+    }
+
+    @Override
+    public void clearAndSelect(int row) {
+        clearAndSelect(row, null);
+    }
+
+    @Override
+    public void clearAndSelect(int row, TableColumn<S,?> column) {
+        if (!isValid(row)) {
+            return;
+        }
+        setSelection(keys(row, row + 1, column));
+        selected(row, column);
+    }
+
+    @Override
+    public void clearSelection(int row) {
+        clearSelection(row, null);
+    }
+
+    @Override
+    public void clearSelection(int row, TableColumn<S,?> column) {
+        setSelection(selection.subtract(keys(row, row + 1, column)));
+    }
+
+    @Override
+    public void clearSelection() {
+        setSelection(RangeSet.EMPTY);
+    }
+
+    @Override
+    public void selectIndices(int row, int... rows) {
+        if (isSingle()) {
+            int last = ((rows == null) || (rows.length == 0)) ? row : rows[rows.length - 1];
+            clearAndSelect(last);
+            return;
+        }
+
+        int n = 1 + ((rows == null) ? 0 : rows.length);
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        int ct = 0;
+        int last = -1;
+        for (int i = 0; i < n; i++) {
+            int r = (i == 0) ? row : rows[i - 1];
+            if (isValid(r)) {
+                starts[ct] = r;
+                ends[ct] = r + 1;
+                ct++;
+                last = r;
+            }
+        }
+        if (last < 0) {
+            return;
+        }
+
+        RangeSet rs = RangeSet.ofRuns(starts, ends, ct);
+        if (cellMode) {
+            RangeSet ks = RangeSet.EMPTY;
+            int cols = getTableView().getVisibleLeafColumns().size();
+            for (int c = 0; c < cols; c++) {
+                ks = ks.union(shift(rs, c));
+            }
+            rs = ks;
+        }
+        setSelection(selection.union(rs));
+        selected(last, null);
+    }
+
+    /** moves the row set into the key range of the specified column */
+    private static RangeSet shift(RangeSet rows, int column) {
+        int n = rows.getRunCount();
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = key(column, rows.getStart(i));
+            ends[i] = key(column, rows.getEnd(i));
+        }
+        return RangeSet.ofRuns(starts, ends, n);
+    }
+
+    @Override
+    public void selectRange(int start, int end) {
+        if (start == end) {
+            return;
+        }
+
+        boolean asc = (start < end);
+        int lo = Math.max(0, asc ? start : end + 1);
+        int hi = Math.min(getItemCount(), asc ? end : start + 1);
+        int last = asc ? end - 1 : end + 1;
+        if (lo >= hi) {
+            return;
+        }
+        if (isSingle()) {
+            clearAndSelect(last);
+            return;
+        }
+        setSelection(selection.union(keys(lo, hi, null)));
+        selected(last, null);
+    }
+
+    @Override
+    public void selectRange(int minRow, TableColumnBase<S,?> minColumn, int maxRow, TableColumnBase<S,?> maxColumn) {
+        if (isSingle()) {
+            if (maxColumn instanceof TableColumn<S,?> tc) {
+                clearAndSelect(maxRow, tc);
+            } else {
+                clearAndSelect(maxRow);
+            }
+            return;
+        }
+
+        int lo = Math.max(0, Math.min(minRow, maxRow));
+        int hi = Math.min(getItemCount(), Math.max(minRow, maxRow) + 1);
+        if (lo >= hi) {
+            return;
+        }
+
+        RangeSet s;
+        if (cellMode) {
+            int c0 = columnIndex(minColumn);
+            int c1 = columnIndex(maxColumn);
+            if ((c0 < 0) || (c1 < 0)) {
+                return;
+            }
+            int n = Math.abs(c1 - c0) + 1;
+            long[] starts = new long[n];
+            long[] ends = new long[n];
+            for (int i = 0; i < n; i++) {
+                int c = Math.min(c0, c1) + i;
+                starts[i] = key(c, lo);
+                ends[i] = key(c, hi);
+            }
+            s = RangeSet.ofRuns(starts, ends, n);
+        } else {
+            s = RangeSet.of(lo, hi);
+        }
+        setSelection(selection.union(s));
+        selected(maxRow, maxColumn);
+    }
+
+    @Override
+    public void selectAll() {
+        if (isSingle()) {
+            return;
+        }
+        int n = getItemCount();
+        if (n > 0) {
+            setSelection(keys(0, n, null));
+            selected(n - 1, null);
+        }
+    }
+
+    /** inverts the selection of all the rows (or cells in the cell selection mode) */
+    public void invert() {
+        if (isSingle()) {
+            return;
+        }
+        setSelection(selection.xor(keys(0, getItemCount(), null)));
+    }
+
+    @Override
+    public void selectFirst() {
+        if (isSingle()) {
+            clearSelection();
+        }
+        if (getItemCount() > 0) {
+            select(0);
+        }
+    }
+
+    @Override
+    public void selectLast() {
+        if (isSingle()) {
+            clearSelection();
+        }
+        int n = getItemCount();
+        if (n > 0) {
+            select(n - 1);
+        }
+    }
+
+    @Override
+    public void selectPrevious() {
+        int ix = getFocusedIndex();
+        if (ix > 0) {
+            clearAndSelect(ix - 1);
+        }
+    }
+
+    @Override
+    public void selectNext() {
+        int ix = getFocusedIndex();
+        if (ix < getItemCount() - 1) {
+            clearAndSelect(ix + 1);
+        }
+    }
+
+    @Override
+    public void selectAboveCell() {
+        moveCell(-1, 0);
+    }
+
+    @Override
+    public void selectBelowCell() {
+        moveCell(1, 0);
+    }
+
+    @Override
+    public void selectLeftCell() {
+        moveCell(0, -1);
+    }
+
+    @Override
+    public void selectRightCell() {
+        moveCell(0, 1);
+    }
+
+    protected void moveCell(int dy, int dx) {
+        TableView.TableViewFocusModel<S> fm = getTableView().getFocusModel();
+        if (fm == null) {
+            return;
+        }
+
+        TablePosition<?,?> p = fm.getFocusedCell();
+        int row = p.getRow() + dy;
+        TableColumn<S,?> c = null;
+        if (p.getTableColumn() != null) {
+            int ix = getTableView().getVisibleLeafColumns().indexOf(p.getTableColumn()) + dx;
+            c = getTableView().getVisibleLeafColumn(ix);
+            if (c == null) {
+                return;
+            }
+        }
+        if (isValid(row)) {
+            clearAndSelect(row, c);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBoxTreeItem;
+import javafx.stage.Window;
+
+/**
+ * Compares the selection propagation of CheckBoxTreeItem with the batched {@link TriStateTree}
+ * on trees of 100k and 1M nodes, toggling the root, a node in the middle and a leaf.
+ * The trees are not shown, so the measurements exclude the cells.
+ */
+public class CheckBoxTreeBenchmark {
+    public static final String[] COLUMNS = {
+        "Nodes",
+        "Operation",
+        "CheckBoxTreeItem (ms)",
+        "Tri-State (ms)",
+        "Speedup",
+        "Changed Nodes",
+        "States Equal"
+    };
+    private static final int[] SIZES = { 100_000, 1_000_000 };
+    private static final int FANOUT = 10;
+
+    private enum Op {
+        ROOT_ON("check root"),
+        ROOT_OFF("uncheck root"),
+        MIDDLE_ON("check middle node"),
+        LEAF_ON("check leaf"),
+        LEAF_OFF("uncheck leaf"),
+        MIDDLE_OFF("uncheck middle node");
+
+        private final String text;
+        Op(String text) { this.text = text; }
+        public String toString() { return text; }
+    }
+
+    private final int size;
+    private final TriStateTree model;
+    private final List<CheckBoxTreeItem<String>> items;
+    private final int middle;
+    private final int leaf;
+
+    public CheckBoxTreeBenchmark(int size) {
+        this.size = size;
+        model = new TriStateTree(createParents(size, FANOUT));
+        items = model.createTreeItems((ix) -> new CheckBoxTreeItem<>("N" + ix), true);
+
+        // descends to the middle child until half the depth
+        int depth = 0;
+        for (int ix = size - 1; ix > 0; ix = (ix - 1) / FANOUT) {
+            depth++;
+        }
+        int ix = 0;
+        for (int d = 0; (d < depth / 2) && (model.getChildCount(ix) > 0); d++) {
+            ix = model.getChild(ix, model.getChildCount(ix) / 2);
+        }
+        middle = ix;
+        // the last node in the breadth-first order is a leaf
+        leaf = size - 1;
+    }
+
+    /** the complete tree in the breadth-first order */
+    public static int[] createParents(int size, int fanout) {
+        int[] rv = new int[size];
+        rv[0] = -1;
+        for (int i = 1; i < size; i++) {
+            rv[i] = (i - 1) / fanout;
+        }
+        return rv;
+    }
+
+    protected String[] run(Op op) {
+        int ix;
+        boolean on;
+        switch (op) {
+        case ROOT_ON:
+            ix = 0;
+            on = true;
+            break;
+        case ROOT_OFF:
+            ix = 0;
+            on = false;
+            break;
+        case MIDDLE_ON:
+            ix = middle;
+            on = true;
+            break;
+        case MIDDLE_OFF:
+            ix = middle;
+            on = false;
+            break;
+        case LEAF_ON:
+            ix = leaf;
+            on = true;
+            break;
+        case LEAF_OFF:
+            ix = leaf;
+            on = false;
+            break;
+        default:
+            throw new Error("?" + op);
+        }
+
+        long t0 = System.nanoTime();
+        items.get(ix).setSelected(on);
+        long t1 = System.nanoTime();
+        model.setChecked(ix, on);
+        long t2 = System.nanoTime();
+
+        double a = (t1 - t0) / 1_000_000.0;
+        double b = (t2 - t1) / 1_000_000.0;
+        return new String[] {
+            String.valueOf(size),
+            op.toString(),
+            String.format("%.2f", a),
+            String.format("%.2f", b),
+            (b == 0.0) ? "" : String.format("%.0fx", a / b),
+            String.valueOf(model.getChangedCount()),
+            String.valueOf(isEqual())
+        };
+    }
+
+    /** compares the state of each item with the model */
+    protected boolean isEqual() {
+        for (int i = 0; i < size; i++) {
+            CheckBoxTreeItem<String> it = items.get(i);
+            byte s = model.getState(i);
+            if (it.isIndeterminate() != (s == TriStateTree.INDETERMINATE)) {
+                return false;
+            }
+            if (!it.isIndeterminate() && (it.isSelected() != (s == TriStateTree.CHECKED))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** opens the benchmark window */
+    public static void openWindow(Window owner) {
+        ReportWindow w = new ReportWindow(owner, "CheckBoxTreeItem vs Tri-State Model", COLUMNS);
+
+        Button runButton = new Button("Run");
+        runButton.setOnAction((ev) -> {
+            runButton.setDisable(true);
+            w.clear();
+            run(w, () -> runButton.setDisable(false));
+        });
+
+        TestPaneBase.TBar tb = new TestPaneBase.TBar();
+        tb.add(runButton);
+        w.setControls(tb);
+        w.show();
+    }
+
+    /** builds the trees in one pulse, then performs one operation per pulse */
+    private static void run(ReportWindow w, Runnable onDone) {
+        ArrayList<Object> steps = new ArrayList<>();
+        for (int size: SIZES) {
+            steps.add(size);
+            for (Op op: Op.values()) {
+                steps.add(op);
+            }
+        }
+
+        new AnimationTimer() {
+            private int index;
+            private CheckBoxTreeBenchmark bench;
+
+            @Override
+            public void handle(long now) {
+                if (index >= steps.size()) {
+                    stop();
+                    bench = null;
+                    onDone.run();
+                    return;
+                }
+
+                Object x = steps.get(index++);
+                if (x instanceof Integer size) {
+                    // releases the previous trees first
+                    bench = null;
+                    bench = new CheckBoxTreeBenchmark(size);
+                } else if (x instanceof Op op) {
+                    w.addRow(bench.run(op));
+                }
+            }
+        }.start();
+    }
+}
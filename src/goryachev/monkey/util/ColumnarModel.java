@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javafx.beans.value.ObservableValue;
+import javafx.beans.value.ObservableValueBase;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+
+/**
+ * A column-oriented data model which keeps the values in primitive arrays, one array per column:
+ * long[], double[], or dictionary-encoded strings (int[] codes into a String[] dictionary).
+ * There are no per-row objects: the table rows are the row indexes, synthesized by a {@link VirtualList}.
+ */
+public class ColumnarModel {
+    private final int size;
+    private final ArrayList<Column> columns = new ArrayList<>();
+
+    public ColumnarModel(int size) {
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public LongColumn addLongColumn(String name, long[] data) {
+        return add(new LongColumn(name, data));
+    }
+
+    public DoubleColumn addDoubleColumn(String name, double[] data) {
+        return add(new DoubleColumn(name, data));
+    }
+
+    public DictionaryColumn addDictionaryColumn(String name, int[] codes, String[] dictionary) {
+        return add(new DictionaryColumn(name, codes, dictionary));
+    }
+
+    protected <C extends Column> C add(C c) {
+        if (c.length() != size) {
+            throw new IllegalArgumentException("column " + c.getName() + " has " + c.length() + " rows, expecting " + size);
+        }
+        columns.add(c);
+        return c;
+    }
+
+    /** returns the approximate size of the column arrays, in bytes */
+    public long getDataBytes() {
+        long rv = 0;
+        for (Column c: columns) {
+            rv += c.getDataBytes();
+        }
+        return rv;
+    }
+
+    /** creates the row list: the items are the row indexes */
+    public ObservableList<Object> createRows() {
+        return new VirtualList<>(size, Integer::valueOf);
+    }
+
+    /**
+     * Creates a table column for the specified model column, which is also set as the column user data.
+     * The table items must be the row indexes, see {@link #createRows()}.
+     */
+    public TableColumn<Object,Object> createTableColumn(Column c) {
+        TableColumn<Object,Object> tc = new TableColumn<>(c.getName());
+        IndexedValue v = new IndexedValue(c);
+        tc.setCellValueFactory((f) -> v.at(((Integer)f.getValue()).intValue()));
+        tc.setUserData(c);
+        // the row list cannot be sorted in place
+        tc.setSortable(false);
+        return tc;
+    }
+
+    /** creates the table columns for all the model columns */
+    public List<TableColumn<Object,Object>> createTableColumns() {
+        ArrayList<TableColumn<Object,Object>> rv = new ArrayList<>(columns.size());
+        for (Column c: columns) {
+            rv.add(createTableColumn(c));
+        }
+        return rv;
+    }
+
+    /** generates a numeric data set with the specified number of rows */
+    public static ColumnarModel generate(int size, long seed) {
+        Random r = new Random(seed);
+        String[] symbols = new String[500];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = "SYM" + i;
+        }
+
+        long[] id = new long[size];
+        long[] quantity = new long[size];
+        double[] price = new double[size];
+        int[] symbol = new int[size];
+        for (int i = 0; i < size; i++) {
+            id[i] = 1_000_000_000L + i;
+            quantity[i] = r.nextInt(100_000);
+            price[i] = Math.round(r.nextDouble() * 1_000_000.0) / 100.0;
+            symbol[i] = r.nextInt(symbols.length);
+        }
+
+        ColumnarModel m = new ColumnarModel(size);
+        m.addLongColumn("ID", id);
+        m.addDictionaryColumn("Symbol", symbol, symbols);
+        m.addDoubleColumn("Price", price);
+        m.addLongColumn("Quantity", quantity);
+        return m;
+    }
+
+    /** returns the specified row formatted as strings, one per column */
+    public String[] toStrings(int row) {
+        String[] rv = new String[columns.size()];
+        for (int i = 0; i < rv.length; i++) {
+            rv[i] = String.valueOf(columns.get(i).getValue(row));
+        }
+        return rv;
+    }
+
+    //
+
+    /** a single column of the model */
+    public abstract static class Column {
+        private final String name;
+
+        protected Column(String name) {
+            this.name = name;
+        }
+
+        /** returns the (possibly boxed) value at the specified row */
+        public abstract Object getValue(int row);
+
+        /** compares the values at the two specified rows */
+        public abstract int compare(int row1, int row2);
+
+        protected abstract int length();
+
+        /** returns the approximate size of the column data, in bytes */
+        public abstract long getDataBytes();
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /** a column of long values */
+    public static class LongColumn extends Column {
+        private final long[] data;
+
+        public LongColumn(String name, long[] data) {
+            super(name);
+            this.data = data;
+        }
+
+        public long getLong(int row) {
+            return data[row];
+        }
+
+        @Override
+        public Object getValue(int row) {
+            return data[row];
+        }
+
+        @Override
+        public int compare(int row1, int row2) {
+            return Long.compare(data[row1], data[row2]);
+        }
+
+        @Override
+        protected int length() {
+            return data.length;
+        }
+
+        @Override
+        public long getDataBytes() {
+            return 8L * data.length;
+        }
+    }
+
+    /** a column of double values */
+    public static class DoubleColumn extends Column {
+        private final double[] data;
+
+        public DoubleColumn(String name, double[] data) {
+            super(name);
+            this.data = data;
+        }
+
+        public double getDouble(int row) {
+            return data[row];
+        }
+
+        @Override
+        public Object getValue(int row) {
+            return data[row];
+        }
+
+        @Override
+        public int compare(int row1, int row2) {
+            return Double.compare(data[row1], data[row2]);
+        }
+
+        @Override
+        protected int length() {
+            return data.length;
+        }
+
+        @Override
+        public long getDataBytes() {
+            return 8L * data.length;
+        }
+    }
+
+    /** a column of strings, encoded as indexes into the dictionary of unique values */
+    public static class DictionaryColumn extends Column {
+        private final int[] codes;
+        private final String[] dictionary;
+
+        public DictionaryColumn(String name, int[] codes, String[] dictionary) {
+            super(name);
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        public int getCode(int row) {
+            return codes[row];
+        }
+
+        @Override
+        public Object getValue(int row) {
+            return dictionary[codes[row]];
+        }
+
+        @Override
+        public int compare(int row1, int row2) {
+            return dictionary[codes[row1]].compareTo(dictionary[codes[row2]]);
+        }
+
+        @Override
+        protected int length() {
+            return codes.length;
+        }
+
+        @Override
+        public long getDataBytes() {
+            long rv = 4L * codes.length;
+            for (String s: dictionary) {
+                rv += 40 + s.length();
+            }
+            return rv;
+        }
+    }
+
+    /**
+     * A flyweight observable value shared by all the cells of one column:
+     * the cell value factory only moves it to the requested row, and the value is read right away.
+     * It never changes after being read, so no invalidation events are ever fired.
+     */
+    protected class IndexedValue extends ObservableValueBase<Object> {
+        private final Column column;
+        private int row;
+
+        public IndexedValue(Column c) {
+            this.column = c;
+        }
+
+        public ObservableValue<Object> at(int row) {
+            this.row = row;
+            return this;
+        }
+
+        @Override
+        public Object getValue() {
+            // the row list may have been resized past the end of the data
+            if ((row < 0) || (row >= size)) {
+                return null;
+            }
+            return column.getValue(row);
+        }
+    }
+}
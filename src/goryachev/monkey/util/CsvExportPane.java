@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.io.File;
+import java.util.function.Function;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+
+/**
+ * Export buttons with the progress bar and the cancel button, for the {@link CsvExporter}.
+ */
+public class CsvExportPane extends VBox {
+    private final Function<Boolean,CsvExporter.Source> sourceFactory;
+    private final Button allButton;
+    private final Button selectionButton;
+    private final Button cancelButton;
+    private final ProgressBar progress;
+    private final Label status;
+    private CsvExporter task;
+
+    /**
+     * @param sourceFactory creates the source for the selection (true) or all the rows (false)
+     */
+    public CsvExportPane(Function<Boolean,CsvExporter.Source> sourceFactory) {
+        this.sourceFactory = sourceFactory;
+
+        allButton = new Button("Export All...");
+        allButton.setOnAction((ev) -> export(false));
+
+        selectionButton = new Button("Export Selection...");
+        selectionButton.setOnAction((ev) -> export(true));
+
+        cancelButton = new Button("Cancel");
+        cancelButton.setDisable(true);
+        cancelButton.setOnAction((ev) -> {
+            if (task != null) {
+                task.cancel();
+            }
+        });
+
+        progress = new ProgressBar(0);
+        progress.setMaxWidth(Double.MAX_VALUE);
+
+        status = new Label();
+        status.setWrapText(true);
+
+        TestPaneBase.TBar tb = new TestPaneBase.TBar();
+        tb.addAll(allButton, selectionButton, cancelButton);
+
+        setSpacing(2);
+        getChildren().addAll(tb, progress, status);
+    }
+
+    protected void export(boolean selection) {
+        CsvExporter.Source src = sourceFactory.apply(selection);
+        if (src == null) {
+            return;
+        }
+
+        FileChooser fc = new FileChooser();
+        fc.setTitle(selection ? "Export Selection" : "Export All Rows");
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+        File f = fc.showSaveDialog(FX.getParentWindow(this));
+        if (f == null) {
+            return;
+        }
+
+        CsvExporter t = new CsvExporter(src, f.toPath());
+        task = t;
+        progress.progressProperty().bind(t.progressProperty());
+        status.textProperty().bind(t.messageProperty());
+        setRunning(true);
+
+        t.setOnSucceeded((ev) -> finished(t, null));
+        t.setOnCancelled((ev) -> finished(t, "cancelled"));
+        t.setOnFailed((ev) -> {
+            Throwable e = t.getException();
+            e.printStackTrace();
+            finished(t, "failed: " + e);
+        });
+
+        Thread th = new Thread(t, "CsvExporter");
+        th.setDaemon(true);
+        th.start();
+    }
+
+    protected void finished(CsvExporter t, String message) {
+        progress.progressProperty().unbind();
+        status.textProperty().unbind();
+        if (message != null) {
+            status.setText(message);
+        }
+        if (task == t) {
+            task = null;
+            setRunning(false);
+        }
+    }
+
+    protected void setRunning(boolean on) {
+        allButton.setDisable(on);
+        selectionButton.setDisable(on);
+        cancelButton.setDisable(!on);
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.scene.control.TableColumnBase;
+import javafx.scene.control.TablePositionBase;
+import javafx.scene.control.TableSelectionModel;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TreeTableView;
+
+/**
+ * Exports the contents of a TableView or TreeTableView, or its selection, to a CSV file in a background thread,
+ * with constant memory regardless of the number of rows.
+ * <p>
+ * The cell values are fetched in the FX application thread in chunks of {@link #CHUNK} rows
+ * (the cell value factories are not required to be thread-safe), while the formatting and encoding
+ * happen in the background thread, through a reusable CharBuffer and CharsetEncoder into a direct
+ * ByteBuffer written to a FileChannel.  The partially written file is deleted when the task is cancelled.
+ */
+public class CsvExporter extends Task<Long> {
+    /** the exported rows and columns, created in the FX application thread */
+    public static class Source {
+        private final List<? extends TableColumnBase<?,?>> columns;
+        private final RangeSet rows;
+        private final RangeSet cells;
+        private final long rowCount;
+
+        /**
+         * @param columns the visible leaf columns
+         * @param rows the exported rows
+         * @param cells the exported (column index, row) keys, see {@link #key(int, int)}, or null for all the cells
+         */
+        public Source(List<? extends TableColumnBase<?,?>> columns, RangeSet rows, RangeSet cells) {
+            this.columns = List.copyOf(columns);
+            this.rows = rows;
+            this.cells = cells;
+            // the exporter thread only needs the count
+            this.rowCount = rows.size();
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public int getColumnCount() {
+            return columns.size();
+        }
+
+        public String getHeader(int column) {
+            return columns.get(column).getText();
+        }
+
+        /** fills the values for the specified range of exported rows, must be called in the FX application thread */
+        protected void fetch(long start, int count, Object[] values) {
+            int cols = columns.size();
+            for (int i = 0; i < count; i++) {
+                int row = (int)rows.get(start + i);
+                for (int c = 0; c < cols; c++) {
+                    boolean on = (cells == null) || cells.contains(key(c, row));
+                    values[i * cols + c] = on ? columns.get(c).getCellData(row) : null;
+                }
+            }
+        }
+    }
+
+    /** the number of rows fetched in the FX application thread at once */
+    public static final int CHUNK = 4096;
+    private final Source source;
+    private final Path path;
+    private final CharBuffer chars = CharBuffer.allocate(64 * 1024);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(256 * 1024);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private FileChannel channel;
+    private long written;
+
+    public CsvExporter(Source source, Path path) {
+        this.source = source;
+        this.path = path;
+    }
+
+    /** returns the key of the cell, in the same form as {@link BitSetSelectionModel} */
+    public static long key(int column, int row) {
+        return ((long)column << 32) | row;
+    }
+
+    /** creates the source for all the rows of the table, or its current selection */
+    public static Source forTable(TableView<?> t, boolean selection) {
+        int size = t.getItems() == null ? 0 : t.getItems().size();
+        List<? extends TableColumnBase<?,?>> cols = t.getVisibleLeafColumns();
+        if (selection) {
+            if (t.getSelectionModel() instanceof BitSetSelectionModel<?> m) {
+                if (m.isCellSelectionEnabled()) {
+                    return new Source(cols, BitSetSelectionModel.toRows(m.getSelection()), m.getSelection());
+                }
+                return new Source(cols, m.getSelection(), null);
+            }
+            return forSelection(cols, t.getSelectionModel(), t.getSelectionModel() == null ? null : t.getSelectionModel().getSelectedCells());
+        }
+        return new Source(cols, RangeSet.of(0, size), null);
+    }
+
+    /** creates the source for all the expanded rows of the tree table, or its current selection */
+    public static Source forTreeTable(TreeTableView<?> t, boolean selection) {
+        List<? extends TableColumnBase<?,?>> cols = t.getVisibleLeafColumns();
+        if (selection) {
+            return forSelection(cols, t.getSelectionModel(), t.getSelectionModel() == null ? null : t.getSelectionModel().getSelectedCells());
+        }
+        return new Source(cols, RangeSet.of(0, t.getExpandedItemCount()), null);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Source forSelection(List<? extends TableColumnBase<?,?>> cols, TableSelectionModel<?> m, List<? extends TablePositionBase> selectedCells) {
+        if (m == null) {
+            return new Source(cols, RangeSet.EMPTY, null);
+        }
+
+        if (m.isCellSelectionEnabled()) {
+            IdentityHashMap<Object,Integer> index = new IdentityHashMap<>();
+            for (int i = 0; i < cols.size(); i++) {
+                index.put(cols.get(i), i);
+            }
+
+            long[] keys = new long[selectedCells.size()];
+            int n = 0;
+            for (TablePositionBase p: selectedCells) {
+                Integer c = index.get(p.getTableColumn());
+                if ((c != null) && (p.getRow() >= 0)) {
+                    keys[n++] = key(c, p.getRow());
+                }
+            }
+            RangeSet cells = toRangeSet(keys, n);
+            return new Source(cols, BitSetSelectionModel.toRows(cells), cells);
+        }
+
+        List<Integer> sel = m.getSelectedIndices();
+        long[] rows = new long[sel.size()];
+        int n = 0;
+        for (Integer ix: sel) {
+            if ((ix != null) && (ix >= 0)) {
+                rows[n++] = ix;
+            }
+        }
+        return new Source(cols, toRangeSet(rows, n), null);
+    }
+
+    /** creates the set from the values in any order, modifies the array */
+    private static RangeSet toRangeSet(long[] values, int n) {
+        Arrays.sort(values, 0, n);
+        ArrayList<long[]> runs = new ArrayList<>();
+        for (int i = 0; i < n;) {
+            long start = values[i++];
+            long end = start + 1;
+            while ((i < n) && (values[i] <= end)) {
+                end = Math.max(end, values[i++] + 1);
+            }
+            runs.add(new long[] { start, end });
+        }
+
+        long[] starts = new long[runs.size()];
+        long[] ends = new long[runs.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = runs.get(i)[0];
+            ends[i] = runs.get(i)[1];
+        }
+        return RangeSet.ofRuns(starts, ends, starts.length);
+    }
+
+    @Override
+    protected Long call() throws Exception {
+        long total = source.getRowCount();
+        int cols = source.getColumnCount();
+        Object[] values = new Object[CHUNK * cols];
+        long start = System.nanoTime();
+        boolean done = false;
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel = ch;
+            for (int c = 0; c < cols; c++) {
+                if (c > 0) {
+                    put(',');
+                }
+                putValue(source.getHeader(c));
+            }
+            put('\n');
+
+            for (long row = 0; row < total; row += CHUNK) {
+                if (isCancelled()) {
+                    return written;
+                }
+
+                int count = (int)Math.min(CHUNK, total - row);
+                fetch(row, count, values);
+
+                for (int i = 0; i < count; i++) {
+                    for (int c = 0; c < cols; c++) {
+                        if (c > 0) {
+                            put(',');
+                        }
+                        putValue(values[i * cols + c]);
+                    }
+                    put('\n');
+                }
+                Arrays.fill(values, null);
+
+                long n = row + count;
+                updateProgress(n, total);
+                updateMessage(String.format("%,d of %,d rows, %,d KB, %.1f s", n, total, (written + bytes.position()) / 1024, (System.nanoTime() - start) / 1_000_000_000.0));
+            }
+
+            finish();
+            done = true;
+        } finally {
+            channel = null;
+            if (!done) {
+                Files.deleteIfExists(path);
+            }
+        }
+        updateMessage(String.format("%,d rows, %,d KB in %.1f s", total, written / 1024, (System.nanoTime() - start) / 1_000_000_000.0));
+        return written;
+    }
+
+    /** fetches the values in the FX application thread and waits for completion */
+    private void fetch(long row, int count, Object[] values) throws Exception {
+        CompletableFuture<Void> f = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                source.fetch(row, count, values);
+                f.complete(null);
+            } catch (Throwable e) {
+                f.completeExceptionally(e);
+            }
+        });
+        f.get();
+    }
+
+    private void putValue(Object x) throws Exception {
+        if (x == null) {
+            return;
+        }
+
+        String s = x.toString();
+        boolean quote = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c == ',') || (c == '"') || (c == '\n') || (c == '\r')) {
+                quote = true;
+                break;
+            }
+        }
+
+        if (quote) {
+            put('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"') {
+                    put('"');
+                }
+                put(c);
+            }
+            put('"');
+        } else {
+            for (int i = 0; i < s.length(); i++) {
+                put(s.charAt(i));
+            }
+        }
+    }
+
+    private void put(char c) throws Exception {
+        if (!chars.hasRemaining()) {
+            encode(false);
+        }
+        chars.put(c);
+    }
+
+    /** encodes the accumulated characters, writing the bytes whenever the byte buffer is full */
+    private void encode(boolean endOfInput) throws Exception {
+        chars.flip();
+        for (;;) {
+            CoderResult r = encoder.encode(chars, bytes, endOfInput);
+            if (r.isOverflow()) {
+                write();
+            } else if (r.isError()) {
+                r.throwException();
+            } else {
+                break;
+            }
+        }
+        // keeps an incomplete surrogate pair
+        chars.compact();
+    }
+
+    private void finish() throws Exception {
+        encode(true);
+        while (encoder.flush(bytes).isOverflow()) {
+            write();
+        }
+        write();
+    }
+
+    private void write() throws Exception {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            written += channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
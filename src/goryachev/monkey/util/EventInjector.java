@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.List;
+import javafx.event.Event;
+import javafx.event.EventTarget;
+import javafx.event.EventType;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.PickResult;
+import javafx.scene.input.ScrollEvent;
+
+/**
+ * Delivers synthesized input events to the nodes within the target area.
+ * Unlike Robot, the events are dispatched synchronously, which allows for measuring
+ * the time it takes to process each event.
+ */
+public class EventInjector {
+    private final Node area;
+    private EventTarget pressTarget;
+    private MouseButton pressButton;
+
+    public EventInjector(Node area) {
+        this.area = area;
+    }
+
+    public Node getArea() {
+        return area;
+    }
+
+    /**
+     * Dispatches the event, returns false if the event could not be delivered
+     * (for example, when the area is not in a scene, or the event is not an input event).
+     */
+    public boolean inject(MonkeyEvent ev) {
+        if (!ev.type().isInput()) {
+            return false;
+        }
+
+        Scene scene = area.getScene();
+        if (scene == null) {
+            return false;
+        }
+
+        Point2D p = area.localToScene(ev.x(), ev.y());
+        double x = p.getX();
+        double y = p.getY();
+        Point2D s = area.localToScreen(ev.x(), ev.y());
+        double sx = (s == null) ? x : s.getX();
+        double sy = (s == null) ? y : s.getY();
+
+        switch (ev.type()) {
+        case MOUSE_MOVE:
+            {
+                EventTarget t = pick(scene, x, y);
+                fire(t, mouse(MouseEvent.MOUSE_MOVED, t, x, y, sx, sy, MouseButton.NONE, 0));
+            }
+            break;
+        case MOUSE_PRESS:
+            {
+                pressButton = MonkeyEvent.decodeButton(ev.code());
+                pressTarget = pick(scene, x, y);
+                fire(pressTarget, mouse(MouseEvent.MOUSE_PRESSED, pressTarget, x, y, sx, sy, pressButton, 1));
+            }
+            break;
+        case MOUSE_DRAG:
+            if (pressTarget != null) {
+                fire(pressTarget, mouse(MouseEvent.MOUSE_DRAGGED, pressTarget, x, y, sx, sy, pressButton, 0));
+            }
+            break;
+        case MOUSE_RELEASE:
+            if (pressTarget != null) {
+                EventTarget t = pressTarget;
+                MouseButton b = pressButton;
+                pressTarget = null;
+                pressButton = null;
+                fire(t, mouse(MouseEvent.MOUSE_RELEASED, t, x, y, sx, sy, b, 1));
+                if (pick(scene, x, y) == t) {
+                    fire(t, mouse(MouseEvent.MOUSE_CLICKED, t, x, y, sx, sy, b, 1));
+                }
+            }
+            break;
+        case SCROLL:
+            {
+                EventTarget t = pick(scene, x, y);
+                double dy = ev.code();
+                fire(t, new ScrollEvent(
+                    ScrollEvent.SCROLL,
+                    x, y, sx, sy,
+                    false, false, false, false,
+                    false, false,
+                    0, dy, 0, dy,
+                    ScrollEvent.HorizontalTextScrollUnits.NONE, 0,
+                    ScrollEvent.VerticalTextScrollUnits.NONE, 0,
+                    0,
+                    new PickResult(t, x, y)));
+            }
+            break;
+        case KEY_PRESS:
+            fireKey(scene, KeyEvent.KEY_PRESSED, KeyEvent.CHAR_UNDEFINED, MonkeyEvent.decodeKey(ev.code()));
+            break;
+        case KEY_RELEASE:
+            fireKey(scene, KeyEvent.KEY_RELEASED, KeyEvent.CHAR_UNDEFINED, MonkeyEvent.decodeKey(ev.code()));
+            break;
+        case KEY_TYPE:
+            fireKey(scene, KeyEvent.KEY_TYPED, ev.text(), KeyCode.UNDEFINED);
+            break;
+        default:
+            throw new Error("?" + ev.type());
+        }
+        return true;
+    }
+
+    /** releases the mouse button if it has been left pressed */
+    public void reset() {
+        pressTarget = null;
+        pressButton = null;
+    }
+
+    protected void fireKey(Scene scene, EventType<KeyEvent> type, String ch, KeyCode code) {
+        Node t = scene.getFocusOwner();
+        if (t == null) {
+            t = area;
+        }
+        String text;
+        if (type == KeyEvent.KEY_TYPED) {
+            text = "";
+        } else if (code.isLetterKey() || code.isDigitKey() || (code == KeyCode.SPACE)) {
+            text = code.getChar().toLowerCase();
+        } else {
+            text = "";
+        }
+        fire(t, new KeyEvent(type, ch, text, code, false, false, false, false));
+    }
+
+    protected MouseEvent mouse(EventType<MouseEvent> type, EventTarget t, double x, double y, double sx, double sy, MouseButton b, int clickCount) {
+        boolean pressed = (type == MouseEvent.MOUSE_PRESSED) || (type == MouseEvent.MOUSE_DRAGGED);
+        return new MouseEvent(
+            type,
+            x, y, sx, sy,
+            b,
+            clickCount,
+            false, false, false, false,
+            pressed && (b == MouseButton.PRIMARY),
+            pressed && (b == MouseButton.MIDDLE),
+            pressed && (b == MouseButton.SECONDARY),
+            true,
+            false,
+            false,
+            new PickResult(t, x, y));
+    }
+
+    protected static void fire(EventTarget t, Event ev) {
+        Event.fireEvent(t, ev);
+    }
+
+    /** picks the topmost node under the given scene coordinates, or the scene itself */
+    protected EventTarget pick(Scene scene, double x, double y) {
+        Node n = pick(scene.getRoot(), x, y);
+        return (n == null) ? scene : n;
+    }
+
+    /** returns the deepest visible node which contains the point specified in scene coordinates */
+    public static Node pick(Node n, double x, double y) {
+        if (!n.isVisible() || n.isMouseTransparent()) {
+            return null;
+        }
+
+        Point2D p = n.sceneToLocal(x, y);
+        if (p == null) {
+            return null;
+        }
+        if (!n.getBoundsInLocal().contains(p)) {
+            return null;
+        }
+        
+        if (n instanceof Parent parent) {
+            List<Node> cs = parent.getChildrenUnmodifiable();
+            for (int i = cs.size() - 1; i >= 0; i--) {
+                Node ch = pick(cs.get(i), x, y);
+                if (ch != null) {
+                    return ch;
+                }
+            }
+        }
+
+        if (n.contains(p)) {
+            return n;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.List;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+
+/**
+ * Replays a list of recorded events, either preserving the original timing,
+ * or as fast as possible (one event at a time, letting the pulses happen in between).
+ * 
+ * All the methods must be called in the FX application thread.
+ */
+public class EventPlayer {
+    public enum Mode {
+        REAL_TIME,
+        MAX_SPEED,
+    }
+
+    private final SessionHost host;
+    private final List<MonkeyEvent> events;
+    private final Mode mode;
+    private final AnimationTimer timer;
+    private final PulseMonitor pulseMonitor = new PulseMonitor();
+    private final Histogram latency = Histogram.millis();
+    private EventInjector injector;
+    private Runnable onFinished;
+    private int index;
+    private long start;
+    private long wallTime;
+    private boolean running;
+
+    public EventPlayer(SessionHost host, List<MonkeyEvent> events, Mode mode) {
+        this.host = host;
+        this.events = events;
+        this.mode = mode;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                tick();
+            }
+        };
+    }
+
+    public void setOnFinished(Runnable r) {
+        onFinished = r;
+    }
+
+    public void start() {
+        index = 0;
+        running = true;
+        latency.clear();
+        updateInjector();
+        pulseMonitor.start();
+        start = System.nanoTime();
+
+        switch (mode) {
+        case MAX_SPEED:
+            Platform.runLater(this::step);
+            break;
+        case REAL_TIME:
+        default:
+            timer.start();
+            break;
+        }
+    }
+
+    public void stop() {
+        if (running) {
+            running = false;
+            wallTime = System.nanoTime() - start;
+            timer.stop();
+            pulseMonitor.stop();
+            if (injector != null) {
+                injector.reset();
+            }
+        }
+    }
+
+    protected void tick() {
+        long elapsed = System.nanoTime() - start;
+        while (index < events.size()) {
+            MonkeyEvent ev = events.get(index);
+            if (ev.time() > elapsed) {
+                return;
+            }
+            index++;
+            play(ev);
+        }
+
+        finish();
+    }
+
+    protected void step() {
+        if (!running) {
+            return;
+        }
+
+        if (index < events.size()) {
+            play(events.get(index++));
+            Platform.runLater(this::step);
+        } else {
+            finish();
+        }
+    }
+
+    protected void finish() {
+        stop();
+        if (onFinished != null) {
+            onFinished.run();
+        }
+    }
+
+    protected void play(MonkeyEvent ev) {
+        long t0 = System.nanoTime();
+        switch (ev.type()) {
+        case PAGE:
+            host.selectPage(ev.text());
+            updateInjector();
+            break;
+        case OPTION:
+            applyOption(ev.text(), ev.code());
+            break;
+        default:
+            if (injector != null) {
+                injector.inject(ev);
+            }
+            break;
+        }
+        latency.addNanos(System.nanoTime() - t0);
+    }
+
+    protected void updateInjector() {
+        if (injector != null) {
+            injector.reset();
+        }
+        Node area = host.getContentArea();
+        injector = (area == null) ? null : new EventInjector(area);
+    }
+
+    protected void applyOption(String id, int value) {
+        Node page = host.getPage();
+        if (page == null) {
+            return;
+        }
+
+        Node n = page.lookup("#" + id);
+        if (n instanceof ComboBox<?> c) {
+            if (value < 0) {
+                c.getSelectionModel().clearSelection();
+            } else {
+                c.getSelectionModel().select(value);
+            }
+        } else if (n instanceof CheckBox c) {
+            c.setSelected(value != 0);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** the number of events dispatched so far */
+    public int getIndex() {
+        return index;
+    }
+
+    public int getEventCount() {
+        return events.size();
+    }
+
+    /** total wall time of the replay in nanoseconds, available after the player has stopped */
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    /** pulse (frame time) histogram, in milliseconds */
+    public Histogram getPulseHistogram() {
+        return pulseMonitor.getHistogram();
+    }
+
+    /** event dispatch time histogram, in milliseconds */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /** returns the replay report */
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("mode: ").append(mode);
+        sb.append("\nevents: ").append(index).append(" of ").append(events.size());
+        sb.append("\nwall time: ").append(String.format("%.3f", wallTime / 1_000_000_000.0)).append(" s");
+        sb.append("\npulses: ").append(pulseMonitor.getPulseCount());
+        sb.append("\nframe time (ms): ").append(getPulseHistogram());
+        sb.append("\n").append(getPulseHistogram().toDistributionString());
+        sb.append("dispatch (ms): ").append(latency);
+        sb.append("\njavafx: ").append(System.getProperty("javafx.runtime.version"));
+        sb.append("\njava: ").append(System.getProperty("java.version"));
+        sb.append("\nos: ").append(System.getProperty("os.name")).append(" ").append(System.getProperty("os.arch"));
+        return sb.toString();
+    }
+}
@@ -26,6 +26,7 @@ package goryachev.monkey.util;
 
 import java.util.List;
 import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Menu;
@@ -34,6 +35,7 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.control.RadioMenuItem;
 import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.ToggleGroup;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.GridPane;
 import javafx.stage.Stage;
@@ -145,4 +147,21 @@ public class FX {
             }
         }
     }
+
+    /** finds the first VirtualFlow in the skin of the specified control, or null */
+    public static VirtualFlow<?> findVirtualFlow(Parent parent) {
+        for (Node node : parent.getChildrenUnmodifiable()) {
+            if (node instanceof VirtualFlow<?> f) {
+                return f;
+            }
+
+            if (node instanceof Parent p) {
+                VirtualFlow<?> f = findVirtualFlow(p);
+                if (f != null) {
+                    return f;
+                }
+            }
+        }
+        return null;
+    }
 }
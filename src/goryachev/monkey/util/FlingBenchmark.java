@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.function.Consumer;
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+import javafx.scene.control.Control;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.Labeled;
+import javafx.scene.control.skin.VirtualFlow;
+
+/**
+ * Simulates a fling: scrolls a virtualized control by a decaying number of pixels per pulse,
+ * then waits until the asynchronous loader has no pending lookups and no visible cell shows the placeholder.
+ */
+public class FlingBenchmark {
+    public record Result(int pulses, long flingNanos, long fillNanos, long requested, long cancelled, long loaded, long hits) {
+        public double cancelRatio() {
+            return requested == 0 ? 0.0 : cancelled / (double)requested;
+        }
+    }
+
+    public static final String[] COLUMNS = {
+        "Control",
+        "Pulses",
+        "Fling (ms)",
+        "Time to Fill (ms)",
+        "Requests",
+        "Cancelled",
+        "Cancel Ratio (%)",
+        "Loaded",
+        "Cache Hits"
+    };
+    /** the initial velocity, in pixels per pulse */
+    private static final double VELOCITY = 4000.0;
+    private static final double DECAY = 0.96;
+    /** the number of pulses to wait for the control skin to be created */
+    private static final int MAX_WAIT = 10;
+    private static final long FILL_TIMEOUT = 30_000_000_000L;
+
+    /**
+     * Flings the control once the skin has been created, and passes the result to the consumer.
+     *
+     * @param control the ListView, TableView, or TreeTableView
+     * @param loader the loader used by the cells
+     * @param placeholder the text shown by the cells until the value arrives
+     * @param onDone receives the result
+     */
+    public static void run(Control control, AsyncValueLoader<?> loader, String placeholder, Consumer<Result> onDone) {
+        new AnimationTimer() {
+            private int wait;
+            private VirtualFlow<?> flow;
+            private double velocity = VELOCITY;
+            private int pulses;
+            private long start;
+            private long flingEnd;
+
+            @Override
+            public void handle(long now) {
+                if (flow == null) {
+                    flow = FX.findVirtualFlow(control);
+                    if (flow == null) {
+                        if (wait++ > MAX_WAIT) {
+                            stop();
+                        }
+                        return;
+                    }
+                    loader.clearCache();
+                    loader.resetStatistics();
+                    start = System.nanoTime();
+                }
+
+                if (velocity >= 1.0) {
+                    flow.scrollPixels(velocity);
+                    velocity *= DECAY;
+                    pulses++;
+                    return;
+                }
+
+                long t = System.nanoTime();
+                if (flingEnd == 0) {
+                    flingEnd = t;
+                }
+
+                boolean filled = (loader.getPendingCount() == 0) && (countPlaceholders(flow, placeholder) == 0);
+                if (filled || (t - flingEnd > FILL_TIMEOUT)) {
+                    stop();
+                    onDone.accept(new Result(
+                        pulses,
+                        flingEnd - start,
+                        t - flingEnd,
+                        loader.getRequested(),
+                        loader.getCancelled(),
+                        loader.getLoaded(),
+                        loader.getCacheHits()
+                    ));
+                }
+            }
+        }.start();
+    }
+
+    /** counts the visible cells, or the cells within the visible rows, which show the placeholder */
+    public static int countPlaceholders(VirtualFlow<?> flow, String placeholder) {
+        IndexedCell<?> first = flow.getFirstVisibleCell();
+        IndexedCell<?> last = flow.getLastVisibleCell();
+        if ((first == null) || (last == null)) {
+            return 0;
+        }
+
+        int n = 0;
+        for (int i = first.getIndex(); i <= last.getIndex(); i++) {
+            IndexedCell<?> c = flow.getVisibleCell(i);
+            if (c == null) {
+                continue;
+            }
+            if (placeholder.equals(c.getText())) {
+                n++;
+            }
+            for (Node ch: c.getChildrenUnmodifiable()) {
+                if ((ch instanceof Labeled b) && placeholder.equals(b.getText())) {
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    public static String[] toRow(String name, Result r) {
+        return new String[] {
+            name,
+            String.valueOf(r.pulses()),
+            String.format("%.1f", r.flingNanos() / 1_000_000.0),
+            String.format("%.1f", r.fillNanos() / 1_000_000.0),
+            String.valueOf(r.requested()),
+            String.valueOf(r.cancelled()),
+            String.format("%.1f", r.cancelRatio() * 100.0),
+            String.valueOf(r.loaded()),
+            String.valueOf(r.hits())
+        };
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+/**
+ * A simple fixed-bucket histogram which accumulates double values without allocation.
+ */
+public class Histogram {
+    private final double[] limits;
+    private final long[] counts;
+    private long count;
+    private double total;
+    private double min;
+    private double max;
+
+    /**
+     * Creates a histogram with the specified bucket upper limits (in ascending order).
+     * The values exceeding the last limit go to the overflow bucket.
+     */
+    public Histogram(double ... limits) {
+        this.limits = limits;
+        this.counts = new long[limits.length + 1];
+    }
+
+    /** creates a histogram suitable for timings in milliseconds */
+    public static Histogram millis() {
+        return new Histogram(0.01, 0.1, 0.25, 0.5, 1, 2, 4, 8, 16.7, 33.3, 50, 100, 250, 500, 1000);
+    }
+
+    public void add(double v) {
+        int ix = 0;
+        while ((ix < limits.length) && (v > limits[ix])) {
+            ix++;
+        }
+        counts[ix]++;
+
+        if (count == 0) {
+            min = v;
+            max = v;
+        } else {
+            if (v < min) {
+                min = v;
+            }
+            if (v > max) {
+                max = v;
+            }
+        }
+        count++;
+        total += v;
+    }
+
+    /** adds a time interval given in nanoseconds to a millisecond histogram */
+    public void addNanos(long ns) {
+        add(ns / 1_000_000.0);
+    }
+
+    public void clear() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        total = 0;
+        min = 0;
+        max = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0.0 : total / count;
+    }
+
+    /**
+     * Returns an approximate percentile value, that is, the upper limit of the bucket
+     * which contains the requested percentile (0..100).
+     * The maximum value is returned for the overflow bucket.
+     */
+    public double percentile(double pct) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long threshold = (long)Math.ceil(count * pct / 100.0);
+        long sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            sum += counts[i];
+            if (sum >= threshold) {
+                if (i < limits.length) {
+                    return Math.min(limits[i], max);
+                }
+                break;
+            }
+        }
+        return max;
+    }
+
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    public long getBucket(int ix) {
+        return counts[ix];
+    }
+
+    /** returns the label for the specified bucket, like "<=0.5" or ">1000" */
+    public String getBucketLabel(int ix) {
+        if (ix < limits.length) {
+            return "<=" + f(limits[ix]);
+        }
+        return ">" + f(limits[limits.length - 1]);
+    }
+
+    /** one-line summary */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("n=").append(count);
+        sb.append(" avg=").append(f(getAverage()));
+        sb.append(" min=").append(f(min));
+        sb.append(" p50=").append(f(percentile(50)));
+        sb.append(" p90=").append(f(percentile(90)));
+        sb.append(" p99=").append(f(percentile(99)));
+        sb.append(" max=").append(f(max));
+        return sb.toString();
+    }
+
+    /** multi-line distribution, skipping empty buckets */
+    public String toDistributionString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                sb.append(getBucketLabel(i)).append(": ").append(counts[i]).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String f(double v) {
+        return String.format("%.3f", v);
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.skin.VirtualFlow;
+
+/**
+ * Measures the accuracy and the cost of jumping to random indices in a variable height ListView:
+ * each jump puts the target index at the top (scrollToTop) and then scrolls down with the mouse wheel,
+ * comparing the first visible index, the actual content offset and the scroll bar thumb position
+ * against the values computed from the true cell heights.
+ * <p>
+ * The true heights are measured once, for one item of every height key, so the key function
+ * must return the same value for the items which have the same height (for example, the number of lines).
+ * The control's cell factory is replaced with one which counts the cell height computations.
+ */
+public class JumpBenchmark {
+    /**
+     * A single jump.  The drifts are the actual minus the expected values; the offset errors
+     * are in pixels of the true content, and so are the thumb drifts, computed as the difference between
+     * the offset implied by the thumb position and the actual offset.
+     */
+    public record Step(
+        int target,
+        long nanos,
+        int indexDrift,
+        double offsetError,
+        double thumbDrift,
+        int wheelIndexDrift,
+        double wheelOffsetError,
+        double wheelThumbDrift,
+        long measured
+    ) {
+        /** true if the jump, or the wheel scroll which followed it, landed on a wrong index */
+        public boolean isDrift() {
+            return (indexDrift != 0) || (wheelIndexDrift != 0);
+        }
+    }
+
+    public static final String[] COLUMNS = {
+        "Demo",
+        "Jump",
+        "Index",
+        "Time (ms)",
+        "Index Drift",
+        "Offset Error (px)",
+        "Thumb Drift (px)",
+        "Wheel Index Drift",
+        "Wheel Offset Error (px)",
+        "Wheel Thumb Drift (px)",
+        "Cells Measured"
+    };
+    /** the number of pulses to wait for the control skin to be created */
+    private static final int MAX_WAIT = 10;
+    private static final int WHEEL_STEPS = 20;
+    private static final double WHEEL_PIXELS = 40.0;
+
+    private final ListView<Object> control;
+    private final ToIntFunction<Object> heightKey;
+    private final ArrayList<Step> steps = new ArrayList<>();
+    /** offsets[i] is the true top of the item i, offsets[size] is the true content height */
+    private double[] offsets;
+    private long measured;
+    private AnimationTimer timer;
+
+    public JumpBenchmark(ListView<Object> control, ToIntFunction<Object> heightKey) {
+        this.control = control;
+        this.heightKey = heightKey;
+    }
+
+    /**
+     * Performs the specified number of jumps to random indices, one per pulse,
+     * and passes the steps to the consumer when done.
+     */
+    public void run(int jumps, Consumer<List<Step>> onDone) {
+        stop();
+        steps.clear();
+        control.setCellFactory((v) -> new CountingCell());
+        Random random = new Random(1);
+
+        timer = new AnimationTimer() {
+            private VirtualFlow<?> flow;
+            private int waits;
+
+            @Override
+            public void handle(long now) {
+                if (flow == null) {
+                    flow = FX.findVirtualFlow(control);
+                    if (flow == null) {
+                        // the skin has not been created yet
+                        if (waits++ >= MAX_WAIT) {
+                            finish();
+                        }
+                        return;
+                    }
+                    measureHeights(flow);
+                    return;
+                }
+
+                int size = offsets.length - 1;
+                if ((size == 0) || (steps.size() >= jumps)) {
+                    finish();
+                    return;
+                }
+                steps.add(jump(flow, random.nextInt(size)));
+            }
+
+            private void finish() {
+                JumpBenchmark.this.stop();
+                onDone.accept(steps);
+            }
+        };
+        timer.start();
+    }
+
+    public void stop() {
+        if (timer != null) {
+            timer.stop();
+            timer = null;
+        }
+    }
+
+    private void measureHeights(VirtualFlow<?> f) {
+        List<Object> items = control.getItems();
+        int size = items.size();
+        HashMap<Integer,Double> heights = new HashMap<>();
+        offsets = new double[size + 1];
+        for (int i = 0; i < size; i++) {
+            int key = heightKey.applyAsInt(items.get(i));
+            Double h = heights.get(key);
+            if (h == null) {
+                h = f.getCell(i).getLayoutBounds().getHeight();
+                heights.put(key, h);
+            }
+            offsets[i + 1] = offsets[i] + h;
+        }
+        f.scrollToTop(0);
+        f.layout();
+        measured = 0;
+    }
+
+    private Step jump(VirtualFlow<?> f, int index) {
+        double max = Math.max(0.0, offsets[offsets.length - 1] - f.getHeight());
+        long m = measured;
+
+        long start = System.nanoTime();
+        f.scrollToTop(index);
+        f.layout();
+        long nanos = System.nanoTime() - start;
+
+        double expected = Math.min(offsets[index], max);
+        double actual = actualOffset(f);
+        int indexDrift = firstIndex(f) - indexAt(expected);
+        double offsetError = actual - expected;
+        double thumbDrift = f.getPosition() * max - actual;
+
+        expected = Math.min(actual + WHEEL_STEPS * WHEEL_PIXELS, max);
+        for (int i = 0; i < WHEEL_STEPS; i++) {
+            f.scrollPixels(WHEEL_PIXELS);
+            f.layout();
+        }
+        actual = actualOffset(f);
+        int wheelIndexDrift = firstIndex(f) - indexAt(expected);
+        double wheelOffsetError = actual - expected;
+        double wheelThumbDrift = f.getPosition() * max - actual;
+
+        return new Step(index, nanos, indexDrift, offsetError, thumbDrift, wheelIndexDrift, wheelOffsetError, wheelThumbDrift, measured - m);
+    }
+
+    private static int firstIndex(VirtualFlow<?> f) {
+        IndexedCell<?> c = f.getFirstVisibleCell();
+        return (c == null) ? -1 : c.getIndex();
+    }
+
+    /** the true offset of the viewport top, derived from the first visible cell */
+    private double actualOffset(VirtualFlow<?> f) {
+        IndexedCell<?> c = f.getFirstVisibleCell();
+        if ((c == null) || (c.getIndex() < 0)) {
+            return 0.0;
+        }
+        return offsets[c.getIndex()] - c.getLayoutY();
+    }
+
+    /** the index of the item at the specified true offset */
+    private int indexAt(double offset) {
+        int lo = 0;
+        int hi = offsets.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= offset) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the report rows for the steps, followed by the average and the maximum of the absolute values.
+     * The rows of the steps which drifted are also added to the specified set, for highlighting.
+     */
+    public static List<String[]> toRows(String demo, List<Step> steps, Set<String[]> drift) {
+        ArrayList<String[]> rows = new ArrayList<>();
+        double[] sum = new double[8];
+        double[] max = new double[8];
+        for (int i = 0; i < steps.size(); i++) {
+            Step s = steps.get(i);
+            double[] v = values(s);
+            for (int j = 0; j < v.length; j++) {
+                sum[j] += Math.abs(v[j]);
+                max[j] = Math.max(max[j], Math.abs(v[j]));
+            }
+            String[] row = toRow(demo, String.valueOf(i + 1), String.valueOf(s.target()), v);
+            rows.add(row);
+            if (s.isDrift()) {
+                drift.add(row);
+            }
+        }
+
+        if (!steps.isEmpty()) {
+            for (int j = 0; j < sum.length; j++) {
+                sum[j] /= steps.size();
+            }
+            rows.add(toRow(demo, "avg", "", sum));
+            rows.add(toRow(demo, "max", "", max));
+        }
+        return rows;
+    }
+
+    private static double[] values(Step s) {
+        return new double[] {
+            s.nanos() / 1_000_000.0,
+            s.indexDrift(),
+            s.offsetError(),
+            s.thumbDrift(),
+            s.wheelIndexDrift(),
+            s.wheelOffsetError(),
+            s.wheelThumbDrift(),
+            s.measured()
+        };
+    }
+
+    private static String[] toRow(String demo, String jump, String index, double[] v) {
+        return new String[] {
+            demo,
+            jump,
+            index,
+            String.format("%.2f", v[0]),
+            String.format("%.1f", v[1]),
+            String.format("%.1f", v[2]),
+            String.format("%.1f", v[3]),
+            String.format("%.1f", v[4]),
+            String.format("%.1f", v[5]),
+            String.format("%.1f", v[6]),
+            String.format("%.0f", v[7])
+        };
+    }
+
+    /** counts the cell height computations */
+    private class CountingCell extends ListCell<Object> {
+        @Override
+        protected void updateItem(Object item, boolean empty) {
+            super.updateItem(item, empty);
+            setText((empty || (item == null)) ? null : item.toString());
+        }
+
+        @Override
+        protected double computePrefHeight(double width) {
+            measured++;
+            return super.computePrefHeight(width);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.Region;
+import javafx.stage.Window;
+
+/**
+ * Programmatically resizes the content across the range of widths and heights in fixed steps,
+ * forcing a layout pass at each step, and measures the time and the number of layout passes
+ * performed by the content and its descendants, counted as needsLayout changing from true to false
+ * on any Parent in the content subtree.
+ * The normal layout is restored on the next pulse.
+ */
+public class LayoutSweep {
+    public static final String[] COLUMNS = {
+        "Width",
+        "Height",
+        "Layout Passes",
+        "Time (ms)"
+    };
+    private final Region content;
+    private final HashSet<Parent> tracked = new HashSet<>();
+    private long layoutPasses;
+    private final ChangeListener<Boolean> layoutListener = (s,p,c) -> {
+        if (p && !c) {
+            layoutPasses++;
+        }
+    };
+
+    /**
+     * @param content the region to resize
+     */
+    public LayoutSweep(Region content) {
+        this.content = content;
+    }
+
+    /** starts counting the layout passes of the parents not yet tracked in the subtree */
+    private void track(Node n) {
+        if (n instanceof Parent p) {
+            if (tracked.add(p)) {
+                p.needsLayoutProperty().addListener(layoutListener);
+            }
+            for (Node ch: p.getChildrenUnmodifiable()) {
+                track(ch);
+            }
+        }
+    }
+
+    private void untrackAll() {
+        for (Parent p: tracked) {
+            p.needsLayoutProperty().removeListener(layoutListener);
+        }
+        tracked.clear();
+    }
+
+    /** performs the sweep and returns the results, one row per step */
+    public List<String[]> run(double minWidth, double maxWidth, double minHeight, double maxHeight, double step) {
+        if (step <= 0) {
+            throw new IllegalArgumentException("step must be positive");
+        }
+
+        ArrayList<String[]> rv = new ArrayList<>();
+        long totalCount = 0;
+        long totalTime = 0;
+        long maxTime = 0;
+
+        content.applyCss();
+        try {
+            for (double h = minHeight; h <= maxHeight; h += step) {
+                for (double w = minWidth; w <= maxWidth; w += step) {
+                    track(content);
+                    long c0 = layoutPasses;
+                    long t0 = System.nanoTime();
+
+                    content.resize(w, h);
+                    content.requestLayout();
+                    content.layout();
+
+                    long dt = System.nanoTime() - t0;
+                    long dc = layoutPasses - c0;
+                    totalCount += dc;
+                    totalTime += dt;
+                    maxTime = Math.max(maxTime, dt);
+
+                    rv.add(new String[] {
+                        String.valueOf((int)w),
+                        String.valueOf((int)h),
+                        String.valueOf(dc),
+                        ms(dt)
+                    });
+                }
+            }
+        } finally {
+            untrackAll();
+        }
+
+        // restore the normal layout on the next pulse
+        content.requestLayout();
+
+        rv.add(new String[] {
+            "total",
+            rv.size() + " steps",
+            String.valueOf(totalCount),
+            ms(totalTime) + " (max " + ms(maxTime) + ")"
+        });
+        return rv;
+    }
+
+    private static String ms(long ns) {
+        return String.format("%.3f", ns / 1_000_000.0);
+    }
+
+    /** opens a window with the sweep parameters and results */
+    public void openWindow(Window owner) {
+        ReportWindow w = new ReportWindow(owner, "Layout Sweep", COLUMNS);
+
+        TextField minWidth = field("100");
+        TextField maxWidth = field("1000");
+        TextField minHeight = field("100");
+        TextField maxHeight = field("1000");
+        TextField step = field("100");
+        Label error = new Label();
+
+        Button runButton = new Button("Run");
+        runButton.setOnAction((ev) -> {
+            try {
+                List<String[]> rows = run(
+                    Double.parseDouble(minWidth.getText()),
+                    Double.parseDouble(maxWidth.getText()),
+                    Double.parseDouble(minHeight.getText()),
+                    Double.parseDouble(maxHeight.getText()),
+                    Double.parseDouble(step.getText())
+                );
+                w.setRows(rows);
+                error.setText(null);
+            } catch (Exception e) {
+                error.setText(String.valueOf(e));
+            }
+        });
+
+        TestPaneBase.TBar tb = new TestPaneBase.TBar();
+        tb.addAll(
+            new Label("Width:"),
+            minWidth,
+            new Label("-"),
+            maxWidth,
+            new Label("Height:"),
+            minHeight,
+            new Label("-"),
+            maxHeight,
+            new Label("Step:"),
+            step,
+            runButton,
+            error
+        );
+        w.setControls(tb);
+        w.show();
+    }
+
+    private static TextField field(String text) {
+        TextField t = new TextField(text);
+        t.setPrefColumnCount(5);
+        return t;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+/**
+ * A TreeItem which materializes its children on demand, when the children are first requested
+ * (normally, when the item is expanded), using the generator function of the shared {@link Model}.
+ * Optionally, the children are released when the item is collapsed.
+ * <p>
+ * The memory and the startup time scale with the number of nodes actually expanded
+ * rather than with the total number of logical nodes.
+ */
+public class LazyTreeItem<T> extends TreeItem<T> {
+    /** creates the children */
+    @FunctionalInterface
+    public interface Generator<T> {
+        /** returns the values of the children of the specified item, or null for a leaf */
+        public List<T> createChildren(LazyTreeItem<T> parent);
+    }
+
+    /** the state shared by all the items of one tree */
+    public static class Model<T> {
+        private final Generator<T> generator;
+        private final boolean releaseOnCollapse;
+        private long materialized;
+        private Runnable onChange;
+
+        public Model(Generator<T> generator, boolean releaseOnCollapse) {
+            this.generator = generator;
+            this.releaseOnCollapse = releaseOnCollapse;
+        }
+
+        /** returns the number of items created so far and not released, excluding the root */
+        public long getMaterializedCount() {
+            return materialized;
+        }
+
+        /** sets the callback invoked after the children have been materialized or released */
+        public void setOnChange(Runnable r) {
+            onChange = r;
+        }
+
+        protected void changed(long delta) {
+            materialized += delta;
+            if (onChange != null) {
+                onChange.run();
+            }
+        }
+    }
+
+    private final Model<T> model;
+    private final int depth;
+    private List<T> pending;
+    private boolean loaded;
+    private boolean leaf;
+
+    /** creates the root item */
+    public LazyTreeItem(T value, Model<T> model) {
+        this(value, model, 0);
+    }
+
+    protected LazyTreeItem(T value, Model<T> model, int depth) {
+        super(value);
+        this.model = model;
+        this.depth = depth;
+
+        if (model.releaseOnCollapse) {
+            expandedProperty().addListener((s,p,c) -> {
+                if (!c) {
+                    release();
+                }
+            });
+        }
+    }
+
+    /** returns the depth of this item, 0 for the root */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** returns true if the children have been materialized */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public boolean isLeaf() {
+        if (!loaded && (pending == null) && !leaf) {
+            // the values are cheap compared to the items, keep them until the children are needed
+            pending = model.generator.createChildren(this);
+            leaf = (pending == null) || pending.isEmpty();
+        }
+        return leaf;
+    }
+
+    @Override
+    public ObservableList<TreeItem<T>> getChildren() {
+        ObservableList<TreeItem<T>> children = super.getChildren();
+        if (!loaded && !isLeaf()) {
+            loaded = true;
+            List<T> values = pending;
+            pending = null;
+
+            ArrayList<TreeItem<T>> items = new ArrayList<>(values.size());
+            for (T v: values) {
+                items.add(new LazyTreeItem<>(v, model, depth + 1));
+            }
+            children.setAll(items);
+            model.changed(items.size());
+        }
+        return children;
+    }
+
+    /** releases the children and all their descendants */
+    public void release() {
+        if (loaded) {
+            long count = countMaterialized();
+            loaded = false;
+            super.getChildren().clear();
+            model.changed(-count);
+        }
+    }
+
+    private long countMaterialized() {
+        long n = 0;
+        if (loaded) {
+            for (TreeItem<T> ch: super.getChildren()) {
+                n++;
+                if (ch instanceof LazyTreeItem<T> c) {
+                    n += c.countMaterialized();
+                }
+            }
+        }
+        return n;
+    }
+}
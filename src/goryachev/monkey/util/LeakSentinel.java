@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+
+/**
+ * Tracks the discarded pages with weak references and reports the ones which
+ * are still retained after garbage collection, along with the heap usage.
+ * 
+ * All the methods must be called in the FX application thread.
+ */
+public class LeakSentinel {
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final HashSet<Ref> refs = new HashSet<>();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private int interval;
+    private int switches;
+    private int collected;
+    private long baseline = -1;
+    private long previous = -1;
+    private Consumer<String> reporter;
+
+    public LeakSentinel() {
+    }
+
+    /** sets the number of page switches after which the check is performed automatically, 0 disables the checks */
+    public void setInterval(int n) {
+        interval = n;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /** sets the consumer of the automatic check reports */
+    public void setReporter(Consumer<String> r) {
+        reporter = r;
+    }
+
+    /** starts tracking the discarded page */
+    public void discarded(Object page) {
+        if (page == null) {
+            return;
+        }
+
+        refs.add(new Ref(page, queue));
+        switches++;
+        drain();
+
+        if ((interval > 0) && ((switches % interval) == 0)) {
+            String report = check();
+            if (reporter != null) {
+                reporter.accept(report);
+            }
+        }
+    }
+
+    /** clears the tracked references and the heap baseline */
+    public void reset() {
+        refs.clear();
+        drain();
+        switches = 0;
+        collected = 0;
+        baseline = -1;
+        previous = -1;
+    }
+
+    /** triggers the garbage collection and returns the report */
+    public String check() {
+        for (int i = 0; i < 3; i++) {
+            memory.gc();
+            drain();
+        }
+
+        long used = memory.getHeapMemoryUsage().getUsed();
+        if (baseline < 0) {
+            baseline = used;
+        }
+
+        TreeMap<String,Integer> retained = new TreeMap<>();
+        for (Ref r: refs) {
+            retained.merge(r.type, 1, Integer::sum);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("switches: ").append(switches);
+        sb.append(" collected: ").append(collected);
+        sb.append(" retained: ").append(refs.size());
+        sb.append("\nheap used: ").append(mb(used));
+        sb.append(" delta since baseline: ").append(delta(used - baseline));
+        if (previous >= 0) {
+            sb.append(" delta since last check: ").append(delta(used - previous));
+        }
+        sb.append("\n");
+        for (Map.Entry<String,Integer> en: retained.entrySet()) {
+            sb.append("  ").append(en.getKey()).append(": ").append(en.getValue()).append("\n");
+        }
+        previous = used;
+        return sb.toString();
+    }
+
+    /**
+     * Selects every page in turn, one page per event loop iteration, repeating the specified
+     * number of rounds, then re-selects the original page and invokes the callback.
+     */
+    public static void cyclePages(SessionHost host, int rounds, Runnable onDone) {
+        String original = host.getPageTitle();
+        List<String> titles = host.getPageTitles();
+        int total = titles.size() * rounds;
+        new Runnable() {
+            private int index;
+
+            @Override
+            public void run() {
+                if (index < total) {
+                    host.selectPage(titles.get(index % titles.size()));
+                    index++;
+                    Platform.runLater(this);
+                } else {
+                    host.selectPage(original);
+                    onDone.run();
+                }
+            }
+        }.run();
+    }
+
+    /** triggers the garbage collection and returns the used heap size, in bytes */
+    public static long usedHeapAfterGC() {
+        MemoryMXBean m = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            m.gc();
+        }
+        return m.getHeapMemoryUsage().getUsed();
+    }
+
+    /** returns the number of retained (not yet collected) pages */
+    public int getRetainedCount() {
+        drain();
+        return refs.size();
+    }
+
+    protected void drain() {
+        Reference<?> r;
+        while ((r = queue.poll()) != null) {
+            if (refs.remove(r)) {
+                collected++;
+            }
+        }
+    }
+
+    private static String mb(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static String delta(long bytes) {
+        return String.format("%+.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    //
+
+    protected static class Ref extends WeakReference<Object> {
+        final String type;
+
+        public Ref(Object x, ReferenceQueue<Object> q) {
+            super(x, q);
+            type = x.getClass().getName();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import javafx.animation.PauseTransition;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * Interactive front end for the leak sentinel.
+ */
+public class LeakWindow extends Stage {
+    private final SessionHost host;
+    private final LeakSentinel sentinel;
+    private final ComboBox<Integer> intervalField;
+    private final ComboBox<Integer> roundsField;
+    private final TextArea report;
+
+    public LeakWindow(Window owner, SessionHost host, LeakSentinel sentinel) {
+        this.host = host;
+        this.sentinel = sentinel;
+
+        initOwner(owner);
+        setTitle("Leak Sentinel");
+
+        intervalField = new ComboBox<>();
+        intervalField.setId("leakInterval");
+        intervalField.getItems().setAll(0, 5, 10, 20, 50, 100);
+        intervalField.getSelectionModel().selectedItemProperty().addListener((s,p,c) -> {
+            sentinel.setInterval(c == null ? 0 : c);
+        });
+        FX.select(intervalField, sentinel.getInterval());
+
+        roundsField = new ComboBox<>();
+        roundsField.setId("leakRounds");
+        roundsField.getItems().setAll(1, 3, 10, 30);
+        FX.select(roundsField, 3);
+
+        Button checkButton = new Button("Check Now");
+        checkButton.setOnAction((ev) -> report(sentinel.check()));
+
+        Button cycleButton = new Button("Cycle All Pages");
+        cycleButton.setOnAction((ev) -> cycle());
+
+        report = new TextArea();
+        report.setEditable(false);
+
+        Button resetButton = new Button("Reset");
+        resetButton.setOnAction((ev) -> {
+            sentinel.reset();
+            report.clear();
+        });
+
+        OptionPane p = new OptionPane();
+        p.label("Check every N switches (0=off):");
+        p.option(intervalField);
+        p.option(checkButton);
+        p.label("Rounds:");
+        p.option(roundsField);
+        p.option(cycleButton);
+        p.option(resetButton);
+
+        BorderPane bp = new BorderPane();
+        bp.setLeft(p);
+        bp.setCenter(report);
+        setScene(new Scene(bp, 800, 500));
+        FX.cascade(this);
+
+        sentinel.setReporter(this::report);
+        setOnHidden((ev) -> sentinel.setReporter(null));
+        setOnShown((ev) -> sentinel.setReporter(this::report));
+    }
+
+    protected void cycle() {
+        Integer rounds = FX.getSelectedItem(roundsField);
+        LeakSentinel.cyclePages(host, rounds == null ? 1 : rounds, () -> {
+            // let the pending pulses and animations settle
+            PauseTransition t = new PauseTransition(Duration.seconds(1));
+            t.setOnFinished((ev) -> report(sentinel.check()));
+            t.play();
+        });
+    }
+
+    protected void report(String text) {
+        report.appendText(text);
+        report.appendText("\n");
+    }
+}
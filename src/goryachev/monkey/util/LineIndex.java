@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of primitive long offsets, written by a single thread and read by any thread.
+ * The array grows geometrically (by half), and a reader sees all the values below the size it has read.
+ */
+public class LineIndex {
+    private volatile long[] offsets;
+    private volatile int size;
+
+    public LineIndex(int capacity) {
+        offsets = new long[Math.max(16, capacity)];
+    }
+
+    /** appends a value.  Writer thread only. */
+    public void add(long offset) {
+        int n = size;
+        long[] a = offsets;
+        if (n == a.length) {
+            a = Arrays.copyOf(a, n + (n >> 1));
+            offsets = a;
+        }
+        a[n] = offset;
+        size = n + 1;
+    }
+
+    /** removes all the values, keeping the capacity.  Writer thread only. */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** returns the value at the specified index, which must be below the size read earlier */
+    public long get(int index) {
+        return offsets[index];
+    }
+
+    /** the memory used by the array, in bytes */
+    public long getCapacityBytes() {
+        return offsets.length * 8L;
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javafx.animation.AnimationTimer;
+
+/**
+ * A grid of double values continuously updated by a background producer thread at a configurable rate.
+ * <p>
+ * The updates are passed through a lock-free single-producer single-consumer ring buffer of primitive arrays,
+ * and applied in the FX application thread in one batch per pulse.  Multiple updates of the same cell
+ * within one batch are coalesced.  The end-to-end latency is measured from the moment the update is produced
+ * to the end of the layout pass following the batch, see {@link #painted()}.
+ */
+public class LiveFeed {
+    private static final int CAPACITY = 1 << 18;
+    private static final int MASK = CAPACITY - 1;
+    private final int rows;
+    private final int columns;
+    private final double[] values;
+    private final int[] versions;
+    private final long[] stamps;
+    // ring buffer
+    private final int[] ringCell = new int[CAPACITY];
+    private final double[] ringValue = new double[CAPACITY];
+    private final long[] ringTime = new long[CAPACITY];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    // FX thread
+    private final Histogram latency = Histogram.millis();
+    private final AnimationTimer timer;
+    private long[] pending = new long[1024];
+    private int pendingCount;
+    private long pulse;
+    private long received;
+    private long changed;
+    private long startTime;
+    private Runnable onBatch;
+    // producer
+    private volatile int rate;
+    private volatile boolean running;
+    private Thread producer;
+
+    public LiveFeed(int rows, int columns, int rate) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rate = rate;
+        int sz = rows * columns;
+        values = new double[sz];
+        versions = new int[sz];
+        stamps = new long[sz];
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drain();
+            }
+        };
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int getColumnCount() {
+        return columns;
+    }
+
+    /** returns the current value of the cell */
+    public double getValue(int row, int column) {
+        return values[row * columns + column];
+    }
+
+    /** returns the number of times the cell has been changed, for detecting the cells which need repainting */
+    public int getVersion(int row, int column) {
+        return versions[row * columns + column];
+    }
+
+    /** sets the target number of updates per second */
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    /** sets the callback invoked in the FX application thread after each batch has been applied */
+    public void setOnBatch(Runnable r) {
+        onBatch = r;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        latency.clear();
+        received = 0;
+        changed = 0;
+        pendingCount = 0;
+        startTime = System.nanoTime();
+        timer.start();
+
+        producer = new Thread(this::produce, "LiveFeed");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    public void stop() {
+        running = false;
+        timer.stop();
+
+        // wait for the producer to exit, so there is never more than one
+        Thread p = producer;
+        producer = null;
+        if (p != null) {
+            try {
+                p.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    protected void produce() {
+        Random r = new Random();
+        int cells = rows * columns;
+        double budget = 0;
+        long last = System.nanoTime();
+
+        while (running) {
+            long now = System.nanoTime();
+            // never accumulate more than the buffer can hold
+            budget = Math.min(budget + (now - last) * (rate / 1_000_000_000.0), CAPACITY);
+            last = now;
+
+            while ((budget >= 1.0) && running) {
+                if (!offer(r.nextInt(cells), r.nextDouble() * 1000.0, System.nanoTime())) {
+                    // full: the consumer is falling behind
+                    break;
+                }
+                budget -= 1.0;
+            }
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /** adds an update to the ring buffer, returns false if the buffer is full.  Producer thread only. */
+    protected boolean offer(int cell, double value, long time) {
+        long h = head.get();
+        if (h - tail.get() >= CAPACITY) {
+            return false;
+        }
+
+        int ix = (int)(h & MASK);
+        ringCell[ix] = cell;
+        ringValue[ix] = value;
+        ringTime[ix] = time;
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    /** applies all the updates accumulated since the last pulse.  FX thread only. */
+    protected void drain() {
+        long t = tail.get();
+        long h = head.get();
+        int n = (int)(h - t);
+        if (n == 0) {
+            return;
+        }
+
+        if (pendingCount + n > pending.length) {
+            long[] a = new long[Math.max(pending.length * 2, pendingCount + n)];
+            System.arraycopy(pending, 0, a, 0, pendingCount);
+            pending = a;
+        }
+
+        pulse++;
+        for (; t < h; t++) {
+            int ix = (int)(t & MASK);
+            int cell = ringCell[ix];
+            values[cell] = ringValue[ix];
+            versions[cell]++;
+            if (stamps[cell] != pulse) {
+                stamps[cell] = pulse;
+                changed++;
+            }
+            pending[pendingCount++] = ringTime[ix];
+        }
+        tail.lazySet(h);
+        received += n;
+
+        if (onBatch != null) {
+            onBatch.run();
+        }
+    }
+
+    /**
+     * Records the latency of the updates applied in the last batch.
+     * To be called from the scene post-layout pulse listener.
+     */
+    public void painted() {
+        if (pendingCount > 0) {
+            long now = System.nanoTime();
+            for (int i = 0; i < pendingCount; i++) {
+                latency.addNanos(now - pending[i]);
+            }
+            pendingCount = 0;
+        }
+    }
+
+    /** produce-to-paint latency, in milliseconds */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /** returns the number of updates received per distinct cell change, 1.0 meaning no coalescing */
+    public double getCoalescingRatio() {
+        return changed == 0 ? 1.0 : received / (double)changed;
+    }
+
+    public long getReceivedCount() {
+        return received;
+    }
+
+    /** returns a one-line status */
+    public String getStatus() {
+        double sec = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        return String.format(
+            "received %,.0f/s, coalescing %.2f:1, latency p50 %.1f p99 %.1f max %.1f ms",
+            sec <= 0 ? 0.0 : received / sec,
+            getCoalescingRatio(),
+            latency.percentile(50),
+            latency.percentile(99),
+            latency.getMax()
+        );
+    }
+}
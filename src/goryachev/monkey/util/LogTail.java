@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Follows a growing text file.  A background thread maps the newly appended bytes in chunks
+ * and records the end offset of every complete line in a {@link LineIndex}, so that any line
+ * can be read on demand with one memory-mapped read, see {@link #getLine(int)}.
+ * A file which becomes shorter than the indexed part (truncated or rotated) is indexed again from the start.
+ */
+public class LogTail {
+    /** the maximum number of bytes indexed per mapping */
+    private static final long CHUNK = 64 * 1024 * 1024;
+    /** the size of the window mapped for reading the lines */
+    private static final long WINDOW = 16 * 1024 * 1024;
+    private static final long PAGE = 4096;
+    /** the longer lines are truncated when read */
+    private static final int MAX_LINE = 4096;
+    private static final long POLL_NANOS = 2_000_000L;
+    private final Path file;
+    private final FileChannel channel;
+    private final LineIndex index = new LineIndex(1 << 16);
+    // indexer thread
+    private volatile boolean running;
+    private volatile long indexedBytes;
+    private volatile long indexNanos;
+    private volatile long resets;
+    private Thread indexer;
+    // FX thread
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowResets;
+    private final byte[] line = new byte[MAX_LINE];
+
+    public LogTail(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        indexer = new Thread(this::index, "LogTail");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /** stops the indexer thread and closes the file */
+    public void close() {
+        running = false;
+        Thread t = indexer;
+        indexer = null;
+        if (t != null) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    protected void index() {
+        byte[] scan = new byte[64 * 1024];
+        long pos = 0;
+        while (running) {
+            try {
+                long size = channel.size();
+                if (size < pos) {
+                    // truncated or rotated
+                    index.clear();
+                    pos = 0;
+                    indexedBytes = 0;
+                    resets++;
+                }
+
+                if (size == pos) {
+                    LockSupport.parkNanos(POLL_NANOS);
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                int len = (int)Math.min(size - pos, CHUNK);
+                MappedByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                for (int off = 0; off < len; off += scan.length) {
+                    int n = Math.min(scan.length, len - off);
+                    b.get(off, scan, 0, n);
+                    for (int i = 0; i < n; i++) {
+                        if (scan[i] == '\n') {
+                            index.add(pos + off + i + 1);
+                        }
+                    }
+                }
+                pos += len;
+                indexedBytes = pos;
+                indexNanos += System.nanoTime() - start;
+            } catch (IOException e) {
+                e.printStackTrace();
+                running = false;
+            }
+        }
+    }
+
+    /** the number of complete lines indexed so far */
+    public int getLineCount() {
+        return index.size();
+    }
+
+    /** reads the line, without the line terminator.  FX thread only. */
+    public String getLine(int ix) {
+        if (ix >= index.size()) {
+            return "";
+        }
+
+        long start = (ix == 0) ? 0 : index.get(ix - 1);
+        long end = index.get(ix) - 1;
+        if ((end > start) && (byteAt(end - 1) == '\r')) {
+            end--;
+        }
+        int len = (int)Math.min(end - start, MAX_LINE);
+        if (len <= 0) {
+            return "";
+        }
+
+        try {
+            MappedByteBuffer b = window(start, start + len);
+            b.get((int)(start - windowStart), line, 0, len);
+        } catch (IOException e) {
+            return e.toString();
+        } catch (InternalError e) {
+            // the file has been truncated under the mapped window before the indexer noticed
+            window = null;
+            return "";
+        }
+        return new String(line, 0, len, StandardCharsets.UTF_8);
+    }
+
+    private byte byteAt(long pos) {
+        try {
+            MappedByteBuffer b = window(pos, pos + 1);
+            return b.get((int)(pos - windowStart));
+        } catch (IOException e) {
+            return 0;
+        } catch (InternalError e) {
+            // the file has been truncated under the mapped window
+            window = null;
+            return 0;
+        }
+    }
+
+    /** returns the mapped window which contains the specified range, remapping when necessary */
+    private MappedByteBuffer window(long start, long end) throws IOException {
+        long r = resets;
+        if ((window == null) || (r != windowResets) || (start < windowStart) || (end > windowStart + window.capacity())) {
+            long ws = start - (start % PAGE);
+            long limit = Math.max(end, indexedBytes);
+            long len = Math.max(end - ws, Math.min(WINDOW, limit - ws));
+            window = channel.map(FileChannel.MapMode.READ_ONLY, ws, len);
+            windowStart = ws;
+            windowResets = r;
+        }
+        return window;
+    }
+
+    public long getIndexedBytes() {
+        return indexedBytes;
+    }
+
+    /** the time spent by the indexer thread scanning the mapped chunks */
+    public long getIndexNanos() {
+        return indexNanos;
+    }
+
+    /** the memory used by the line index */
+    public long getIndexMemory() {
+        return index.getCapacityBytes();
+    }
+
+    /** the line index memory per million lines, in bytes */
+    public double getMemoryPerMillionLines() {
+        int n = index.size();
+        return n == 0 ? 0.0 : index.getCapacityBytes() * 1_000_000.0 / n;
+    }
+
+    /** the indexing throughput, in lines per second of the indexer thread time */
+    public double getLinesPerSecond() {
+        long ns = indexNanos;
+        return ns == 0 ? 0.0 : index.size() * 1_000_000_000.0 / ns;
+    }
+
+    /** the indexing throughput, in megabytes per second of the indexer thread time */
+    public double getMegabytesPerSecond() {
+        long ns = indexNanos;
+        return ns == 0 ? 0.0 : indexedBytes * 1000.0 / ns / 1.048576;
+    }
+
+    /** returns a one-line status */
+    public String getStatus() {
+        return String.format(
+            "lines %,d, indexed %,.1f MB, %,.0f lines/s, %,.1f MB/s, index %,.1f MB (%,.1f MB per million lines), resets %d",
+            index.size(),
+            indexedBytes / 1_048_576.0,
+            getLinesPerSecond(),
+            getMegabytesPerSecond(),
+            index.getCapacityBytes() / 1_048_576.0,
+            getMemoryPerMillionLines() / 1_048_576.0,
+            resets
+        );
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends log-like lines to a file from a background thread at a configurable rate, for stress testing
+ * the log viewers.  The lines are generated in ASCII directly into a buffer, which is written in batches.
+ */
+public class LogWriter {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String[] LEVELS = { "INFO ", "DEBUG", "WARN ", "TRACE" };
+    private static final String[] WORDS = {
+        "request", "handled", "session", "cache", "miss", "connection", "opened", "closed",
+        "retry", "timeout", "user", "query", "rows", "flush", "commit", "pulse"
+    };
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private final Path file;
+    private volatile int rate;
+    private volatile boolean running;
+    private volatile long written;
+    private volatile long bytes;
+    private Thread thread;
+
+    public LogWriter(Path file, int rate) {
+        this.file = file;
+        this.rate = rate;
+    }
+
+    /** sets the target number of lines per second */
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this::write, "LogWriter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+
+        // wait for the writer to exit, so there is never more than one
+        Thread t = thread;
+        thread = null;
+        if (t != null) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    protected void write() {
+        Random r = new Random();
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        byte[] stamp = new byte[0];
+        long stampMillis = -1;
+        double budget = 0;
+        long last = System.nanoTime();
+        long n = written;
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND, StandardOpenOption.CREATE)) {
+            while (running) {
+                long now = System.nanoTime();
+                // never accumulate more than one second worth of lines
+                int rt = rate;
+                budget = Math.min(budget + (now - last) * (rt / 1_000_000_000.0), rt);
+                last = now;
+
+                long ms = System.currentTimeMillis();
+                if (ms != stampMillis) {
+                    stampMillis = ms;
+                    stamp = FORMAT.format(LocalDateTime.now()).getBytes(StandardCharsets.US_ASCII);
+                }
+
+                while ((budget >= 1.0) && running) {
+                    if (buf.remaining() < 256) {
+                        flush(ch, buf);
+                    }
+                    buf.put(stamp);
+                    put(buf, " ");
+                    put(buf, LEVELS[r.nextInt(LEVELS.length)]);
+                    put(buf, " [worker-");
+                    putNumber(buf, r.nextInt(16));
+                    put(buf, "] line ");
+                    putNumber(buf, ++n);
+                    int words = 3 + r.nextInt(12);
+                    for (int i = 0; i < words; i++) {
+                        put(buf, " ");
+                        put(buf, WORDS[r.nextInt(WORDS.length)]);
+                    }
+                    buf.put((byte)'\n');
+                    budget -= 1.0;
+                }
+                flush(ch, buf);
+                written = n;
+                LockSupport.parkNanos(500_000);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            running = false;
+        }
+    }
+
+    private void flush(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            bytes += ch.write(buf);
+        }
+        buf.clear();
+    }
+
+    private static void put(ByteBuffer buf, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            buf.put((byte)s.charAt(i));
+        }
+    }
+
+    private static void putNumber(ByteBuffer buf, long v) {
+        if (v >= 10) {
+            putNumber(buf, v / 10);
+        }
+        buf.put((byte)('0' + (v % 10)));
+    }
+
+    /** the number of lines written */
+    public long getWrittenLines() {
+        return written;
+    }
+
+    /** the number of bytes written */
+    public long getWrittenBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reads the fixed length text records from a memory-mapped file.
+ * Each record is {@link #RECORD_LENGTH} bytes long, padded with spaces and terminated by a newline.
+ */
+public class MappedRecordSource implements PagedSource<String> {
+    public static final int RECORD_LENGTH = 64;
+    private static final HashMap<Integer,CompletableFuture<Path>> sharedFiles = new HashMap<>();
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    public MappedRecordSource(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        long len = channel.size();
+        if (len > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("file is too large: " + len);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, len);
+        size = (int)(len / RECORD_LENGTH);
+    }
+
+    /**
+     * Returns the temporary file with the specified number of records, shared by all the callers.
+     * The file is generated in a background thread on the first call, a failed generation is retried
+     * on the next call.
+     */
+    public static synchronized CompletableFuture<Path> getSharedFile(int count) {
+        CompletableFuture<Path> f = sharedFiles.get(count);
+        if ((f == null) || f.isCompletedExceptionally()) {
+            f = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return createFile(count);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            sharedFiles.put(count, f);
+        }
+        return f;
+    }
+
+    /** writes a temporary file with the specified number of records, which is deleted on exit */
+    public static Path createFile(int count) throws IOException {
+        Path file = Files.createTempFile("records", ".txt");
+        file.toFile().deleteOnExit();
+
+        byte[] pad = " ".repeat(RECORD_LENGTH).getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer b = ByteBuffer.allocateDirect(RECORD_LENGTH * 4096);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < count; i++) {
+                byte[] text = ("record." + i + ", offset " + ((long)i * RECORD_LENGTH)).getBytes(StandardCharsets.ISO_8859_1);
+                b.put(text);
+                b.put(pad, 0, RECORD_LENGTH - 1 - text.length);
+                b.put((byte)'\n');
+                if (!b.hasRemaining()) {
+                    write(ch, b);
+                }
+            }
+            write(ch, b);
+        }
+        return file;
+    }
+
+    private static void write(FileChannel ch, ByteBuffer b) throws IOException {
+        b.flip();
+        while (b.hasRemaining()) {
+            ch.write(b);
+        }
+        b.clear();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<String> load(int start, int count) {
+        ArrayList<String> rv = new ArrayList<>(count);
+        byte[] rec = new byte[RECORD_LENGTH];
+        for (int i = 0; i < count; i++) {
+            buffer.get((start + i) * RECORD_LENGTH, rec);
+            int len = RECORD_LENGTH - 1;
+            while ((len > 0) && (rec[len - 1] == ' ')) {
+                len--;
+            }
+            rv.add(new String(rec, 0, len, StandardCharsets.ISO_8859_1));
+        }
+        return rv;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+
+/**
+ * Generates a reproducible stream of random input events (the "monkey") at the specified rate,
+ * dispatches them to the target area, records every event to a log,
+ * and measures the dispatch latency.
+ * The driver stops at the first uncaught exception.
+ * 
+ * All the methods must be called in the FX application thread.
+ */
+public class MonkeyDriver {
+    private static final KeyCode[] KEYS = {
+        KeyCode.UP,
+        KeyCode.DOWN,
+        KeyCode.LEFT,
+        KeyCode.RIGHT,
+        KeyCode.PAGE_UP,
+        KeyCode.PAGE_DOWN,
+        KeyCode.HOME,
+        KeyCode.END,
+        KeyCode.TAB,
+        KeyCode.ENTER,
+        KeyCode.SPACE,
+        KeyCode.BACK_SPACE,
+        KeyCode.DELETE,
+        KeyCode.ESCAPE,
+    };
+    private static final String TYPED_CHARS = "abcdefghijklmnopqrstuvwxyz0123456789 ";
+    /** do not try to catch up with more than this many events per pulse after a stall */
+    private static final int MAX_BURST = 1000;
+
+    private final EventInjector injector;
+    private final long seed;
+    private final int rate;
+    private final Random random;
+    private final ArrayList<MonkeyEvent> log = new ArrayList<>();
+    private final Histogram latency = Histogram.millis();
+    private final AnimationTimer timer;
+    private long start;
+    private long actions;
+    private Throwable failure;
+    private Thread.UncaughtExceptionHandler oldHandler;
+    private boolean handlerInstalled;
+    private Consumer<MonkeyDriver> onStop;
+    private File snapshotDir;
+    private File snapshot;
+    private boolean running;
+
+    /**
+     * @param area the target area
+     * @param seed the random seed
+     * @param rate the number of generated actions per second
+     */
+    public MonkeyDriver(Node area, long seed, int rate) {
+        this.injector = new EventInjector(area);
+        this.seed = seed;
+        this.rate = rate;
+        this.random = new Random(seed);
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                tick();
+            }
+        };
+    }
+
+    /** sets the callback invoked when the driver stops, either normally or due to a failure */
+    public void setOnStop(Consumer<MonkeyDriver> c) {
+        onStop = c;
+    }
+
+    /** sets the directory where the log is saved when the driver encounters an exception */
+    public void setSnapshotDirectory(File dir) {
+        snapshotDir = dir;
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        Thread t = Thread.currentThread();
+        // handleFailure() stops the driver, which clears the field: delegate to the local
+        Thread.UncaughtExceptionHandler previous = t.getUncaughtExceptionHandler();
+        oldHandler = previous;
+        handlerInstalled = true;
+        t.setUncaughtExceptionHandler((th, e) -> {
+            handleFailure(e);
+            if (previous != null) {
+                previous.uncaughtException(th, e);
+            } else {
+                th.getThreadGroup().uncaughtException(th, e);
+            }
+        });
+
+        start = System.nanoTime();
+        timer.start();
+    }
+
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        timer.stop();
+        injector.reset();
+        if (handlerInstalled) {
+            Thread.currentThread().setUncaughtExceptionHandler(oldHandler);
+            oldHandler = null;
+            handlerInstalled = false;
+        }
+        if (onStop != null) {
+            onStop.accept(this);
+        }
+    }
+
+    protected void tick() {
+        long elapsed = System.nanoTime() - start;
+        long due = (elapsed * rate / 1_000_000_000L) - actions;
+        if (due > MAX_BURST) {
+            // skip what we cannot handle to avoid freezing
+            actions += (due - MAX_BURST);
+            due = MAX_BURST;
+        }
+
+        for (int i = 0; i < due; i++) {
+            if (!nextAction()) {
+                return;
+            }
+        }
+    }
+
+    /** generates and dispatches the next random action, returns false if the driver has been stopped */
+    protected boolean nextAction() {
+        actions++;
+        Node area = injector.getArea();
+        double w = area.getLayoutBounds().getWidth();
+        double h = area.getLayoutBounds().getHeight();
+        double x = random.nextDouble() * w;
+        double y = random.nextDouble() * h;
+
+        int r = random.nextInt(100);
+        if (r < 30) {
+            return dispatch(MonkeyEvent.Type.MOUSE_MOVE, x, y, 0, null);
+        } else if (r < 50) {
+            int b = MonkeyEvent.encode(random.nextInt(10) == 0 ? MouseButton.SECONDARY : MouseButton.PRIMARY);
+            return
+                dispatch(MonkeyEvent.Type.MOUSE_PRESS, x, y, b, null) &&
+                dispatch(MonkeyEvent.Type.MOUSE_RELEASE, x, y, b, null);
+        } else if (r < 60) {
+            int b = MonkeyEvent.encode(MouseButton.PRIMARY);
+            if (!dispatch(MonkeyEvent.Type.MOUSE_PRESS, x, y, b, null)) {
+                return false;
+            }
+            int steps = 2 + random.nextInt(5);
+            for (int i = 0; i < steps; i++) {
+                x = clamp(x + random.nextGaussian() * 20.0, w);
+                y = clamp(y + random.nextGaussian() * 20.0, h);
+                if (!dispatch(MonkeyEvent.Type.MOUSE_DRAG, x, y, b, null)) {
+                    return false;
+                }
+            }
+            return dispatch(MonkeyEvent.Type.MOUSE_RELEASE, x, y, b, null);
+        } else if (r < 75) {
+            int delta = (random.nextInt(7) - 3) * 40;
+            return dispatch(MonkeyEvent.Type.SCROLL, x, y, delta, null);
+        } else if (r < 85) {
+            int k = MonkeyEvent.encode(KEYS[random.nextInt(KEYS.length)]);
+            return
+                dispatch(MonkeyEvent.Type.KEY_PRESS, 0, 0, k, null) &&
+                dispatch(MonkeyEvent.Type.KEY_RELEASE, 0, 0, k, null);
+        } else {
+            int len = 1 + random.nextInt(5);
+            for (int i = 0; i < len; i++) {
+                char c = TYPED_CHARS.charAt(random.nextInt(TYPED_CHARS.length()));
+                int k = MonkeyEvent.encode(keyCode(c));
+                String s = String.valueOf(c);
+                if (!(
+                    dispatch(MonkeyEvent.Type.KEY_PRESS, 0, 0, k, null) &&
+                    dispatch(MonkeyEvent.Type.KEY_TYPE, 0, 0, 0, s) &&
+                    dispatch(MonkeyEvent.Type.KEY_RELEASE, 0, 0, k, null)
+                )) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    protected boolean dispatch(MonkeyEvent.Type type, double x, double y, int code, String text) {
+        if (failure != null) {
+            return false;
+        }
+
+        long t0 = System.nanoTime();
+        MonkeyEvent ev = new MonkeyEvent(t0 - start, type, x, y, code, text);
+        log.add(ev);
+        try {
+            injector.inject(ev);
+        } catch (Throwable e) {
+            handleFailure(e);
+            e.printStackTrace();
+            return false;
+        }
+        latency.addNanos(System.nanoTime() - t0);
+        return true;
+    }
+
+    protected void handleFailure(Throwable e) {
+        if (failure == null) {
+            failure = e;
+            if (snapshotDir != null) {
+                snapshot = new File(snapshotDir, "monkey-" + seed + "-" + System.currentTimeMillis() + ".log");
+                try {
+                    snapshotDir.mkdirs();
+                    writeLog(snapshot);
+                } catch (IOException err) {
+                    err.printStackTrace();
+                    snapshot = null;
+                }
+            }
+            stop();
+        }
+    }
+
+    private static double clamp(double v, double max) {
+        if (v < 0.0) {
+            return 0.0;
+        } else if (v > max) {
+            return max;
+        }
+        return v;
+    }
+
+    private static KeyCode keyCode(char c) {
+        if (c == ' ') {
+            return KeyCode.SPACE;
+        } else if (Character.isDigit(c)) {
+            return KeyCode.valueOf("DIGIT" + c);
+        }
+        return KeyCode.valueOf(String.valueOf(Character.toUpperCase(c)));
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    /** the exception which stopped the driver, or null */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /** the log file saved after a failure, or null */
+    public File getSnapshot() {
+        return snapshot;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public List<MonkeyEvent> getLog() {
+        return log;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    /** writes the event log in a text form which can be replayed later */
+    public void writeLog(File f) throws IOException {
+        try (PrintWriter wr = new PrintWriter(f, StandardCharsets.UTF_8)) {
+            wr.println("# monkey seed=" + seed + " rate=" + rate + " events=" + log.size());
+            if (failure != null) {
+                wr.println("# failure: " + failure);
+            }
+            for (MonkeyEvent ev: log) {
+                wr.println(ev.format());
+            }
+        }
+    }
+
+    /** reads the event log written by writeLog() */
+    public static List<MonkeyEvent> readLog(File f) throws IOException {
+        ArrayList<MonkeyEvent> rv = new ArrayList<>();
+        for (String s: Files.readAllLines(f.toPath(), StandardCharsets.UTF_8)) {
+            MonkeyEvent ev = MonkeyEvent.parse(s);
+            if (ev != null) {
+                rv.add(ev);
+            }
+        }
+        return rv;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.HashMap;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseButton;
+
+/**
+ * A single recorded input event.
+ * The coordinates are relative to the target area, the time is in nanoseconds since the start of the session.
+ * The meaning of the code depends on the type: mouse button code, KeyCode.getCode(), scroll delta in pixels,
+ * or the option value.
+ * Key and button codes do not depend on the enum declaration order, so the logs stay valid across JavaFX versions.
+ * The text contains the typed character, the page title, or the option node id.
+ */
+public record MonkeyEvent(long time, Type type, double x, double y, int code, String text) {
+    private static final HashMap<Integer,KeyCode> keys = initKeys();
+
+    public enum Type {
+        MOUSE_MOVE,
+        MOUSE_PRESS,
+        MOUSE_DRAG,
+        MOUSE_RELEASE,
+        SCROLL,
+        KEY_PRESS,
+        KEY_TYPE,
+        KEY_RELEASE,
+        /** page selection, the text is the page title */
+        PAGE,
+        /** option selection, the text is the node id, the code is the selected index or 0/1 for check boxes */
+        OPTION;
+
+        public boolean isInput() {
+            return (this != PAGE) && (this != OPTION);
+        }
+    }
+
+    /** formats this event as a single line of the text log */
+    public String format() {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(time);
+        sb.append(' ');
+        sb.append(type);
+        sb.append(' ');
+        sb.append(x);
+        sb.append(' ');
+        sb.append(y);
+        sb.append(' ');
+        sb.append(code);
+        if (text != null) {
+            sb.append(' ');
+            sb.append(escape(text));
+        }
+        return sb.toString();
+    }
+
+    /** parses a line produced by format(), returns null for comments and empty lines */
+    public static MonkeyEvent parse(String line) {
+        if (line.isBlank() || line.startsWith("#")) {
+            return null;
+        }
+        String[] ss = line.split(" ", 6);
+        if (ss.length < 5) {
+            throw new IllegalArgumentException("invalid event: " + line);
+        }
+        long time = Long.parseLong(ss[0]);
+        Type type = Type.valueOf(ss[1]);
+        double x = Double.parseDouble(ss[2]);
+        double y = Double.parseDouble(ss[3]);
+        int code = Integer.parseInt(ss[4]);
+        String text = (ss.length > 5) ? unescape(ss[5]) : null;
+        return new MonkeyEvent(time, type, x, y, code, text);
+    }
+
+    /** returns the stable code for the key */
+    public static int encode(KeyCode k) {
+        return k.getCode();
+    }
+
+    /** returns the key for the code produced by encode(KeyCode), or UNDEFINED */
+    public static KeyCode decodeKey(int code) {
+        return keys.getOrDefault(code, KeyCode.UNDEFINED);
+    }
+
+    /** returns the stable code for the mouse button */
+    public static int encode(MouseButton b) {
+        switch (b) {
+        case NONE:
+            return 0;
+        case PRIMARY:
+            return 1;
+        case MIDDLE:
+            return 2;
+        case SECONDARY:
+            return 3;
+        case BACK:
+            return 4;
+        case FORWARD:
+            return 5;
+        default:
+            throw new Error("?" + b);
+        }
+    }
+
+    /** returns the mouse button for the code produced by encode(MouseButton) */
+    public static MouseButton decodeButton(int code) {
+        switch (code) {
+        case 0:
+            return MouseButton.NONE;
+        case 1:
+            return MouseButton.PRIMARY;
+        case 2:
+            return MouseButton.MIDDLE;
+        case 3:
+            return MouseButton.SECONDARY;
+        case 4:
+            return MouseButton.BACK;
+        case 5:
+            return MouseButton.FORWARD;
+        default:
+            throw new IllegalArgumentException("invalid mouse button: " + code);
+        }
+    }
+
+    private static HashMap<Integer,KeyCode> initKeys() {
+        HashMap<Integer,KeyCode> m = new HashMap<>();
+        for (KeyCode k: KeyCode.values()) {
+            m.put(k.getCode(), k);
+        }
+        return m;
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c < 0x20) || (c == '\\') || (c > 0x7e)) {
+                sb.append(String.format("\\u%04x", (int)c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c == '\\') && (i + 5 < s.length()) && (s.charAt(i + 1) == 'u')) {
+                sb.append((char)Integer.parseInt(s.substring(i + 2, i + 6), 16));
+                i += 5;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
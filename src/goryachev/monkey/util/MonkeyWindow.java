@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.io.File;
+import java.util.List;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * Controls the monkey driver: a seeded random input generator aimed at the current page.
+ */
+public class MonkeyWindow extends Stage {
+    private final SessionHost host;
+    private final File logDir;
+    private final TextField seedField;
+    private final ComboBox<Integer> rateField;
+    private final Label status;
+    private final Timeline updater;
+    private MonkeyDriver driver;
+    private EventPlayer player;
+
+    /**
+     * @param owner the owner window
+     * @param host provides the target area (the content of the current page)
+     * @param logDir the directory where the log is saved upon failure
+     */
+    public MonkeyWindow(Window owner, SessionHost host, File logDir) {
+        this.host = host;
+        this.logDir = logDir;
+
+        initOwner(owner);
+        setTitle("Monkey");
+
+        seedField = new TextField("1");
+        seedField.setId("monkeySeed");
+
+        rateField = new ComboBox<>();
+        rateField.setId("monkeyRate");
+        rateField.getItems().setAll(
+            1,
+            10,
+            100,
+            1_000,
+            10_000,
+            100_000
+        );
+        FX.select(rateField, 100);
+
+        Button startButton = new Button("Start");
+        startButton.setOnAction((ev) -> startMonkey());
+
+        Button stopButton = new Button("Stop");
+        stopButton.setOnAction((ev) -> stopAll());
+
+        Button saveButton = new Button("Save Log...");
+        saveButton.setOnAction((ev) -> saveLog());
+
+        Button replayButton = new Button("Replay Log...");
+        replayButton.setOnAction((ev) -> replayLog());
+
+        status = new Label();
+        status.setWrapText(true);
+
+        OptionPane p = new OptionPane();
+        p.label("Seed:");
+        p.option(seedField);
+        p.label("Rate (actions/second):");
+        p.option(rateField);
+        p.option(startButton);
+        p.option(stopButton);
+        p.option(saveButton);
+        p.option(replayButton);
+        p.label("Status:");
+        p.option(status);
+
+        BorderPane bp = new BorderPane(p);
+        setScene(new Scene(bp, 400, 400));
+        FX.cascade(this);
+
+        updater = new Timeline(new KeyFrame(Duration.millis(500), (ev) -> updateStatus()));
+        updater.setCycleCount(Timeline.INDEFINITE);
+        
+        setOnHidden((ev) -> stopAll());
+    }
+
+    protected void startMonkey() {
+        stopAll();
+
+        Node area = host.getContentArea();
+        if (area == null) {
+            status.setText("No page selected");
+            return;
+        }
+
+        long seed;
+        try {
+            seed = Long.parseLong(seedField.getText().trim());
+        } catch (NumberFormatException e) {
+            status.setText("Invalid seed");
+            return;
+        }
+        Integer rate = FX.getSelectedItem(rateField);
+
+        driver = new MonkeyDriver(area, seed, rate == null ? 100 : rate);
+        driver.setSnapshotDirectory(logDir);
+        driver.setOnStop((d) -> {
+            updater.stop();
+            updateStatus();
+        });
+        driver.start();
+        updater.play();
+    }
+
+    protected void stopAll() {
+        if (driver != null) {
+            driver.stop();
+        }
+        if (player != null) {
+            player.stop();
+            player = null;
+        }
+        updater.stop();
+    }
+
+    protected void updateStatus() {
+        if (driver == null) {
+            status.setText(null);
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(driver.isRunning() ? "Running" : "Stopped");
+        sb.append("\nevents: ").append(driver.getLog().size());
+        sb.append("\nelapsed: ").append(driver.getElapsedNanos() / 1_000_000_000L).append(" s");
+        sb.append("\ndispatch latency (ms):\n").append(driver.getLatency());
+        Throwable e = driver.getFailure();
+        if (e != null) {
+            sb.append("\n\nFAILED: ").append(e);
+            File f = driver.getSnapshot();
+            if (f != null) {
+                sb.append("\nlog saved to ").append(f);
+            }
+        }
+        status.setText(sb.toString());
+    }
+
+    protected void saveLog() {
+        if (driver == null) {
+            return;
+        }
+
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Save Monkey Log");
+        fc.setInitialDirectory(logDir.isDirectory() ? logDir : null);
+        fc.setInitialFileName("monkey-" + driver.getSeed() + ".log");
+        File f = fc.showSaveDialog(this);
+        if (f != null) {
+            try {
+                driver.writeLog(f);
+            } catch (Exception e) {
+                e.printStackTrace();
+                status.setText("Error: " + e);
+            }
+        }
+    }
+
+    protected void replayLog() {
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Replay Monkey Log");
+        fc.setInitialDirectory(logDir.isDirectory() ? logDir : null);
+        File f = fc.showOpenDialog(this);
+        if (f == null) {
+            return;
+        }
+
+        if (host.getContentArea() == null) {
+            status.setText("No page selected");
+            return;
+        }
+
+        stopAll();
+        try {
+            List<MonkeyEvent> events = MonkeyDriver.readLog(f);
+            player = new EventPlayer(host, events, EventPlayer.Mode.REAL_TIME);
+            player.setOnFinished(() -> {
+                status.setText("Replayed " + events.size() + " events from " + f.getName());
+            });
+            status.setText("Replaying " + events.size() + " events from " + f.getName());
+            player.start();
+        } catch (Exception e) {
+            e.printStackTrace();
+            status.setText("Error: " + e);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.function.Consumer;
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.skin.VirtualFlow;
+
+/**
+ * Flings a ListView backed by a {@link PagedList} like {@link FlingBenchmark}, sampling the visible cells
+ * which show the placeholder on every pulse, then waits until all the visible cells have been filled.
+ */
+public class PagedFlingBenchmark {
+    public record Result(
+        int pulses,
+        long flingNanos,
+        long fillNanos,
+        double blankRatio,
+        double maxBlankRatio,
+        long requested,
+        long loaded,
+        long cancelled,
+        long evicted,
+        Histogram latency
+    ) { }
+
+    public static final String[] COLUMNS = {
+        "Source",
+        "Pulses",
+        "Fling (ms)",
+        "Time to Fill (ms)",
+        "Blank Cells (%)",
+        "Max Blank (%)",
+        "Pages Requested",
+        "Loaded",
+        "Cancelled",
+        "Evicted",
+        "Latency avg (ms)",
+        "Latency p95 (ms)"
+    };
+    /** the initial velocity, in pixels per pulse */
+    private static final double VELOCITY = 4000.0;
+    private static final double DECAY = 0.96;
+    /** the number of pulses to wait for the control skin to be created */
+    private static final int MAX_WAIT = 10;
+    private static final long FILL_TIMEOUT = 30_000_000_000L;
+
+    /** flings the control once the skin has been created, and passes the result to the consumer */
+    public static <T> void run(ListView<T> control, PagedList<T> list, Consumer<Result> onDone) {
+        new AnimationTimer() {
+            private int wait;
+            private VirtualFlow<?> flow;
+            private double velocity = VELOCITY;
+            private int pulses;
+            private long start;
+            private long flingEnd;
+            private long visible;
+            private long blank;
+            private double maxBlankRatio;
+
+            @Override
+            public void handle(long now) {
+                if (flow == null) {
+                    flow = FX.findVirtualFlow(control);
+                    if (flow == null) {
+                        if (wait++ > MAX_WAIT) {
+                            stop();
+                        }
+                        return;
+                    }
+                    list.clearPages();
+                    list.resetStatistics();
+                    flow.scrollToTop(0);
+                    start = System.nanoTime();
+                    return;
+                }
+
+                if (velocity >= 1.0) {
+                    sample();
+                    flow.scrollPixels(velocity);
+                    velocity *= DECAY;
+                    pulses++;
+                    return;
+                }
+
+                long t = System.nanoTime();
+                if (flingEnd == 0) {
+                    flingEnd = t;
+                }
+
+                if (((list.getPendingCount() == 0) && (countBlank() == 0)) || (t - flingEnd > FILL_TIMEOUT)) {
+                    stop();
+                    onDone.accept(new Result(
+                        pulses,
+                        flingEnd - start,
+                        t - flingEnd,
+                        visible == 0 ? 0.0 : blank / (double)visible,
+                        maxBlankRatio,
+                        list.getRequested(),
+                        list.getLoaded(),
+                        list.getCancelled(),
+                        list.getEvicted(),
+                        list.getLatency()
+                    ));
+                }
+            }
+
+            /** samples the cells shown during the previous pulse */
+            private void sample() {
+                int n = countVisible();
+                if (n > 0) {
+                    int b = countBlank();
+                    visible += n;
+                    blank += b;
+                    maxBlankRatio = Math.max(maxBlankRatio, b / (double)n);
+                }
+            }
+
+            private int countVisible() {
+                IndexedCell<?> first = flow.getFirstVisibleCell();
+                IndexedCell<?> last = flow.getLastVisibleCell();
+                return ((first == null) || (last == null)) ? 0 : last.getIndex() - first.getIndex() + 1;
+            }
+
+            private int countBlank() {
+                IndexedCell<?> first = flow.getFirstVisibleCell();
+                IndexedCell<?> last = flow.getLastVisibleCell();
+                if ((first == null) || (last == null)) {
+                    return 0;
+                }
+
+                int n = 0;
+                for (int i = first.getIndex(); i <= last.getIndex(); i++) {
+                    IndexedCell<?> c = flow.getVisibleCell(i);
+                    if ((c != null) && (c.getItem() == list.getPlaceholder())) {
+                        n++;
+                    }
+                }
+                return n;
+            }
+        }.start();
+    }
+
+    public static String[] toRow(String name, Result r) {
+        Histogram h = r.latency();
+        return new String[] {
+            name,
+            String.valueOf(r.pulses()),
+            String.format("%.1f", r.flingNanos() / 1_000_000.0),
+            String.format("%.1f", r.fillNanos() / 1_000_000.0),
+            String.format("%.1f", r.blankRatio() * 100.0),
+            String.format("%.1f", r.maxBlankRatio() * 100.0),
+            String.valueOf(r.requested()),
+            String.valueOf(r.loaded()),
+            String.valueOf(r.cancelled()),
+            String.valueOf(r.evicted()),
+            String.format("%.1f", h.getAverage()),
+            String.format("%.1f", h.percentile(95))
+        };
+    }
+}
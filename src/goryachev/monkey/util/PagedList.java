@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+/**
+ * A read-only list of a fixed size, which fetches its items in pages from a {@link PagedSource}
+ * using a bounded executor, and returns the placeholder for the items whose page has not been loaded yet.
+ * <p>
+ * Accessing an item in a page which has not been loaded requests that page, and moving to another page
+ * also prefetches the pages ahead in the scroll direction, and cancels the requests for the pages
+ * behind it.  The requests which do not fit in the executor queue are deferred and submitted as soon
+ * as the queue has room.  The loaded pages are kept in an LRU cache.  The pages completed since the last pulse
+ * are delivered in one update change, which makes the cells pick up the new items.
+ * <p>
+ * All the methods must be called in the FX application thread.
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+    private static class Page<T> {
+        final int index;
+        final long start = System.nanoTime();
+        Future<?> future;
+        volatile List<? extends T> items;
+
+        public Page(int index) {
+            this.index = index;
+        }
+    }
+
+    private final PagedSource<? extends T> source;
+    private final int size;
+    private final int pageSize;
+    private final int prefetch;
+    private final T placeholder;
+    private final ThreadPoolExecutor executor;
+    private final LinkedHashMap<Integer,List<? extends T>> pages;
+    private final HashMap<Integer,Page<T>> pending = new HashMap<>();
+    private final ConcurrentLinkedQueue<Page<T>> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final LinkedHashSet<Integer> deferred = new LinkedHashSet<>();
+    private volatile boolean hasDeferred;
+    private final Histogram latency = Histogram.millis();
+    /** the leading page in the scroll direction */
+    private int anchor = -1;
+    private int direction = 1;
+    private long requested;
+    private long loaded;
+    private long cancelled;
+    private long rejected;
+    private long evicted;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param source the data source
+     * @param pageSize the number of items per page
+     * @param prefetch the number of pages to prefetch ahead of the scroll direction
+     * @param maxPages the maximum number of the loaded pages to keep
+     * @param threads the number of worker threads
+     * @param placeholder the item returned for the pages which have not been loaded yet
+     */
+    public PagedList(PagedSource<? extends T> source, int pageSize, int prefetch, int maxPages, int threads, T placeholder) {
+        this.source = source;
+        this.size = source.size();
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+        this.placeholder = placeholder;
+        this.executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(16, prefetch * 4)),
+            (r) -> {
+                Thread t = new Thread(r, "PagedList");
+                t.setDaemon(true);
+                return t;
+            });
+        this.pages = new LinkedHashMap<>(maxPages, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer,List<? extends T>> eldest) {
+                if (size() > maxPages) {
+                    evicted++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        int p = index / pageSize;
+        List<? extends T> items = pages.get(p);
+        if (p != anchor) {
+            move(p);
+        }
+
+        if (items == null) {
+            misses++;
+            request(p);
+            return placeholder;
+        }
+        hits++;
+        return items.get(index - p * pageSize);
+    }
+
+    public T getPlaceholder() {
+        return placeholder;
+    }
+
+    /** returns true if the page containing the specified item has been loaded */
+    public boolean isLoaded(int index) {
+        return pages.containsKey(index / pageSize);
+    }
+
+    /**
+     * Updates the scroll direction and prefetches the pages ahead.  The page adjacent to the anchor
+     * against the direction does not change it, since the viewport may span two pages.
+     */
+    private void move(int p) {
+        if (anchor >= 0) {
+            if (direction > 0) {
+                if (p == anchor - 1) {
+                    return;
+                } else if (p < anchor) {
+                    direction = -1;
+                }
+            } else {
+                if (p == anchor + 1) {
+                    return;
+                } else if (p > anchor) {
+                    direction = 1;
+                }
+            }
+        }
+        anchor = p;
+
+        int min = (direction > 0) ? p - 1 : p - prefetch;
+        int max = (direction > 0) ? p + prefetch : p + 1;
+        for (Iterator<Page<T>> it = pending.values().iterator(); it.hasNext(); ) {
+            Page<T> pg = it.next();
+            if ((pg.index < min) || (pg.index > max)) {
+                pg.future.cancel(true);
+                // do not let the cancelled request occupy the queue
+                executor.remove((Runnable)pg.future);
+                it.remove();
+                cancelled++;
+            }
+        }
+        deferred.removeIf((ix) -> (ix < min) || (ix > max));
+        submitDeferred();
+
+        request(p);
+        for (int i = 1; i <= prefetch; i++) {
+            request(p + i * direction);
+        }
+    }
+
+    private void request(int p) {
+        if ((p < 0) || (p * (long)pageSize >= size) || pending.containsKey(p) || pages.containsKey(p) || deferred.contains(p)) {
+            return;
+        }
+
+        if (!submit(p)) {
+            rejected++;
+            deferred.add(p);
+            hasDeferred = true;
+        }
+    }
+
+    private boolean submit(int p) {
+        Page<T> pg = new Page<>(p);
+        try {
+            pg.future = executor.submit(() -> run(pg));
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        pending.put(p, pg);
+        requested++;
+        return true;
+    }
+
+    /** submits the deferred requests, in the order of the requests, while the executor queue has room */
+    private void submitDeferred() {
+        for (Iterator<Integer> it = deferred.iterator(); it.hasNext(); ) {
+            int p = it.next();
+            if (!pages.containsKey(p) && !pending.containsKey(p) && !submit(p)) {
+                break;
+            }
+            it.remove();
+        }
+        hasDeferred = !deferred.isEmpty();
+    }
+
+    private void run(Page<T> pg) {
+        int start = pg.index * pageSize;
+        List<? extends T> items;
+        try {
+            items = source.load(start, Math.min(pageSize, size - start));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+
+        boolean done = (items != null) && !Thread.currentThread().isInterrupted();
+        if (done) {
+            pg.items = items;
+            completed.add(pg);
+        }
+        // the worker is about to take the next request, which makes room for a deferred one
+        if ((done || hasDeferred) && drainScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+    }
+
+    /** delivers all the pages completed since the last call, in one change */
+    private void drain() {
+        drainScheduled.set(false);
+        boolean changed = false;
+        Page<T> pg;
+        while ((pg = completed.poll()) != null) {
+            if (pending.get(pg.index) != pg) {
+                // cancelled after completion
+                continue;
+            }
+            pending.remove(pg.index);
+            pages.put(pg.index, pg.items);
+            loaded++;
+            latency.addNanos(System.nanoTime() - pg.start);
+
+            if (!changed) {
+                beginChange();
+                changed = true;
+            }
+            int start = pg.index * pageSize;
+            int end = Math.min(size, start + pageSize);
+            for (int i = start; i < end; i++) {
+                nextUpdate(i);
+            }
+        }
+
+        if (changed) {
+            endChange();
+        }
+        submitDeferred();
+    }
+
+    /** returns the number of pages being loaded, waiting for a worker, or deferred */
+    public int getPendingCount() {
+        return pending.size() + deferred.size();
+    }
+
+    public long getRequested() {
+        return requested;
+    }
+
+    public long getLoaded() {
+        return loaded;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+
+    /** page load latency, from the request to the delivery, in milliseconds */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public String getStatus() {
+        return String.format(
+            "pages requested %,d, loaded %,d, cancelled %,d, deferred %,d, evicted %,d, cached %,d, item hits %,d, misses %,d, latency avg %.1f ms",
+            requested,
+            loaded,
+            cancelled,
+            rejected,
+            evicted,
+            pages.size(),
+            hits,
+            misses,
+            latency.getAverage()
+        );
+    }
+
+    public void resetStatistics() {
+        requested = 0;
+        loaded = 0;
+        cancelled = 0;
+        rejected = 0;
+        evicted = 0;
+        hits = 0;
+        misses = 0;
+        latency.clear();
+    }
+
+    /** drops the loaded pages, so they are loaded again */
+    public void clearPages() {
+        pages.clear();
+        anchor = -1;
+        direction = 1;
+    }
+
+    /** cancels all the requests, stops the worker threads, and closes the source */
+    public void shutdown() {
+        for (Page<T> pg: pending.values()) {
+            pg.future.cancel(true);
+        }
+        pending.clear();
+        deferred.clear();
+        hasDeferred = false;
+        executor.shutdownNow();
+        source.close();
+    }
+}
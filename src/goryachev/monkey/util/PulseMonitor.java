@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Measures the intervals between consecutive pulses (frame times).
+ */
+public class PulseMonitor {
+    private final Histogram histogram = Histogram.millis();
+    private final AnimationTimer timer;
+    private long last;
+    private long pulses;
+
+    public PulseMonitor() {
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (last != 0) {
+                    histogram.addNanos(now - last);
+                }
+                last = now;
+                pulses++;
+            }
+        };
+    }
+
+    public void start() {
+        histogram.clear();
+        last = 0;
+        pulses = 0;
+        timer.start();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    /** frame time histogram, in milliseconds */
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    public long getPulseCount() {
+        return pulses;
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of non-negative long values stored as sorted, non-adjacent runs [start, end).
+ * The memory and the time of all the operations depend on the number of runs rather than the number
+ * of values, which makes it suitable for selections of tens of millions of contiguous items.
+ */
+public class RangeSet {
+    public static final RangeSet EMPTY = new RangeSet(new long[0], 0);
+    private static final int OR = 0;
+    private static final int AND_NOT = 1;
+    private static final int XOR = 2;
+    private static final int AND = 3;
+    /** run boundaries: start0, end0, start1, end1, ... */
+    private final long[] points;
+    private final int runs;
+    /** the number of values preceding each run, final so that the set can be safely shared between threads */
+    private final long[] prefix;
+    private final long size;
+
+    private RangeSet(long[] points, int runs) {
+        this.points = points;
+        this.runs = runs;
+
+        prefix = new long[runs];
+        long n = 0;
+        for (int i = 0; i < runs; i++) {
+            prefix[i] = n;
+            n += points[i * 2 + 1] - points[i * 2];
+        }
+        size = n;
+    }
+
+    /** creates a set containing the range [start, end) */
+    public static RangeSet of(long start, long end) {
+        if (start >= end) {
+            return EMPTY;
+        }
+        return new RangeSet(new long[] { start, end }, 1);
+    }
+
+    /**
+     * Creates a set from the specified runs [starts[i], ends[i]), in any order,
+     * possibly overlapping or empty.
+     */
+    public static RangeSet ofRuns(long[] starts, long[] ends, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+
+        long[] rv = new long[count * 2];
+        int n = 0;
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            long start = starts[i];
+            long end = ends[i];
+            if (start >= end) {
+                continue;
+            }
+            if ((n > 0) && (start <= rv[n - 1])) {
+                // overlapping or adjacent
+                rv[n - 1] = Math.max(rv[n - 1], end);
+            } else {
+                rv[n++] = start;
+                rv[n++] = end;
+            }
+        }
+
+        if (n == 0) {
+            return EMPTY;
+        }
+        return new RangeSet(n == rv.length ? rv : Arrays.copyOf(rv, n), n / 2);
+    }
+
+    public int getRunCount() {
+        return runs;
+    }
+
+    public long getStart(int run) {
+        return points[run * 2];
+    }
+
+    public long getEnd(int run) {
+        return points[run * 2 + 1];
+    }
+
+    public boolean isEmpty() {
+        return runs == 0;
+    }
+
+    /** returns the number of values in the set */
+    public long size() {
+        return size;
+    }
+
+    public boolean contains(long v) {
+        int ix = findRun(v);
+        return (ix >= 0) && (v < points[ix * 2 + 1]);
+    }
+
+    /** returns the index of the last run which starts at or before the value, or -1 */
+    protected int findRun(long v) {
+        int lo = 0;
+        int hi = runs - 1;
+        int rv = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (points[mid * 2] <= v) {
+                rv = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return rv;
+    }
+
+    /** returns the number of values less than the specified value */
+    public long rank(long v) {
+        int ix = findRun(v);
+        if (ix < 0) {
+            return 0;
+        }
+        return prefix[ix] + Math.min(v, points[ix * 2 + 1]) - points[ix * 2];
+    }
+
+    /** returns the value at the specified position in ascending order */
+    public long get(long index) {
+        if ((index < 0) || (index >= size())) {
+            throw new IndexOutOfBoundsException(Long.toString(index));
+        }
+
+        int lo = 0;
+        int hi = runs - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (prefix[mid] <= index) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return points[lo * 2] + (index - prefix[lo]);
+    }
+
+    public RangeSet union(RangeSet s) {
+        return combine(this, s, OR);
+    }
+
+    public RangeSet subtract(RangeSet s) {
+        return combine(this, s, AND_NOT);
+    }
+
+    public RangeSet intersect(RangeSet s) {
+        return combine(this, s, AND);
+    }
+
+    public RangeSet xor(RangeSet s) {
+        return combine(this, s, XOR);
+    }
+
+    public RangeSet add(long start, long end) {
+        return union(of(start, end));
+    }
+
+    public RangeSet remove(long start, long end) {
+        return subtract(of(start, end));
+    }
+
+    /** inverts the set within the range [start, end) */
+    public RangeSet invert(long start, long end) {
+        return xor(of(start, end));
+    }
+
+    /** merges the boundaries of the two sets in a single pass */
+    private static RangeSet combine(RangeSet x, RangeSet y, int op) {
+        long[] rv = new long[(x.runs + y.runs) * 2 + 2];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        int nx = x.runs * 2;
+        int ny = y.runs * 2;
+        boolean inX = false;
+        boolean inY = false;
+        boolean in = false;
+
+        while ((i < nx) || (j < ny)) {
+            long px = (i < nx) ? x.points[i] : Long.MAX_VALUE;
+            long py = (j < ny) ? y.points[j] : Long.MAX_VALUE;
+            long p = Math.min(px, py);
+            if (px == p) {
+                inX = !inX;
+                i++;
+            }
+            if (py == p) {
+                inY = !inY;
+                j++;
+            }
+
+            boolean on;
+            switch (op) {
+            case OR:
+                on = inX || inY;
+                break;
+            case AND_NOT:
+                on = inX && !inY;
+                break;
+            case XOR:
+                on = inX ^ inY;
+                break;
+            case AND:
+                on = inX && inY;
+                break;
+            default:
+                throw new Error("?" + op);
+            }
+
+            if (on != in) {
+                if ((n > 0) && (rv[n - 1] == p)) {
+                    // adjacent runs
+                    n--;
+                } else {
+                    rv[n++] = p;
+                }
+                in = on;
+            }
+        }
+
+        if (n == 0) {
+            return EMPTY;
+        }
+        return new RangeSet(n == rv.length ? rv : Arrays.copyOf(rv, n), n / 2);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+        for (int i = 0; i < runs; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(points[i * 2]).append("..").append(points[i * 2 + 1]);
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+}
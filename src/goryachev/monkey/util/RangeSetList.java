@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableListBase;
+
+/**
+ * A read-only ObservableList view of a {@link RangeSet}, with the items synthesized from the values.
+ * <p>
+ * Replacing the set fires a single change made of one sub-change per affected range,
+ * with the removed items given as virtual lists, so no work or memory is proportional to
+ * the number of items added or removed.
+ */
+public class RangeSetList<E> extends ObservableListBase<E> {
+    private final LongFunction<E> mapper;
+    private RangeSet set = RangeSet.EMPTY;
+
+    public RangeSetList(LongFunction<E> mapper) {
+        this.mapper = mapper;
+    }
+
+    public RangeSet getRangeSet() {
+        return set;
+    }
+
+    @Override
+    public E get(int index) {
+        return mapper.apply(set.get(index));
+    }
+
+    @Override
+    public int size() {
+        return (int)set.size();
+    }
+
+    @Override
+    public int indexOf(Object x) {
+        // avoids the linear scan for the common case of the values list
+        if (x instanceof Number n) {
+            long v = n.longValue();
+            if (set.contains(v) && x.equals(mapper.apply(v))) {
+                return (int)set.rank(v);
+            }
+        }
+        return super.indexOf(x);
+    }
+
+    @Override
+    public boolean contains(Object x) {
+        return indexOf(x) >= 0;
+    }
+
+    /** replaces the set, firing the change describing the difference */
+    public void update(RangeSet s) {
+        RangeSet old = set;
+        if (old == s) {
+            return;
+        }
+
+        set = s;
+        RangeChange ch = diff(old, s);
+        if (ch.size() > 0) {
+            fireChange(ch);
+        }
+    }
+
+    /** computes the sub-changes by sweeping the boundaries of both sets in ascending order */
+    protected RangeChange diff(RangeSet old, RangeSet now) {
+        RangeChange ch = new RangeChange();
+        int i = 0;
+        int j = 0;
+        int no = old.getRunCount() * 2;
+        int nn = now.getRunCount() * 2;
+        boolean inOld = false;
+        boolean inNew = false;
+        long prev = 0;
+        // position in the new list
+        int pos = 0;
+
+        while ((i < no) || (j < nn)) {
+            long po = (i < no) ? point(old, i) : Long.MAX_VALUE;
+            long pn = (j < nn) ? point(now, j) : Long.MAX_VALUE;
+            long p = Math.min(po, pn);
+
+            // the interval [prev, p) has uniform membership
+            if (p > prev) {
+                int len = (int)(p - prev);
+                if (inOld && !inNew) {
+                    ch.remove(pos, prev, p);
+                } else if (!inOld && inNew) {
+                    ch.add(pos, pos + len);
+                }
+                if (inNew) {
+                    pos += len;
+                }
+            }
+
+            if (po == p) {
+                inOld = !inOld;
+                i++;
+            }
+            if (pn == p) {
+                inNew = !inNew;
+                j++;
+            }
+            prev = p;
+        }
+        return ch;
+    }
+
+    private static long point(RangeSet s, int ix) {
+        return ((ix & 1) == 0) ? s.getStart(ix / 2) : s.getEnd(ix / 2);
+    }
+
+    /** a virtual list of the items corresponding to the values [start, end) */
+    protected List<E> range(long start, long end) {
+        return new AbstractList<E>() {
+            @Override
+            public E get(int index) {
+                return mapper.apply(start + index);
+            }
+
+            @Override
+            public int size() {
+                return (int)(end - start);
+            }
+        };
+    }
+
+    //
+
+    protected class RangeChange extends ListChangeListener.Change<E> {
+        private final ArrayList<int[]> spans = new ArrayList<>();
+        private final ArrayList<List<E>> removed = new ArrayList<>();
+        private int cursor = -1;
+
+        public RangeChange() {
+            super(RangeSetList.this);
+        }
+
+        protected int size() {
+            return spans.size();
+        }
+
+        protected void add(int from, int to) {
+            int last = spans.size() - 1;
+            if ((last >= 0) && (spans.get(last)[0] == from) && (spans.get(last)[1] == from)) {
+                // removal followed by an addition at the same position is a replacement
+                spans.get(last)[1] = to;
+            } else {
+                spans.add(new int[] { from, to });
+                removed.add(List.of());
+            }
+        }
+
+        protected void remove(int pos, long start, long end) {
+            spans.add(new int[] { pos, pos });
+            removed.add(range(start, end));
+        }
+
+        @Override
+        public boolean next() {
+            return ++cursor < spans.size();
+        }
+
+        @Override
+        public void reset() {
+            cursor = -1;
+        }
+
+        @Override
+        public int getFrom() {
+            return spans.get(cursor)[0];
+        }
+
+        @Override
+        public int getTo() {
+            return spans.get(cursor)[1];
+        }
+
+        @Override
+        public List<E> getRemoved() {
+            return removed.get(cursor);
+        }
+
+        @Override
+        protected int[] getPermutation() {
+            return new int[0];
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.function.Predicate;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * A window which shows tabular results of a benchmark.
+ */
+public class ReportWindow extends Stage {
+    private final BorderPane pane;
+    private final TestPaneBase.TBar toolbar;
+    private final TableView<String[]> table;
+    private final String[] columns;
+    private Predicate<String[]> highlight;
+
+    public ReportWindow(Window owner, String title, String ... columns) {
+        this.columns = columns;
+
+        initOwner(owner);
+        setTitle(title);
+
+        table = new TableView<>();
+        table.setColumnResizePolicy(TableView.UNCONSTRAINED_RESIZE_POLICY);
+        for (int i = 0; i < columns.length; i++) {
+            int ix = i;
+            TableColumn<String[],String> c = new TableColumn<>(columns[i]);
+            c.setCellValueFactory((f) -> {
+                String[] row = f.getValue();
+                return new ReadOnlyStringWrapper(ix < row.length ? row[ix] : null);
+            });
+            c.setPrefWidth(100);
+            table.getColumns().add(c);
+        }
+        table.setRowFactory((t) -> new TableRow<>() {
+            @Override
+            protected void updateItem(String[] item, boolean empty) {
+                super.updateItem(item, empty);
+                boolean on = !empty && (item != null) && (highlight != null) && highlight.test(item);
+                setStyle(on ? "-fx-background-color:#ffdddd;" : null);
+            }
+        });
+
+        Button copyButton = new Button("Copy as CSV");
+        copyButton.setOnAction((ev) -> copy());
+
+        Button saveButton = new Button("Save CSV...");
+        saveButton.setOnAction((ev) -> save());
+
+        toolbar = new TestPaneBase.TBar();
+        toolbar.addAll(copyButton, saveButton);
+
+        pane = new BorderPane();
+        pane.setTop(toolbar);
+        pane.setCenter(table);
+        setScene(new Scene(pane, 800, 500));
+        FX.cascade(this);
+    }
+
+    /** sets the node placed below the toolbar and above the results, for example, the benchmark parameters */
+    public void setControls(Node n) {
+        pane.setTop(n == null ? toolbar : new VBox(toolbar, n));
+    }
+
+    /** sets the predicate which determines the rows to be highlighted */
+    public void setHighlight(Predicate<String[]> p) {
+        highlight = p;
+        table.refresh();
+    }
+
+    public void setRows(List<String[]> rows) {
+        table.getItems().setAll(rows);
+    }
+
+    public void addRow(String ... row) {
+        table.getItems().add(row);
+    }
+
+    public void clear() {
+        table.getItems().clear();
+    }
+
+    /** returns the report as CSV */
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder();
+        appendCsv(sb, columns);
+        for (String[] row: table.getItems()) {
+            appendCsv(sb, row);
+        }
+        return sb.toString();
+    }
+
+    protected void copy() {
+        ClipboardContent c = new ClipboardContent();
+        c.putString(toCsv());
+        Clipboard.getSystemClipboard().setContent(c);
+    }
+
+    protected void save() {
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Save CSV");
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+        File f = fc.showSaveDialog(this);
+        if (f != null) {
+            try {
+                Files.writeString(f.toPath(), toCsv(), StandardCharsets.UTF_8);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** appends a CSV line */
+    public static void appendCsv(StringBuilder sb, String[] row) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            String s = row[i];
+            if (s != null) {
+                if ((s.indexOf(',') >= 0) || (s.indexOf('"') >= 0) || (s.indexOf('\n') >= 0)) {
+                    sb.append('"').append(s.replace("\"", "\"\"")).append('"');
+                } else {
+                    sb.append(s);
+                }
+            }
+        }
+        sb.append('\n');
+    }
+}
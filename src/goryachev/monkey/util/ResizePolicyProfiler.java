@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.ConstrainedColumnResizeBase;
+import javafx.scene.control.Control;
+import javafx.scene.control.Label;
+import javafx.scene.control.ResizeFeaturesBase;
+import javafx.stage.Window;
+import javafx.util.Callback;
+
+/**
+ * Wraps a column resize policy, recording the number of calls, the time spent in the policy,
+ * and the distribution of the resize deltas, without any output during the resize.
+ */
+public class ResizePolicyProfiler {
+    public static final String[] COLUMNS = {
+        "Policy",
+        "Calls",
+        "Total (ms)",
+        "Max (ms)",
+        "Avg (ms)",
+        "p99 (ms)"
+    };
+    /** the maximum number of columns dragged by the sweep */
+    public static final int MAX_SWEEP_COLUMNS = 10;
+    private final Histogram time = Histogram.millis();
+    private final Histogram delta = new Histogram(-100, -10, -1, 0, 1, 10, 100);
+    private long calls;
+    private Runnable onChange;
+
+    public ResizePolicyProfiler() {
+    }
+
+    /**
+     * Returns a profiling wrapper for the specified TableView or TreeTableView policy.
+     * The wrapper extends ConstrainedColumnResizeBase if the policy does, since the skins
+     * treat such policies as constrained.
+     */
+    public <F extends ResizeFeaturesBase<?>> Callback<F,Boolean> wrap(Callback<F,Boolean> policy) {
+        if (policy instanceof ConstrainedColumnResizeBase) {
+            return new Constrained<>(policy);
+        }
+        return new Callback<F,Boolean>() {
+            @Override
+            public Boolean call(F f) {
+                return profile(policy, f);
+            }
+
+            @Override
+            public String toString() {
+                return policy.toString();
+            }
+        };
+    }
+
+    protected <F extends ResizeFeaturesBase<?>> Boolean profile(Callback<F,Boolean> policy, F f) {
+        long t0 = System.nanoTime();
+        Boolean rv = policy.call(f);
+        time.addNanos(System.nanoTime() - t0);
+
+        Double d = f.getDelta();
+        delta.add(d == null ? 0.0 : d);
+        calls++;
+
+        if (onChange != null) {
+            onChange.run();
+        }
+        return rv;
+    }
+
+    /** sets the callback invoked after each policy call (outside of the measured time) */
+    public void setOnChange(Runnable r) {
+        onChange = r;
+    }
+
+    public void reset() {
+        time.clear();
+        delta.clear();
+        calls = 0;
+    }
+
+    public long getCallCount() {
+        return calls;
+    }
+
+    /** policy call time histogram, in milliseconds */
+    public Histogram getTime() {
+        return time;
+    }
+
+    /** resize delta histogram, in pixels */
+    public Histogram getDelta() {
+        return delta;
+    }
+
+    /** returns a short multi-line summary */
+    public String getSummary() {
+        return String.format(
+            "calls: %d\ntotal: %.3f ms\nmax: %.3f ms\ndelta distribution:\n%s",
+            calls,
+            time.getTotal(),
+            time.getMax(),
+            delta.toDistributionString()
+        );
+    }
+
+    /** returns a report row, see {@link #COLUMNS} */
+    public String[] toRow(String name) {
+        return new String[] {
+            name,
+            String.valueOf(calls),
+            String.format("%.3f", time.getTotal()),
+            String.format("%.3f", time.getMax()),
+            String.format("%.4f", time.getAverage()),
+            String.format("%.3f", time.percentile(99))
+        };
+    }
+
+    /**
+     * Performs a scripted drag of each column border for every policy, one policy per pulse,
+     * and shows the results in a report window.
+     * Each drag widens the column by 20 pixels, narrows it by 40 and widens it again by 20,
+     * one pixel at a time, laying out the control after each step.
+     * Only the first {@link #MAX_SWEEP_COLUMNS} columns are dragged, to keep the wide tables manageable.
+     *
+     * @param owner the owner window
+     * @param title the report title
+     * @param policies the policies to sweep
+     * @param select selects the policy (re-creating the control) and returns its profiler
+     * @param control returns the current control
+     * @param columnCount returns the number of visible leaf columns of the current control
+     * @param resize resizes the visible leaf column at the specified index by the specified delta
+     * @param onDone invoked after the sweep, to restore the original state
+     */
+    public static <P> void sweep(
+        Window owner,
+        String title,
+        List<P> policies,
+        Function<P,ResizePolicyProfiler> select,
+        Supplier<Control> control,
+        IntSupplier columnCount,
+        BiConsumer<Integer,Double> resize,
+        Runnable onDone
+    ) {
+        ReportWindow w = new ReportWindow(owner, title, COLUMNS);
+        w.show();
+
+        new AnimationTimer() {
+            private int index;
+            private ResizePolicyProfiler profiler;
+
+            @Override
+            public void handle(long now) {
+                if (profiler != null) {
+                    // the control has been laid out since the policy was selected
+                    profiler.reset();
+                    drag(control.get(), columnCount.getAsInt(), resize);
+                    w.addRow(profiler.toRow(String.valueOf(policies.get(index - 1))));
+                    profiler = null;
+                }
+
+                if (index < policies.size()) {
+                    profiler = select.apply(policies.get(index++));
+                } else {
+                    stop();
+                    onDone.run();
+                }
+            }
+        }.start();
+    }
+
+    private static void drag(Control c, int count, BiConsumer<Integer,Double> resize) {
+        // the last column has no border to drag in constrained policies
+        int n = Math.min(count - 1, MAX_SWEEP_COLUMNS);
+        for (int col = 0; col < n; col++) {
+            for (int i = 0; i < 80; i++) {
+                double d = ((i < 20) || (i >= 60)) ? 1.0 : -1.0;
+                resize.accept(col, d);
+                c.layout();
+            }
+        }
+    }
+
+    //
+
+    /** the wrapper for the constrained policies */
+    protected class Constrained<F extends ResizeFeaturesBase<?>>
+        extends ConstrainedColumnResizeBase
+        implements Callback<F,Boolean> {
+
+        private final Callback<F,Boolean> policy;
+
+        public Constrained(Callback<F,Boolean> policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public Boolean call(F f) {
+            return profile(policy, f);
+        }
+
+        @Override
+        public String toString() {
+            return policy.toString();
+        }
+    }
+
+    /**
+     * The profilers of a page, one per policy type, with the summary of the policy
+     * selected in the page shown in a label.
+     */
+    public static class PerPolicy<P> {
+        private final HashMap<P,ResizePolicyProfiler> profilers = new HashMap<>();
+        private final ComboBox<P> selector;
+        private final Label stats;
+        private boolean statsPending;
+
+        public PerPolicy(ComboBox<P> selector, Label stats) {
+            this.selector = selector;
+            this.stats = stats;
+        }
+
+        /** wraps the policy with the profiler of the specified policy type */
+        public <F extends ResizeFeaturesBase<?>> Callback<F,Boolean> wrap(P type, Callback<F,Boolean> policy) {
+            return get(type).wrap(policy);
+        }
+
+        public ResizePolicyProfiler get(P type) {
+            ResizePolicyProfiler p = profilers.get(type);
+            if (p == null) {
+                p = new ResizePolicyProfiler();
+                p.setOnChange(this::showStats);
+                profilers.put(type, p);
+            }
+            return p;
+        }
+
+        public void reset() {
+            for (ResizePolicyProfiler p: profilers.values()) {
+                p.reset();
+            }
+            showStats();
+        }
+
+        /** updates the statistics once per event loop iteration */
+        public void showStats() {
+            if (!statsPending) {
+                statsPending = true;
+                Platform.runLater(() -> {
+                    statsPending = false;
+                    P type = FX.getSelectedItem(selector);
+                    ResizePolicyProfiler p = (type == null) ? null : profilers.get(type);
+                    stats.setText(p == null ? null : p.getSummary());
+                });
+            }
+        }
+
+        /**
+         * Drags the column borders with every policy in the selector, then selects the original policy.
+         *
+         * @param owner the owner window
+         * @param title the report title
+         * @param control returns the current control
+         * @param columnCount returns the number of visible leaf columns of the current control
+         * @param resize resizes the visible leaf column at the specified index by the specified delta
+         */
+        public void sweep(Window owner, String title, Supplier<Control> control, IntSupplier columnCount, BiConsumer<Integer,Double> resize) {
+            P original = FX.getSelectedItem(selector);
+            ResizePolicyProfiler.sweep(
+                owner,
+                title,
+                List.copyOf(selector.getItems()),
+                (type) -> {
+                    FX.select(selector, type);
+                    return get(type);
+                },
+                control,
+                columnCount,
+                resize,
+                () -> FX.select(selector, original)
+            );
+        }
+    }
+}
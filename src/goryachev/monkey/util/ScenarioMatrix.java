@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javafx.animation.AnimationTimer;
+import javafx.scene.Parent;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Control;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.stage.Window;
+
+/**
+ * Builds each scenario (a combination of the page options) in turn, one per pulse, and performs
+ * the standard workload: the initial layout, 10 resizes, 100 scroll steps and select all,
+ * measuring the time of each step and the bytes allocated in the FX thread.
+ * <p>
+ * The results are shown in a report window, with the slowest 5% of the scenarios highlighted.
+ */
+public class ScenarioMatrix {
+    /** a single combination of the options */
+    public record Scenario(String[] labels, Runnable setup) { }
+
+    /** the page options which make the standard scenario dimensions */
+    public record Options<D,P,S>(ComboBox<D> demo, ComboBox<P> policy, ComboBox<S> selection, CheckBox nullFocusModel, CheckBox fixedHeight) { }
+
+    /** the names of the standard scenario dimensions, in the order of {@link Options} */
+    public static final String[] STANDARD_DIMENSIONS = {
+        "Demo",
+        "Resize Policy",
+        "Selection",
+        "Null Focus Model",
+        "Fixed Height"
+    };
+
+    public static final String[] MEASUREMENTS = {
+        "Layout (ms)",
+        "Resize (ms)",
+        "Scroll (ms)",
+        "Select All (ms)",
+        "Total (ms)",
+        "Allocated (MB)"
+    };
+    private static final int RESIZES = 10;
+    private static final int SCROLLS = 100;
+    private static final boolean[] TOGGLES = { false, true };
+    private final String[] dimensions;
+    private final List<Scenario> scenarios;
+    private final Supplier<Control> control;
+    private final AllocationCounter allocation = new AllocationCounter();
+    /** the total time of each measured row, in milliseconds, kept numeric since the row text is locale-dependent */
+    private final IdentityHashMap<String[],Double> totals = new IdentityHashMap<>();
+
+    /**
+     * @param dimensions the names of the options which make the scenario
+     * @param scenarios the scenarios
+     * @param control returns the control built by the scenario setup
+     */
+    public ScenarioMatrix(String[] dimensions, List<Scenario> scenarios, Supplier<Control> control) {
+        this.dimensions = dimensions;
+        this.scenarios = scenarios;
+        this.control = control;
+    }
+
+    public String[] getColumns() {
+        String[] rv = Arrays.copyOf(dimensions, dimensions.length + MEASUREMENTS.length);
+        System.arraycopy(MEASUREMENTS, 0, rv, dimensions.length, MEASUREMENTS.length);
+        return rv;
+    }
+
+    /**
+     * Runs the standard matrix: every combination of the resize policy, selection model,
+     * null focus model and fixed height options, with the current demo or all the lightweight demos.
+     * The original options are restored when done.
+     *
+     * @param owner the owner window
+     * @param title the report title
+     * @param options the page options
+     * @param allDemos whether to run all the demos the heavy predicate does not reject, or only the current one
+     * @param heavy tests whether the demo is too large to be rebuilt a few hundred times in a row
+     * @param control returns the control built by the page
+     * @param update runs the code setting the options with the page updates suppressed, then rebuilds the page once
+     */
+    public static <D,P,S> void runStandard(
+        Window owner,
+        String title,
+        Options<D,P,S> options,
+        boolean allDemos,
+        Predicate<D> heavy,
+        Supplier<Control> control,
+        Consumer<Runnable> update
+    ) {
+        D demo = FX.getSelectedItem(options.demo());
+        P policy = FX.getSelectedItem(options.policy());
+        S selection = FX.getSelectedItem(options.selection());
+        boolean nullFocus = options.nullFocusModel().isSelected();
+        boolean fixed = options.fixedHeight().isSelected();
+
+        ArrayList<D> demos = new ArrayList<>();
+        if (allDemos) {
+            for (D d: options.demo().getItems()) {
+                if (!heavy.test(d)) {
+                    demos.add(d);
+                }
+            }
+        } else {
+            demos.add(demo);
+        }
+
+        ArrayList<Scenario> scenarios = new ArrayList<>();
+        for (D d: demos) {
+            for (P p: options.policy().getItems()) {
+                for (S sel: options.selection().getItems()) {
+                    for (boolean nf: TOGGLES) {
+                        for (boolean fh: TOGGLES) {
+                            String[] labels = {
+                                String.valueOf(d),
+                                String.valueOf(p),
+                                String.valueOf(sel),
+                                String.valueOf(nf),
+                                String.valueOf(fh)
+                            };
+                            scenarios.add(new Scenario(labels, () -> apply(options, update, d, p, sel, nf, fh)));
+                        }
+                    }
+                }
+            }
+        }
+
+        new ScenarioMatrix(STANDARD_DIMENSIONS, scenarios, control).run(
+            owner,
+            title,
+            () -> apply(options, update, demo, policy, selection, nullFocus, fixed)
+        );
+    }
+
+    private static <D,P,S> void apply(Options<D,P,S> options, Consumer<Runnable> update, D d, P p, S sel, boolean nullFocus, boolean fixed) {
+        update.accept(() -> {
+            FX.select(options.demo(), d);
+            FX.select(options.policy(), p);
+            FX.select(options.selection(), sel);
+            options.nullFocusModel().setSelected(nullFocus);
+            options.fixedHeight().setSelected(fixed);
+        });
+    }
+
+    /** runs all the scenarios, then invokes the callback to restore the original state */
+    public void run(Window owner, String title, Runnable onDone) {
+        ReportWindow w = new ReportWindow(owner, title + " (" + scenarios.size() + " scenarios)", getColumns());
+        w.show();
+
+        totals.clear();
+
+        new AnimationTimer() {
+            private int index;
+
+            @Override
+            public void handle(long now) {
+                if (index < scenarios.size()) {
+                    String[] row = measure(scenarios.get(index++));
+                    w.addRow(row);
+                    return;
+                }
+
+                stop();
+                double threshold = worst(totals.values(), 0.05);
+                w.setHighlight((r) -> totals.getOrDefault(r, 0.0) >= threshold);
+                onDone.run();
+            }
+        }.start();
+    }
+
+    protected String[] measure(Scenario s) {
+        String[] rv = Arrays.copyOf(s.labels(), dimensions.length + MEASUREMENTS.length);
+        long a0 = allocation.getAllocatedBytes();
+        long t0 = System.nanoTime();
+        try {
+            s.setup().run();
+            Control c = control.get();
+            Parent root = c.getScene().getRoot();
+
+            // initial layout
+            root.applyCss();
+            root.layout();
+            long t1 = System.nanoTime();
+
+            // resizes
+            double w = c.getWidth();
+            double h = c.getHeight();
+            for (int i = 1; i <= RESIZES; i++) {
+                double f = 1.0 - (i % 2) * 0.25 - i * 0.02;
+                c.resize(w * f, h * f);
+                c.layout();
+            }
+            c.resize(w, h);
+            c.layout();
+            long t2 = System.nanoTime();
+
+            // scrolling
+            VirtualFlow<?> flow = FX.findVirtualFlow(c);
+            if (flow != null) {
+                for (int i = 0; i < SCROLLS; i++) {
+                    flow.scrollPixels(20);
+                    c.layout();
+                }
+            }
+            long t3 = System.nanoTime();
+
+            // select all
+            selectAll(c);
+            c.layout();
+            long t4 = System.nanoTime();
+
+            // restore the normal layout on the next pulse
+            c.requestLayout();
+
+            rv[dimensions.length] = ms(t1 - t0);
+            rv[dimensions.length + 1] = ms(t2 - t1);
+            rv[dimensions.length + 2] = ms(t3 - t2);
+            rv[dimensions.length + 3] = ms(t4 - t3);
+            rv[dimensions.length + 4] = ms(t4 - t0);
+            totals.put(rv, (t4 - t0) / 1_000_000.0);
+        } catch (Throwable e) {
+            rv[dimensions.length] = "failed: " + e;
+        }
+
+        long a1 = allocation.getAllocatedBytes();
+        rv[dimensions.length + 5] = allocation.isSupported() ? String.format("%.1f", (a1 - a0) / (1024.0 * 1024.0)) : "";
+        return rv;
+    }
+
+    protected static void selectAll(Control c) {
+        if (c instanceof TableView<?> t) {
+            if (t.getSelectionModel() != null) {
+                t.getSelectionModel().selectAll();
+            }
+        } else if (c instanceof TreeTableView<?> t) {
+            if (t.getSelectionModel() != null) {
+                t.getSelectionModel().selectAll();
+            }
+        }
+    }
+
+    /** returns the smallest value among the specified fraction of the largest values */
+    protected static double worst(Collection<Double> values, double fraction) {
+        double[] vs = new double[values.size()];
+        int i = 0;
+        for (double v: values) {
+            vs[i++] = v;
+        }
+        if (vs.length == 0) {
+            return Double.MAX_VALUE;
+        }
+        Arrays.sort(vs);
+        int ix = (int)Math.floor(vs.length * (1.0 - fraction));
+        return vs[Math.min(ix, vs.length - 1)];
+    }
+
+    private static String ms(long ns) {
+        return String.format("%.3f", ns / 1_000_000.0);
+    }
+}
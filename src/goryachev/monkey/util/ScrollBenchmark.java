@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Control;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TreeTableCell;
+import javafx.scene.control.TreeTableColumn;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.stage.Window;
+import javafx.util.Callback;
+
+/**
+ * Scrolls a virtualized control (ListView, TableView, TreeView, TreeTableView) programmatically
+ * via its VirtualFlow, one step per pulse, and records the frame times.
+ * When instrumented, also counts the cells created and the cell index updates
+ * (each of which results in an updateItem() call).
+ */
+public class ScrollBenchmark {
+    public enum Mode {
+        LINE("line by line"),
+        PAGE("page by page"),
+        RANDOM("random jumps");
+
+        private final String text;
+        Mode(String text) { this.text = text; }
+        public String toString() { return text; }
+    }
+
+    public record Result(Mode mode, int steps, Histogram frames, long cellsCreated, long cellUpdates, long elapsedNanos) { }
+
+    public static final String[] COLUMNS = {
+        "Mode",
+        "Cell Height",
+        "Steps",
+        "Frame Avg (ms)",
+        "Frame 95% (ms)",
+        "Frame Max (ms)",
+        "Cells Created",
+        "Cell Updates",
+        "Updates/Step",
+        "Time (ms)"
+    };
+    /** the number of pulses to wait for the control skin to be created */
+    private static final int MAX_WAIT = 10;
+    /** the maximum number of steps per mode */
+    public static final int MAX_STEPS = 300;
+    private final Control control;
+    private Histogram frames = Histogram.millis();
+    private AnimationTimer timer;
+    private long cellsCreated;
+    private long cellUpdates;
+
+    public ScrollBenchmark(Control control) {
+        this.control = control;
+    }
+
+    /**
+     * Starts scrolling the control by the specified number of pixels per pulse, for the specified
+     * number of pulses.  The callback is invoked with the frame time histogram when done.
+     */
+    public void run(int pulses, double pixels, Consumer<Histogram> onDone) {
+        stop();
+        frames.clear();
+
+        timer = new AnimationTimer() {
+            private long last;
+            private int count;
+            private int waits;
+
+            @Override
+            public void handle(long now) {
+                VirtualFlow<?> f = FX.findVirtualFlow(control);
+                if (f == null) {
+                    // the skin has not been created yet
+                    if (waits++ < MAX_WAIT) {
+                        return;
+                    }
+                } else if (last != 0) {
+                    frames.addNanos(now - last);
+                }
+
+                if ((f == null) || (count++ >= pulses)) {
+                    stop();
+                    onDone.accept(frames);
+                    return;
+                }
+                last = now;
+                f.scrollPixels(pixels);
+            }
+        };
+        timer.start();
+    }
+
+    /**
+     * Scrolls the control from the top, one step per pulse, until the bottom is reached
+     * or the maximum number of steps has been performed (random jumps always perform the maximum).
+     * The callback is invoked with the result when done.
+     */
+    public void run(Mode mode, int maxSteps, Consumer<Result> onDone) {
+        stop();
+        Histogram h = Histogram.millis();
+        frames = h;
+        Random random = new Random(1);
+
+        timer = new AnimationTimer() {
+            private long start;
+            private long last;
+            private int steps;
+            private int waits;
+            private int index;
+
+            @Override
+            public void handle(long now) {
+                VirtualFlow<?> f = FX.findVirtualFlow(control);
+                if (f == null) {
+                    // the skin has not been created yet
+                    if (waits++ < MAX_WAIT) {
+                        return;
+                    }
+                    finish(now);
+                    return;
+                }
+
+                if (start == 0) {
+                    f.scrollToTop(0);
+                    cellsCreated = 0;
+                    cellUpdates = 0;
+                    start = now;
+                    last = now;
+                    return;
+                }
+
+                h.addNanos(now - last);
+                last = now;
+
+                int count = f.getCellCount();
+                boolean atEnd = (mode != Mode.RANDOM) && (index >= count - 1);
+                if ((steps >= maxSteps) || (count == 0) || atEnd) {
+                    finish(now);
+                    return;
+                }
+
+                switch (mode) {
+                case LINE:
+                    index++;
+                    break;
+                case PAGE:
+                    IndexedCell<?> c = f.getLastVisibleCell();
+                    index = (c == null) ? index + 1 : Math.max(index + 1, c.getIndex());
+                    break;
+                case RANDOM:
+                    index = random.nextInt(count);
+                    break;
+                default:
+                    throw new Error("?" + mode);
+                }
+                f.scrollToTop(Math.min(index, count - 1));
+                steps++;
+            }
+
+            private void finish(long now) {
+                stop();
+                onDone.accept(new Result(mode, steps, h, cellsCreated, cellUpdates, start == 0 ? 0 : now - start));
+            }
+        };
+        timer.start();
+    }
+
+    public void stop() {
+        if (timer != null) {
+            timer.stop();
+            timer = null;
+        }
+    }
+
+    /** frame time histogram, in milliseconds */
+    public Histogram getFrames() {
+        return frames;
+    }
+
+    /**
+     * Wraps the cell factories of the visible leaf columns of a TableView or a TreeTableView
+     * in order to count the cells created and the cell index updates.
+     * Must be called before the control's skin creates the cells.
+     */
+    public void instrument() {
+        if (control instanceof TableView<?> t) {
+            for (TableColumn<?,?> c: t.getVisibleLeafColumns()) {
+                wrap(c);
+            }
+        } else if (control instanceof TreeTableView<?> t) {
+            for (TreeTableColumn<?,?> c: t.getVisibleLeafColumns()) {
+                wrap(c);
+            }
+        }
+    }
+
+    private <S,T> void wrap(TableColumn<S,T> c) {
+        Callback<TableColumn<S,T>,TableCell<S,T>> f = c.getCellFactory();
+        c.setCellFactory((col) -> track(f.call(col)));
+    }
+
+    private <S,T> void wrap(TreeTableColumn<S,T> c) {
+        Callback<TreeTableColumn<S,T>,TreeTableCell<S,T>> f = c.getCellFactory();
+        c.setCellFactory((col) -> track(f.call(col)));
+    }
+
+    private <C extends IndexedCell<?>> C track(C cell) {
+        cellsCreated++;
+        cell.indexProperty().addListener((s,p,c) -> cellUpdates++);
+        return cell;
+    }
+
+    /**
+     * Runs every mode with the variable and the fixed cell height, and shows the results side by side
+     * in a report window.
+     *
+     * @param owner the owner window
+     * @param title the report title
+     * @param rebuild re-creates the control with (true) or without (false) the fixed cell size
+     * @param onDone invoked when all the runs are complete, to restore the original state
+     */
+    public static void runSuite(Window owner, String title, Function<Boolean,Control> rebuild, Runnable onDone) {
+        ReportWindow w = new ReportWindow(owner, title, COLUMNS);
+        w.show();
+
+        new Runnable() {
+            private int index;
+
+            @Override
+            public void run() {
+                Mode[] modes = Mode.values();
+                if (index >= modes.length * 2) {
+                    onDone.run();
+                    return;
+                }
+
+                Mode mode = modes[index / 2];
+                boolean fixed = (index % 2) == 1;
+                index++;
+
+                Control c = rebuild.apply(fixed);
+                ScrollBenchmark b = new ScrollBenchmark(c);
+                b.instrument();
+                b.run(mode, MAX_STEPS, (r) -> {
+                    w.addRow(toRow(r, fixed ? "fixed" : "variable"));
+                    run();
+                });
+            }
+        }.run();
+    }
+
+    /**
+     * Runs the suite by toggling the fixed height option of a page, which rebuilds the control,
+     * and restores the option when done.
+     *
+     * @param owner the owner window
+     * @param title the report title
+     * @param fixedHeight the fixed height option of the page
+     * @param rebuild rebuilds the control when the option does not change
+     * @param control returns the current control
+     */
+    public static void runSuite(Window owner, String title, CheckBox fixedHeight, Runnable rebuild, Supplier<Control> control) {
+        boolean wasFixed = fixedHeight.isSelected();
+        runSuite(
+            owner,
+            title,
+            (fixed) -> {
+                setSelected(fixedHeight, fixed, rebuild);
+                return control.get();
+            },
+            () -> setSelected(fixedHeight, wasFixed, rebuild)
+        );
+    }
+
+    private static void setSelected(CheckBox c, boolean on, Runnable rebuild) {
+        if (c.isSelected() == on) {
+            rebuild.run();
+        } else {
+            c.setSelected(on);
+        }
+    }
+
+    private static String[] toRow(Result r, String height) {
+        Histogram h = r.frames();
+        return new String[] {
+            r.mode().toString(),
+            height,
+            String.valueOf(r.steps()),
+            String.format("%.2f", h.getAverage()),
+            String.format("%.2f", h.percentile(95)),
+            String.format("%.2f", h.getMax()),
+            String.valueOf(r.cellsCreated()),
+            String.valueOf(r.cellUpdates()),
+            r.steps() == 0 ? "" : String.format("%.1f", r.cellUpdates() / (double)r.steps()),
+            String.format("%.1f", r.elapsedNanos() / 1_000_000.0)
+        };
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javafx.collections.ObservableList;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.Window;
+
+/**
+ * Compares the default TableView selection model with {@link BitSetSelectionModel}
+ * on range select, invert, select all and clear, in the row and cell selection modes,
+ * measuring the time and the bytes allocated in the FX thread.
+ * The tables are not shown, so the measurements exclude the skins.
+ */
+public class SelectionBenchmark {
+    public static final String[] COLUMNS = {
+        "Model",
+        "Mode",
+        "Rows",
+        "Operation",
+        "Selected",
+        "Time (ms)",
+        "Allocated (MB)"
+    };
+    private static final int COLUMN_COUNT = 4;
+    private final AllocationCounter allocation = new AllocationCounter();
+
+    public SelectionBenchmark() {
+    }
+
+    /** runs the benchmark with the specified number of rows */
+    public List<String[]> run(int rows, boolean includeDefault) {
+        ArrayList<String[]> rv = new ArrayList<>();
+        for (boolean cells: new boolean[] { false, true }) {
+            if (includeDefault) {
+                run(rv, rows, cells, false);
+            }
+            run(rv, rows, cells, true);
+        }
+        return rv;
+    }
+
+    protected void run(List<String[]> rv, int rows, boolean cells, boolean bitset) {
+        TableView<Object> t = new TableView<>(new VirtualList<>(rows, Integer::valueOf));
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            t.getColumns().add(new TableColumn<Object,Object>("C" + i));
+        }
+        if (bitset) {
+            t.setSelectionModel(new BitSetSelectionModel<>(t));
+        }
+        TableView.TableViewSelectionModel<Object> sm = t.getSelectionModel();
+        sm.setSelectionMode(SelectionMode.MULTIPLE);
+        sm.setCellSelectionEnabled(cells);
+
+        String model = bitset ? "bitset" : "default";
+        String mode = cells ? "cell" : "row";
+
+        measure(rv, model, mode, rows, "range select", sm, () -> sm.selectRange(rows / 4, rows * 3 / 4));
+        measure(rv, model, mode, rows, "invert", sm, () -> invert(sm));
+        measure(rv, model, mode, rows, "select all", sm, () -> sm.selectAll());
+        measure(rv, model, mode, rows, "clear", sm, () -> sm.clearSelection());
+    }
+
+    protected void measure(List<String[]> rv, String model, String mode, int rows, String op, TableView.TableViewSelectionModel<Object> sm, Runnable r) {
+        long a0 = allocation.getAllocatedBytes();
+        long t0 = System.nanoTime();
+        String time;
+        try {
+            r.run();
+            time = String.format("%.1f", (System.nanoTime() - t0) / 1_000_000.0);
+        } catch (Throwable e) {
+            time = "failed: " + e;
+        }
+        long a1 = allocation.getAllocatedBytes();
+
+        rv.add(new String[] {
+            model,
+            mode,
+            String.valueOf(rows),
+            op,
+            String.valueOf(sm.getSelectedCells().size()),
+            time,
+            allocation.isSupported() ? String.format("%.1f", (a1 - a0) / (1024.0 * 1024.0)) : ""
+        });
+    }
+
+    /** the default model has no invert operation: clears the selection and selects the complementary ranges */
+    protected static void invert(TableView.TableViewSelectionModel<Object> sm) {
+        if (sm instanceof BitSetSelectionModel<Object> m) {
+            m.invert();
+            return;
+        }
+
+        ObservableList<Integer> sel = sm.getSelectedIndices();
+        int[] selected = new int[sel.size()];
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = sel.get(i);
+        }
+        Arrays.sort(selected);
+        int count = sm.getTableView().getItems().size();
+
+        sm.clearSelection();
+        int start = 0;
+        for (int ix: selected) {
+            if (ix > start) {
+                sm.selectRange(start, ix);
+            }
+            start = ix + 1;
+        }
+        if (start < count) {
+            sm.selectRange(start, count);
+        }
+    }
+
+    /** opens a window with the benchmark parameters and results */
+    public static void openWindow(Window owner) {
+        ReportWindow w = new ReportWindow(owner, "Selection Model Benchmark", COLUMNS);
+
+        ComboBox<Integer> rows = new ComboBox<>();
+        rows.getItems().addAll(1_000_000, 10_000_000);
+        rows.getSelectionModel().selectFirst();
+
+        CheckBox includeDefault = new CheckBox("include the default model");
+        includeDefault.setSelected(true);
+
+        Button runButton = new Button("Run");
+        runButton.setOnAction((ev) -> {
+            w.setRows(new SelectionBenchmark().run(FX.getSelectedItem(rows), includeDefault.isSelected()));
+        });
+
+        TestPaneBase.TBar tb = new TestPaneBase.TBar();
+        tb.addAll(
+            new Label("Rows:"),
+            rows,
+            includeDefault,
+            runButton
+        );
+        w.setControls(tb);
+        w.show();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the session log.
+ * 
+ * Each event is written as a sequence of primitives:
+ * type (byte), time delta since the previous event (var-length long),
+ * coordinates (two floats, input events only), code (zigzag var-length int),
+ * and an optional text (UTF).
+ */
+public class SessionLog {
+    private static final int MAGIC = 0x4d4b5932; // MKY2
+    private static final int END = 0xff;
+    private static final int HAS_TEXT = 0x80;
+
+    public static void write(File f, List<MonkeyEvent> events) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+            out.writeInt(MAGIC);
+            long time = 0;
+            for (MonkeyEvent ev: events) {
+                MonkeyEvent.Type t = ev.type();
+                String text = ev.text();
+                out.writeByte(t.ordinal() | (text == null ? 0 : HAS_TEXT));
+                writeVarLong(out, ev.time() - time);
+                time = ev.time();
+                if (t.isInput()) {
+                    out.writeFloat((float)ev.x());
+                    out.writeFloat((float)ev.y());
+                }
+                writeVarLong(out, zigzag(ev.code()));
+                if (text != null) {
+                    out.writeUTF(text);
+                }
+            }
+            out.writeByte(END);
+        }
+    }
+
+    public static List<MonkeyEvent> read(File f) throws IOException {
+        ArrayList<MonkeyEvent> rv = new ArrayList<>();
+        MonkeyEvent.Type[] types = MonkeyEvent.Type.values();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a session log: " + f);
+            }
+            long time = 0;
+            for (;;) {
+                int b = in.readUnsignedByte();
+                if (b == END) {
+                    break;
+                }
+                int ix = b & ~HAS_TEXT;
+                if (ix >= types.length) {
+                    throw new IOException("corrupted session log: " + f);
+                }
+                MonkeyEvent.Type t = types[ix];
+                time += readVarLong(in);
+                double x = 0.0;
+                double y = 0.0;
+                if (t.isInput()) {
+                    x = in.readFloat();
+                    y = in.readFloat();
+                }
+                int code = unzigzag(readVarLong(in));
+                String text = ((b & HAS_TEXT) == 0) ? null : in.readUTF();
+                rv.add(new MonkeyEvent(time, t, x, y, code, text));
+            }
+        }
+        return rv;
+    }
+
+    private static long zigzag(int v) {
+        return ((long)v << 1) ^ (v >> 31);
+    }
+
+    private static int unzigzag(long v) {
+        return (int)((v >>> 1) ^ -(v & 1));
+    }
+
+    private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7fL) != 0) {
+            out.writeByte((int)((v & 0x7f) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int)v);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long)(b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new IOException("malformed var-length value");
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.event.EventHandler;
+import javafx.event.EventType;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.input.InputEvent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+
+/**
+ * Records the input events received by the content area of the current page,
+ * as well as the page and option selections.
+ * The option selections are tracked for ComboBoxes and CheckBoxes which have an id.
+ * 
+ * All the methods must be called in the FX application thread.
+ */
+public class SessionRecorder {
+    private final SessionHost host;
+    private final ArrayList<MonkeyEvent> events = new ArrayList<>();
+    private final ArrayList<Runnable> disconnectors = new ArrayList<>();
+    private final EventHandler<InputEvent> inputFilter = this::handleInput;
+    private final InvalidationListener pageListener = (x) -> handlePageChange();
+    private Node area;
+    private long start;
+    private boolean recording;
+
+    public SessionRecorder(SessionHost host) {
+        this.host = host;
+    }
+
+    public void start() {
+        if (recording) {
+            return;
+        }
+        recording = true;
+        events.clear();
+        start = System.nanoTime();
+        host.pageProperty().addListener(pageListener);
+        handlePageChange();
+    }
+
+    public void stop() {
+        if (!recording) {
+            return;
+        }
+        recording = false;
+        host.pageProperty().removeListener(pageListener);
+        disconnect();
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public List<MonkeyEvent> getEvents() {
+        return events;
+    }
+
+    protected void add(MonkeyEvent.Type type, double x, double y, int code, String text) {
+        events.add(new MonkeyEvent(System.nanoTime() - start, type, x, y, code, text));
+    }
+
+    protected void handlePageChange() {
+        disconnect();
+
+        String title = host.getPageTitle();
+        if (title == null) {
+            return;
+        }
+        add(MonkeyEvent.Type.PAGE, 0, 0, 0, title);
+
+        Node page = host.getPage();
+        if (page != null) {
+            // record the initial state of the options, then track the changes
+            connectOptions(page);
+        }
+
+        area = host.getContentArea();
+        if (area != null) {
+            area.addEventFilter(InputEvent.ANY, inputFilter);
+        }
+    }
+
+    protected void disconnect() {
+        if (area != null) {
+            area.removeEventFilter(InputEvent.ANY, inputFilter);
+            area = null;
+        }
+        for (Runnable r: disconnectors) {
+            r.run();
+        }
+        disconnectors.clear();
+    }
+
+    protected void connectOptions(Node n) {
+        String id = n.getId();
+        if (id != null) {
+            if (n instanceof ComboBox<?> c) {
+                add(MonkeyEvent.Type.OPTION, 0, 0, c.getSelectionModel().getSelectedIndex(), id);
+                ChangeListener<Number> li = (s, p, v) -> add(MonkeyEvent.Type.OPTION, 0, 0, v.intValue(), id);
+                c.getSelectionModel().selectedIndexProperty().addListener(li);
+                disconnectors.add(() -> c.getSelectionModel().selectedIndexProperty().removeListener(li));
+            } else if (n instanceof CheckBox c) {
+                add(MonkeyEvent.Type.OPTION, 0, 0, c.isSelected() ? 1 : 0, id);
+                ChangeListener<Boolean> li = (s, p, v) -> add(MonkeyEvent.Type.OPTION, 0, 0, v ? 1 : 0, id);
+                c.selectedProperty().addListener(li);
+                disconnectors.add(() -> c.selectedProperty().removeListener(li));
+            }
+        }
+
+        if (n instanceof Parent p) {
+            for (Node ch: p.getChildrenUnmodifiable()) {
+                connectOptions(ch);
+            }
+        }
+    }
+
+    protected void handleInput(InputEvent ev) {
+        EventType<? extends InputEvent> t = ev.getEventType();
+        if (ev instanceof MouseEvent m) {
+            Point2D p = area.sceneToLocal(m.getSceneX(), m.getSceneY());
+            int button = MonkeyEvent.encode(m.getButton());
+            if (t == MouseEvent.MOUSE_MOVED) {
+                add(MonkeyEvent.Type.MOUSE_MOVE, p.getX(), p.getY(), 0, null);
+            } else if (t == MouseEvent.MOUSE_PRESSED) {
+                add(MonkeyEvent.Type.MOUSE_PRESS, p.getX(), p.getY(), button, null);
+            } else if (t == MouseEvent.MOUSE_DRAGGED) {
+                add(MonkeyEvent.Type.MOUSE_DRAG, p.getX(), p.getY(), button, null);
+            } else if (t == MouseEvent.MOUSE_RELEASED) {
+                add(MonkeyEvent.Type.MOUSE_RELEASE, p.getX(), p.getY(), button, null);
+            }
+        } else if (ev instanceof ScrollEvent s) {
+            if (t == ScrollEvent.SCROLL) {
+                Point2D p = area.sceneToLocal(s.getSceneX(), s.getSceneY());
+                add(MonkeyEvent.Type.SCROLL, p.getX(), p.getY(), (int)Math.round(s.getDeltaY()), null);
+            }
+        } else if (ev instanceof KeyEvent k) {
+            if (t == KeyEvent.KEY_PRESSED) {
+                add(MonkeyEvent.Type.KEY_PRESS, 0, 0, MonkeyEvent.encode(k.getCode()), null);
+            } else if (t == KeyEvent.KEY_RELEASED) {
+                add(MonkeyEvent.Type.KEY_RELEASE, 0, 0, MonkeyEvent.encode(k.getCode()), null);
+            } else if (t == KeyEvent.KEY_TYPED) {
+                add(MonkeyEvent.Type.KEY_TYPE, 0, 0, MonkeyEvent.encode(KeyCode.UNDEFINED), k.getCharacter());
+            }
+        }
+    }
+}
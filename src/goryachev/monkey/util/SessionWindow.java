@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * Records and replays user sessions: input events received by the current page,
+ * as well as page and option selections.
+ * The max speed replay reports the total wall time and the pulse histogram,
+ * which allows for comparing the same scenario across JavaFX versions and machines.
+ */
+public class SessionWindow extends Stage {
+    private final SessionHost host;
+    private final File dir;
+    private final SessionRecorder recorder;
+    private final Label status;
+    private final TextArea report;
+    private List<MonkeyEvent> events = new ArrayList<>();
+    private EventPlayer player;
+
+    public SessionWindow(Window owner, SessionHost host, File dir) {
+        this.host = host;
+        this.dir = dir;
+        this.recorder = new SessionRecorder(host);
+
+        initOwner(owner);
+        setTitle("Record / Replay");
+
+        Button recordButton = new Button("Record");
+        recordButton.setOnAction((ev) -> record());
+
+        Button stopButton = new Button("Stop");
+        stopButton.setOnAction((ev) -> stopAll());
+
+        Button saveButton = new Button("Save...");
+        saveButton.setOnAction((ev) -> save());
+
+        Button loadButton = new Button("Load...");
+        loadButton.setOnAction((ev) -> load());
+
+        Button playButton = new Button("Replay (real time)");
+        playButton.setOnAction((ev) -> play(EventPlayer.Mode.REAL_TIME));
+
+        Button fastButton = new Button("Replay (max speed)");
+        fastButton.setOnAction((ev) -> play(EventPlayer.Mode.MAX_SPEED));
+
+        status = new Label();
+
+        report = new TextArea();
+        report.setEditable(false);
+        report.setPrefColumnCount(30);
+
+        OptionPane p = new OptionPane();
+        p.option(recordButton);
+        p.option(stopButton);
+        p.option(saveButton);
+        p.option(loadButton);
+        p.option(playButton);
+        p.option(fastButton);
+        p.label("Status:");
+        p.option(status);
+
+        BorderPane bp = new BorderPane();
+        bp.setLeft(p);
+        bp.setCenter(report);
+        setScene(new Scene(bp, 700, 400));
+        FX.cascade(this);
+
+        setOnHidden((ev) -> stopAll());
+    }
+
+    protected void record() {
+        stopAll();
+        report.setText(null);
+        recorder.start();
+        status.setText("Recording");
+    }
+
+    protected void stopAll() {
+        if (recorder.isRecording()) {
+            recorder.stop();
+            events = new ArrayList<>(recorder.getEvents());
+            status.setText("Recorded " + events.size() + " events");
+        }
+        if (player != null) {
+            if (player.isRunning()) {
+                player.stop();
+                report.setText(player.getReport());
+                status.setText("Stopped");
+            }
+            player = null;
+        }
+    }
+
+    protected void play(EventPlayer.Mode mode) {
+        stopAll();
+        if (events.isEmpty()) {
+            status.setText("Nothing to replay");
+            return;
+        }
+
+        EventPlayer p = new EventPlayer(host, events, mode);
+        p.setOnFinished(() -> {
+            report.setText(p.getReport());
+            status.setText("Done");
+        });
+        player = p;
+        status.setText("Replaying " + events.size() + " events");
+        report.setText(null);
+        p.start();
+    }
+
+    protected void save() {
+        stopAll();
+
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Save Session");
+        fc.setInitialDirectory(dir.isDirectory() ? dir : null);
+        fc.setInitialFileName("session.mky");
+        File f = fc.showSaveDialog(this);
+        if (f != null) {
+            try {
+                SessionLog.write(f, events);
+                status.setText("Saved " + events.size() + " events");
+            } catch (Exception e) {
+                e.printStackTrace();
+                status.setText("Error: " + e);
+            }
+        }
+    }
+
+    protected void load() {
+        stopAll();
+
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Load Session");
+        fc.setInitialDirectory(dir.isDirectory() ? dir : null);
+        File f = fc.showOpenDialog(this);
+        if (f != null) {
+            try {
+                events = SessionLog.read(f);
+                status.setText("Loaded " + events.size() + " events");
+            } catch (Exception e) {
+                e.printStackTrace();
+                status.setText("Error: " + e);
+            }
+        }
+    }
+}
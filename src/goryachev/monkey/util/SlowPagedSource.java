@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A local stand-in for a remote data source, which generates the items after a fixed delay per page.
+ */
+public class SlowPagedSource implements PagedSource<String> {
+    private final int size;
+    private final long latencyMillis;
+
+    public SlowPagedSource(int size, long latencyMillis) {
+        this.size = size;
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<String> load(int start, int count) {
+        if (!AsyncValueLoader.sleep(latencyMillis)) {
+            return null;
+        }
+
+        ArrayList<String> rv = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rv.add("item." + (start + i));
+        }
+        return rv;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+/**
+ * Sorts and filters the TableView items in the background.
+ * <p>
+ * The pipeline replaces the table sort policy.  On each request (a sort order change or a new filter),
+ * the original items, snapshot once into an array, are filtered with a parallel stream and sorted with
+ * Arrays.parallelSort() on the common fork-join pool, then the resulting list is swapped in with setItems().
+ * A newer request cancels the one in progress: the comparator and the filter check the request generation
+ * and abort the computation as soon as it is superseded.
+ */
+public class SortFilterPipeline<T> {
+    private final TableView<T> table;
+    private final Function<TableColumn<T,?>,Comparator<T>> comparators;
+    private final AtomicLong generation = new AtomicLong();
+    private ObservableList<T> original;
+    private Object[] snapshot;
+    private Predicate<T> filter;
+    private boolean swapping;
+    private long cancelled;
+    private Consumer<String> reporter;
+
+    /**
+     * @param table the table
+     * @param comparators creates the comparator for the specified column; must be safe to use in any thread
+     */
+    public SortFilterPipeline(TableView<T> table, Function<TableColumn<T,?>,Comparator<T>> comparators) {
+        this.table = table;
+        this.comparators = comparators;
+        table.setSortPolicy((t) -> {
+            if (!swapping) {
+                request();
+            }
+            return true;
+        });
+    }
+
+    /** sets the consumer of the status messages */
+    public void setReporter(Consumer<String> r) {
+        reporter = r;
+    }
+
+    /** sets the filter which must be safe to use in any thread, or null */
+    public void setFilter(Predicate<T> p) {
+        filter = p;
+        request();
+    }
+
+    /** cancels the request in progress, if any */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    protected void request() {
+        if (original == null) {
+            original = table.getItems();
+        }
+        if (snapshot == null) {
+            snapshot = original.toArray();
+        }
+
+        long gen = generation.incrementAndGet();
+        long start = System.nanoTime();
+        Comparator<T> cmp = createComparator();
+        Predicate<T> f = filter;
+
+        if ((cmp == null) && (f == null)) {
+            swap(original);
+            report(String.format("%,d rows, original order", original.size()));
+            return;
+        }
+
+        Object[] src = snapshot;
+        CompletableFuture.supplyAsync(() -> compute(gen, src, cmp, f)).whenComplete((rv, err) -> {
+            Platform.runLater(() -> done(gen, start, rv, err));
+        });
+    }
+
+    protected Comparator<T> createComparator() {
+        Comparator<T> rv = null;
+        for (TableColumn<T,?> c: table.getSortOrder()) {
+            Comparator<T> k = comparators.apply(c);
+            if (c.getSortType() == TableColumn.SortType.DESCENDING) {
+                k = k.reversed();
+            }
+            rv = (rv == null) ? k : rv.thenComparing(k);
+        }
+        return rv;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected ObservableList<T> compute(long gen, Object[] src, Comparator<T> cmp, Predicate<T> f) {
+        Object[] a;
+        if (f == null) {
+            // parallelSort works in place
+            a = src.clone();
+        } else {
+            a = Arrays.stream(src).parallel().filter((x) -> {
+                check(gen);
+                return f.test((T)x);
+            }).toArray();
+        }
+
+        if (cmp != null) {
+            Arrays.parallelSort(a, (x, y) -> {
+                check(gen);
+                return cmp.compare((T)x, (T)y);
+            });
+        }
+
+        check(gen);
+        return FXCollections.observableArrayList((List<T>)Arrays.asList(a));
+    }
+
+    private void check(long gen) {
+        if (generation.get() != gen) {
+            throw new CancellationException();
+        }
+    }
+
+    protected void done(long gen, long start, ObservableList<T> rv, Throwable err) {
+        if (gen != generation.get()) {
+            cancelled++;
+            return;
+        }
+
+        if (err != null) {
+            Throwable e = (err instanceof CompletionException) ? err.getCause() : err;
+            if (e instanceof CancellationException) {
+                cancelled++;
+            } else {
+                report("failed: " + e);
+            }
+            return;
+        }
+
+        swap(rv);
+        report(String.format(
+            "%,d of %,d rows in %.1f ms, cancelled requests: %d",
+            rv.size(),
+            snapshot.length,
+            (System.nanoTime() - start) / 1_000_000.0,
+            cancelled
+        ));
+    }
+
+    protected void swap(ObservableList<T> items) {
+        swapping = true;
+        try {
+            table.setItems(items);
+        } finally {
+            swapping = false;
+        }
+    }
+
+    protected void report(String s) {
+        if (reporter != null) {
+            reporter.accept(s);
+        }
+    }
+}
@@ -24,7 +24,8 @@
  */
 package goryachev.monkey.util;
 
-import javafx.beans.binding.BooleanBinding;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
@@ -44,21 +45,40 @@ import javafx.stage.Window;
 public class TestPaneBase extends BorderPane {
     public static SimpleBooleanProperty usePreferredSize = new SimpleBooleanProperty();
     private final BorderPane contentPane;
-    private final BooleanBinding inScrollBars;
+    private final InvalidationListener preferredSizeListener = (x) -> updateContent();
+    // the page listens to the static property only while it is in a scene, and only weakly
+    private final WeakInvalidationListener weakPreferredSizeListener = new WeakInvalidationListener(preferredSizeListener);
+    private boolean inScrolls;
+    // the number of content updates, for BindingCheck
+    private static long contentUpdates;
 
     public TestPaneBase() {
         contentPane = new BorderPane();
         contentPane.setOpacity(1.0);
         
-        inScrollBars = usePreferredSize.not();
-        inScrollBars.addListener((x) -> {
-            updateContent();
+        sceneProperty().addListener((s,p,c) -> {
+            if (c == null) {
+                usePreferredSize.removeListener(weakPreferredSizeListener);
+            } else if (p == null) {
+                usePreferredSize.addListener(weakPreferredSizeListener);
+                if (inScrolls == usePreferredSize.get()) {
+                    // the property has changed while the page was not showing
+                    updateContent();
+                }
+            }
         });
         updateContent();
     }
     
+    /** opens the layout sweep harness for the content of this page */
+    public void openLayoutSweep() {
+        LayoutSweep s = new LayoutSweep(contentPane);
+        s.openWindow(getWindow());
+    }
+    
     public void updateContent() {
-        boolean inScrolls = inScrollBars.get();
+        contentUpdates++;
+        inScrolls = !usePreferredSize.get();
         if(inScrolls) {
             contentPane.setStyle(null);
 
@@ -83,6 +103,11 @@ public class TestPaneBase extends BorderPane {
         }
     }
     
+    /** returns the number of times the content of any page has been rebuilt */
+    public static long getContentUpdateCount() {
+        return contentUpdates;
+    }
+
     protected static Pane pane() {
         Pane p = new Pane();
         SplitPane.setResizableWithParent(p, false);
@@ -123,6 +148,11 @@ public class TestPaneBase extends BorderPane {
         BorderPane.setAlignment(content, Pos.TOP_LEFT);
     }
     
+    /** returns the area which contains the control being tested */
+    public Node getContentArea() {
+        return contentPane;
+    }
+
     public void setOptions(Node n) {
         setRight(n);
     }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.List;
+import java.util.function.Supplier;
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.Button;
+import javafx.scene.control.Control;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableColumn;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.control.TreeView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Window;
+
+/**
+ * The parts shared by the tree benchmarks: the control under test, the report window
+ * with the Run button and the host pane, and running one step per pulse.
+ */
+public class TreeBenchmark {
+    /** measures a single step, filling the report row */
+    public interface Runner<S> {
+        public void run(S step, BorderPane host, String[] row);
+    }
+
+    /** creates the TreeTableView with a single column, or the TreeView */
+    public static Control createControl(boolean treeTable, TreeItem<String> root, boolean showRoot) {
+        if (treeTable) {
+            TreeTableView<String> t = new TreeTableView<>(root);
+            TreeTableColumn<String,String> c = new TreeTableColumn<>("Name");
+            c.setCellValueFactory((f) -> f.getValue().valueProperty());
+            c.setPrefWidth(300);
+            t.getColumns().add(c);
+            t.setShowRoot(showRoot);
+            return t;
+        } else {
+            TreeView<String> t = new TreeView<>(root);
+            t.setShowRoot(showRoot);
+            return t;
+        }
+    }
+
+    /** opens the benchmark window, the controls under test are shown at the top */
+    public static <S> void openWindow(Window owner, String title, String[] columns, Supplier<List<S>> steps, Runner<S> runner) {
+        ReportWindow w = new ReportWindow(owner, title, columns);
+        BorderPane host = new BorderPane();
+        host.setPrefHeight(200);
+        host.setMinHeight(200);
+
+        Button runButton = new Button("Run");
+        runButton.setOnAction((ev) -> {
+            runButton.setDisable(true);
+            w.clear();
+            run(host, w, columns.length, steps.get(), runner, () -> runButton.setDisable(false));
+        });
+
+        TestPaneBase.TBar tb = new TestPaneBase.TBar();
+        tb.add(runButton);
+        w.setControls(new VBox(tb, host));
+        w.show();
+    }
+
+    /**
+     * Runs one step per pulse.
+     * A failure is reported in the first column the step has not filled.
+     */
+    private static <S> void run(BorderPane host, ReportWindow w, int columns, List<S> steps, Runner<S> runner, Runnable onDone) {
+        new AnimationTimer() {
+            private int index;
+
+            @Override
+            public void handle(long now) {
+                if (index >= steps.size()) {
+                    stop();
+                    host.setCenter(null);
+                    onDone.run();
+                    return;
+                }
+
+                S s = steps.get(index++);
+                String[] row = new String[columns];
+                try {
+                    runner.run(s, host, row);
+                } catch (Throwable e) {
+                    // StackOverflowError in the recursive bookkeeping is one of the expected outcomes
+                    int ix = 0;
+                    while ((ix < row.length) && (row[ix] != null)) {
+                        ix++;
+                    }
+                    if (ix < row.length) {
+                        row[ix] = "failed: " + e;
+                    }
+                }
+                w.addRow(row);
+            }
+        }.start();
+    }
+
+    /** formats the time elapsed since the start in milliseconds */
+    public static String ms(long start) {
+        return ms(start, System.nanoTime());
+    }
+
+    /** formats the time between two System.nanoTime() values in milliseconds */
+    public static String ms(long start, long end) {
+        return String.format("%.1f", (end - start) / 1_000_000.0);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import javafx.beans.property.ObjectProperty;
+import javafx.scene.control.Control;
+import javafx.scene.control.FocusModel;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.MultipleSelectionModel;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.control.TreeView;
+import javafx.scene.control.skin.VirtualFlow;
+
+/**
+ * Expands or collapses a whole subtree in a single pass.
+ * <p>
+ * Setting the expanded state of each item in an attached tree fires an expansion event per item,
+ * each of which is handled by the control, its selection and focus models.  TreeItem offers no way
+ * to suspend these notifications, so the root is detached from the control for the duration of the pass,
+ * which leaves only the parent chain of each item to be notified, and then attached again, resulting
+ * in a single row count recomputation and a single layout.  The selection, the focus, and the first
+ * visible row are restored afterwards.
+ * <p>
+ * The unloaded {@link LazyTreeItem}s are neither expanded nor descended into.
+ */
+public class TreeExpansion {
+    /** expands or collapses the subtree (or the whole tree when the item is null), returns the number of items changed */
+    public static <T> int setExpandedAll(TreeView<T> t, TreeItem<T> item, boolean expand) {
+        return apply(
+            t,
+            t.rootProperty(),
+            t.getSelectionModel(),
+            t.getFocusModel(),
+            t.isShowRoot(),
+            item,
+            expand,
+            t::getRow,
+            t::getTreeItem,
+            t::scrollTo
+        );
+    }
+
+    /** expands or collapses the subtree (or the whole tree when the item is null), returns the number of items changed */
+    public static <T> int setExpandedAll(TreeTableView<T> t, TreeItem<T> item, boolean expand) {
+        return apply(
+            t,
+            t.rootProperty(),
+            t.getSelectionModel(),
+            t.getFocusModel(),
+            t.isShowRoot(),
+            item,
+            expand,
+            t::getRow,
+            t::getTreeItem,
+            t::scrollTo
+        );
+    }
+
+    private static <T> int apply(
+        Control control,
+        ObjectProperty<TreeItem<T>> rootProperty,
+        MultipleSelectionModel<TreeItem<T>> sm,
+        FocusModel<TreeItem<T>> fm,
+        boolean showRoot,
+        TreeItem<T> item,
+        boolean expand,
+        ToIntFunction<TreeItem<T>> getRow,
+        IntFunction<TreeItem<T>> getItem,
+        IntConsumer scrollTo
+    ) {
+        TreeItem<T> root = rootProperty.get();
+        if (root == null) {
+            return 0;
+        }
+        if (item == null) {
+            item = root;
+        }
+
+        List<TreeItem<T>> selected = (sm == null) ? null : new ArrayList<>(sm.getSelectedItems());
+        TreeItem<T> focused = (fm == null) ? null : fm.getFocusedItem();
+        TreeItem<T> top = null;
+        VirtualFlow<?> flow = FX.findVirtualFlow(control);
+        if (flow != null) {
+            IndexedCell<?> cell = flow.getFirstVisibleCell();
+            if (cell != null) {
+                top = getItem.apply(cell.getIndex());
+            }
+        }
+
+        rootProperty.set(null);
+        int count;
+        try {
+            // the hidden root must stay expanded
+            boolean keep = !expand && (item == root) && !showRoot;
+            count = setExpanded(item, expand, keep);
+        } finally {
+            rootProperty.set(root);
+        }
+
+        if ((sm != null) && (selected != null) && !selected.isEmpty()) {
+            int[] rows = new int[selected.size()];
+            int n = 0;
+            for (TreeItem<T> it: selected) {
+                int row = getRow.applyAsInt(it);
+                if (row >= 0) {
+                    rows[n++] = row;
+                }
+            }
+            sm.clearSelection();
+            if (n > 0) {
+                int[] rest = new int[n - 1];
+                System.arraycopy(rows, 1, rest, 0, n - 1);
+                sm.selectIndices(rows[0], rest);
+            }
+        }
+
+        if ((fm != null) && (focused != null)) {
+            int row = visibleRow(focused, getRow);
+            if (row >= 0) {
+                fm.focus(row);
+            }
+        }
+
+        if (top != null) {
+            int row = visibleRow(top, getRow);
+            if (row >= 0) {
+                scrollTo.accept(row);
+            }
+        }
+        return count;
+    }
+
+    /** returns the row of the item or of its nearest visible ancestor */
+    private static <T> int visibleRow(TreeItem<T> item, ToIntFunction<TreeItem<T>> getRow) {
+        while (item != null) {
+            int row = getRow.applyAsInt(item);
+            if (row >= 0) {
+                return row;
+            }
+            item = item.getParent();
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the expanded state of the item and all its descendants, without recursion.
+     * When the item is attached to a control, the control is notified of each change.
+     */
+    public static <T> int setExpanded(TreeItem<T> item, boolean expand, boolean keepItemExpanded) {
+        int count = 0;
+        ArrayDeque<TreeItem<T>> stack = new ArrayDeque<>();
+        stack.push(item);
+        while (!stack.isEmpty()) {
+            TreeItem<T> it = stack.pop();
+            if (it.isLeaf()) {
+                continue;
+            }
+            if ((it instanceof LazyTreeItem<T> lazy) && !lazy.isLoaded() && !lazy.isExpanded()) {
+                continue;
+            }
+
+            boolean on = expand || (keepItemExpanded && (it == item));
+            if (it.isExpanded() != on) {
+                it.setExpanded(on);
+                count++;
+            }
+            if ((it instanceof LazyTreeItem<T> lazy) && !lazy.isLoaded()) {
+                // released on collapse: getChildren() would materialize the children again
+                continue;
+            }
+
+            for (TreeItem<T> ch: it.getChildren()) {
+                stack.push(ch);
+            }
+        }
+        return count;
+    }
+}
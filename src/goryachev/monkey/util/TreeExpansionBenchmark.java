@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.scene.control.Control;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.control.TreeView;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Window;
+
+/**
+ * Compares expanding and collapsing the whole tree item by item while attached to the control
+ * with the single pass of {@link TreeExpansion}, in TreeView and TreeTableView,
+ * on the wide-flat and the deep-narrow trees of 100k and 1M nodes.
+ * Each measurement includes the following layout.
+ */
+public class TreeExpansionBenchmark {
+    public enum Shape {
+        WIDE_FLAT("wide-flat"),
+        DEEP_NARROW("deep-narrow");
+
+        private final String text;
+        Shape(String text) { this.text = text; }
+        public String toString() { return text; }
+    }
+
+    public static final String[] COLUMNS = {
+        "Control",
+        "Shape",
+        "Nodes",
+        "Depth",
+        "Method",
+        "Expand (ms)",
+        "Expand Layout (ms)",
+        "Rows",
+        "Collapse (ms)",
+        "Collapse Layout (ms)"
+    };
+    private static final int[] SIZES = { 100_000, 1_000_000 };
+    /** the item by item approach is not attempted above this size */
+    private static final int MAX_NAIVE = 100_000;
+    /** the number of children of each branch in the wide-flat tree */
+    private static final int WIDE = 1000;
+    /** the number of children of each branch in the deep-narrow tree */
+    private static final int NARROW = 2;
+
+    private record Step(boolean treeTable, Shape shape, int size, boolean batched) { }
+
+    /** creates a tree of the specified shape and size, all collapsed */
+    public static TreeItem<String> createTree(Shape shape, int size) {
+        TreeItem<String> root = new TreeItem<>("root");
+        int fanout = (shape == Shape.WIDE_FLAT) ? WIDE : NARROW;
+        ArrayDeque<TreeItem<String>> queue = new ArrayDeque<>();
+        queue.add(root);
+        int count = 1;
+        while (count < size) {
+            TreeItem<String> parent = queue.poll();
+            ArrayList<TreeItem<String>> children = new ArrayList<>(fanout);
+            for (int i = 0; (i < fanout) && (count < size); i++) {
+                TreeItem<String> ch = new TreeItem<>("N" + count);
+                children.add(ch);
+                queue.add(ch);
+                count++;
+            }
+            parent.getChildren().setAll(children);
+        }
+        return root;
+    }
+
+    private static int depth(TreeItem<?> root) {
+        int d = 0;
+        TreeItem<?> it = root;
+        while (!it.isLeaf()) {
+            it = it.getChildren().get(it.getChildren().size() - 1);
+            d++;
+        }
+        return d;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int setExpandedAll(Control c, boolean batched, boolean expand) {
+        if (c instanceof TreeTableView<?> t) {
+            TreeTableView<String> tt = (TreeTableView<String>)t;
+            if (batched) {
+                return TreeExpansion.setExpandedAll(tt, null, expand);
+            }
+            return TreeExpansion.setExpanded(tt.getRoot(), expand, true);
+        } else {
+            TreeView<String> tv = (TreeView<String>)c;
+            if (batched) {
+                return TreeExpansion.setExpandedAll(tv, null, expand);
+            }
+            return TreeExpansion.setExpanded(tv.getRoot(), expand, true);
+        }
+    }
+
+    private static int getRowCount(Control c) {
+        if (c instanceof TreeTableView<?> t) {
+            return t.getExpandedItemCount();
+        }
+        return ((TreeView<?>)c).getExpandedItemCount();
+    }
+
+    /** opens the benchmark window, the controls under test are shown at the top */
+    public static void openWindow(Window owner) {
+        TreeBenchmark.openWindow(owner, "Tree Expand All / Collapse All", COLUMNS, TreeExpansionBenchmark::createSteps, TreeExpansionBenchmark::measure);
+    }
+
+    private static List<Step> createSteps() {
+        ArrayList<Step> rv = new ArrayList<>();
+        for (boolean treeTable: new boolean[] { false, true }) {
+            for (Shape shape: Shape.values()) {
+                for (int size: SIZES) {
+                    if (size <= MAX_NAIVE) {
+                        rv.add(new Step(treeTable, shape, size, false));
+                    }
+                    rv.add(new Step(treeTable, shape, size, true));
+                }
+            }
+        }
+        return rv;
+    }
+
+    private static void measure(Step s, BorderPane host, String[] row) {
+        TreeItem<String> root = createTree(s.shape(), s.size());
+        root.setExpanded(true);
+        Control c = TreeBenchmark.createControl(s.treeTable(), root, false);
+        host.setCenter(c);
+        host.applyCss();
+        host.layout();
+
+        row[0] = s.treeTable() ? "TreeTableView" : "TreeView";
+        row[1] = s.shape().toString();
+        row[2] = String.valueOf(s.size());
+        row[3] = String.valueOf(depth(root));
+        row[4] = s.batched() ? "single pass" : "item by item";
+        measure(c, host, s.batched(), true, row, 5);
+        row[7] = String.valueOf(getRowCount(c));
+        measure(c, host, s.batched(), false, row, 8);
+    }
+
+    private static void measure(Control c, BorderPane host, boolean batched, boolean expand, String[] row, int column) {
+        long t0 = System.nanoTime();
+        setExpandedAll(c, batched, expand);
+        long t1 = System.nanoTime();
+        host.layout();
+        long t2 = System.nanoTime();
+        row[column] = TreeBenchmark.ms(t0, t1);
+        row[column + 1] = TreeBenchmark.ms(t1, t2);
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+/**
+ * Filters a tree by a substring of the item text, decorating the source items with {@link Item}s
+ * which show only the matching items and their ancestors.
+ * <p>
+ * The source tree is snapshot once into the pre-order arrays of the text, the parent index
+ * and the subtree end index.  The match bit per node is computed in the background and cached
+ * for the recent filter strings: a filter which contains a cached one (typing one more character)
+ * only re-evaluates the nodes matching the cached filter, and a cached filter (backspace) is restored
+ * without evaluation.  The descendant match bit is derived by walking up from each match.
+ * The result is swapped in at once by setting the new root, whose children are materialized
+ * on expansion, so the cost of the swap does not depend on the size of the tree.
+ * A newer request cancels the one in progress.
+ * <p>
+ * The expanded state of the nodes is shared by all the results.  The source tree must not change.
+ */
+public class TreeFilter<T> {
+    /** the filtering decorator of the source item at the specified pre-order index */
+    public class Item extends TreeItem<T> {
+        private final int index;
+        private final State state;
+        private boolean loaded;
+
+        protected Item(int index, State state) {
+            super(values[index]);
+            this.index = index;
+            this.state = state;
+            setExpanded(expanded.get(index));
+            expandedProperty().addListener((s,p,c) -> expanded.set(index, c));
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return !state.hasVisibleChild(index);
+        }
+
+        @Override
+        public ObservableList<TreeItem<T>> getChildren() {
+            ObservableList<TreeItem<T>> children = super.getChildren();
+            if (!loaded) {
+                loaded = true;
+                ArrayList<TreeItem<T>> items = new ArrayList<>();
+                for (int ch = index + 1; ch < end[index]; ch = end[ch]) {
+                    if ((state.visible == null) || state.visible.get(ch)) {
+                        items.add(new Item(ch, state));
+                    }
+                }
+                children.setAll(items);
+            }
+            return children;
+        }
+    }
+
+    /** the result of the evaluation of one filter */
+    protected class State {
+        final String filter;
+        final BitSet match;
+        final BitSet visible;
+
+        public State(String filter, BitSet match, BitSet visible) {
+            this.filter = filter;
+            this.match = match;
+            this.visible = visible;
+        }
+
+        boolean hasVisibleChild(int ix) {
+            if (visible == null) {
+                return end[ix] > ix + 1;
+            }
+            int ch = visible.nextSetBit(ix + 1);
+            return (ch >= 0) && (ch < end[ix]);
+        }
+    }
+
+    private static final int CACHE_SIZE = 32;
+    private final T[] values;
+    private final String[] text;
+    private final int[] parent;
+    private final int[] end;
+    private final BitSet expanded;
+    private final AtomicLong generation = new AtomicLong();
+    private final Histogram latency = Histogram.millis();
+    private final LinkedHashMap<String,State> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String,State> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private final State all;
+    private Consumer<String> reporter;
+
+    /** takes the snapshot of the source tree */
+    @SuppressWarnings("unchecked")
+    public TreeFilter(TreeItem<T> source) {
+        ArrayList<T> vs = new ArrayList<>();
+        ArrayList<Integer> ps = new ArrayList<>();
+        BitSet ex = new BitSet();
+
+        // iterative pre-order traversal
+        ArrayDeque<TreeItem<T>> stack = new ArrayDeque<>();
+        ArrayDeque<Integer> parents = new ArrayDeque<>();
+        stack.push(source);
+        parents.push(-1);
+        while (!stack.isEmpty()) {
+            TreeItem<T> it = stack.pop();
+            int p = parents.pop();
+            int ix = vs.size();
+            vs.add(it.getValue());
+            ps.add(p);
+            if (it.isExpanded()) {
+                ex.set(ix);
+            }
+            if (!it.isLeaf()) {
+                ObservableList<TreeItem<T>> ch = it.getChildren();
+                for (int i = ch.size() - 1; i >= 0; i--) {
+                    stack.push(ch.get(i));
+                    parents.push(ix);
+                }
+            }
+        }
+
+        int n = vs.size();
+        values = (T[])vs.toArray();
+        text = new String[n];
+        parent = new int[n];
+        end = new int[n];
+        for (int i = 0; i < n; i++) {
+            text[i] = String.valueOf(values[i]).toLowerCase(Locale.ROOT);
+            parent[i] = ps.get(i);
+            end[i] = i + 1;
+        }
+        // subtree ends, children follow their parents in the pre-order
+        for (int i = n - 1; i > 0; i--) {
+            end[parent[i]] = Math.max(end[parent[i]], end[i]);
+        }
+        expanded = ex;
+        all = new State("", null, null);
+    }
+
+    /** sets the consumer of the status messages */
+    public void setReporter(Consumer<String> r) {
+        reporter = r;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /** returns the unfiltered root */
+    public TreeItem<T> getRoot() {
+        return new Item(0, all);
+    }
+
+    /** returns the latency from the request to the swap */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /** cancels the request in progress, if any */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Evaluates the filter in the background and passes the new root to the consumer
+     * in the FX application thread, unless superseded by a newer request.
+     */
+    public void setFilter(String filter, Consumer<TreeItem<T>> onResult) {
+        long gen = generation.incrementAndGet();
+        long start = System.nanoTime();
+        String f = (filter == null) ? "" : filter.toLowerCase(Locale.ROOT);
+
+        if (f.isEmpty()) {
+            done(gen, start, all, "unfiltered", 0, null, onResult);
+            return;
+        }
+
+        State cached = cache.get(f);
+        if (cached != null) {
+            done(gen, start, cached, "cached", 0, null, onResult);
+            return;
+        }
+
+        // the smallest cached result for a substring of the filter is a superset of the new result
+        State base = null;
+        for (State s: cache.values()) {
+            if (f.contains(s.filter)) {
+                if ((base == null) || (s.match.cardinality() < base.match.cardinality())) {
+                    base = s;
+                }
+            }
+        }
+
+        State b = base;
+        long[] evaluated = new long[1];
+        CompletableFuture.supplyAsync(() -> compute(gen, f, b, evaluated)).whenComplete((rv, err) -> {
+            Platform.runLater(() -> done(gen, start, rv, (b == null) ? "full" : "incremental", evaluated[0], err, onResult));
+        });
+    }
+
+    protected State compute(long gen, String f, State base, long[] evaluated) {
+        BitSet match = new BitSet(values.length);
+        long count = 0;
+        if (base == null) {
+            for (int i = 0; i < text.length; i++) {
+                if ((i & 0xffff) == 0) {
+                    check(gen);
+                }
+                if (text[i].contains(f)) {
+                    match.set(i);
+                }
+            }
+            count = text.length;
+        } else {
+            BitSet m = base.match;
+            for (int i = m.nextSetBit(0); i >= 0; i = m.nextSetBit(i + 1)) {
+                if ((count++ & 0xffff) == 0) {
+                    check(gen);
+                }
+                if (text[i].contains(f)) {
+                    match.set(i);
+                }
+            }
+        }
+        evaluated[0] = count;
+
+        BitSet visible = new BitSet(values.length);
+        // the root is always visible
+        visible.set(0);
+        for (int i = match.nextSetBit(0); i >= 0; i = match.nextSetBit(i + 1)) {
+            for (int j = i; (j >= 0) && !visible.get(j); j = parent[j]) {
+                visible.set(j);
+            }
+        }
+        check(gen);
+        return new State(f, match, visible);
+    }
+
+    private void check(long gen) {
+        if (generation.get() != gen) {
+            throw new CancellationException();
+        }
+    }
+
+    protected void done(long gen, long start, State s, String kind, long evaluated, Throwable err, Consumer<TreeItem<T>> onResult) {
+        if (gen != generation.get()) {
+            return;
+        }
+
+        if (err != null) {
+            Throwable e = (err instanceof CompletionException) ? err.getCause() : err;
+            if (!(e instanceof CancellationException)) {
+                report("failed: " + e);
+            }
+            return;
+        }
+
+        if ((s.match != null) && !cache.containsKey(s.filter)) {
+            cache.put(s.filter, s);
+        }
+
+        onResult.accept(new Item(0, s));
+
+        long t = System.nanoTime() - start;
+        latency.addNanos(t);
+        report(String.format(
+            "%,d of %,d nodes match, %s (%,d evaluated) in %.1f ms; avg %.1f ms, 95%% %.1f ms",
+            s.match == null ? values.length : s.match.cardinality(),
+            values.length,
+            kind,
+            evaluated,
+            t / 1_000_000.0,
+            latency.getAverage(),
+            latency.percentile(95)
+        ));
+    }
+
+    protected void report(String s) {
+        if (reporter != null) {
+            reporter.accept(s);
+        }
+    }
+}
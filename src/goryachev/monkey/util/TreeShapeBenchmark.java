@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javafx.scene.control.Control;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableView;
+import javafx.scene.control.TreeView;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Window;
+
+/**
+ * Generates the deep and degenerate tree shapes, and measures the operations which depend
+ * on the flattened row index bookkeeping in TreeView and TreeTableView: expand and collapse all,
+ * getRow() of the deepest node, scrollTo() and selection of that node, and collapsing and expanding the root.
+ * Each measurement except getRow() includes the following layout.
+ */
+public class TreeShapeBenchmark {
+    public enum Shape {
+        CHAIN("10,000-deep chain"),
+        STAR("star, 1M children"),
+        BINARY("complete binary, depth 20"),
+        SKEWED("random skewed, 200k nodes");
+
+        private final String text;
+        Shape(String text) { this.text = text; }
+        public String toString() { return text; }
+    }
+
+    /** the generated tree */
+    public record Tree(TreeItem<String> root, TreeItem<String> deepest, int size, int depth) { }
+
+    public static final String[] COLUMNS = {
+        "Control",
+        "Shape",
+        "Nodes",
+        "Depth",
+        "Build (ms)",
+        "Attach (ms)",
+        "Expand All (ms)",
+        "getRow (ms)",
+        "Row",
+        "scrollTo (ms)",
+        "Select (ms)",
+        "Collapse Root (ms)",
+        "Expand Root (ms)",
+        "Collapse All (ms)"
+    };
+    /** the skewed tree attaches each node to one of this many most recently created nodes */
+    private static final int SKEW_WINDOW = 1000;
+
+    private record Step(boolean treeTable, Shape shape) { }
+
+    /** creates the tree of the specified shape, with all the items expanded or collapsed */
+    public static Tree create(Shape shape, boolean expanded) {
+        int size;
+        switch (shape) {
+        case CHAIN:
+            size = 10_001;
+            break;
+        case STAR:
+            size = 1_000_001;
+            break;
+        case BINARY:
+            size = (1 << 21) - 1;
+            break;
+        case SKEWED:
+            size = 200_000;
+            break;
+        default:
+            throw new Error("?" + shape);
+        }
+
+        int[] parent = new int[size];
+        parent[0] = -1;
+        Random rnd = new Random(1);
+        for (int i = 1; i < size; i++) {
+            switch (shape) {
+            case CHAIN:
+                parent[i] = i - 1;
+                break;
+            case STAR:
+                parent[i] = 0;
+                break;
+            case BINARY:
+                parent[i] = (i - 1) / 2;
+                break;
+            case SKEWED:
+                parent[i] = Math.max(0, i - 1 - rnd.nextInt(SKEW_WINDOW));
+                break;
+            default:
+                throw new Error("?" + shape);
+            }
+        }
+        return create(parent, expanded);
+    }
+
+    /**
+     * Creates the tree from the array of parent indexes, where each parent precedes its children.
+     * The children are attached bottom up, so no modification event travels up the tree.
+     */
+    public static Tree create(int[] parent, boolean expanded) {
+        int size = parent.length;
+        @SuppressWarnings("unchecked")
+        TreeItem<String>[] items = (TreeItem<String>[])new TreeItem<?>[size];
+        @SuppressWarnings("unchecked")
+        ArrayList<TreeItem<String>>[] children = (ArrayList<TreeItem<String>>[])new ArrayList<?>[size];
+        int[] depth = new int[size];
+        int deepest = 0;
+
+        for (int i = 0; i < size; i++) {
+            TreeItem<String> it = new TreeItem<>("N" + i);
+            it.setExpanded(expanded);
+            items[i] = it;
+
+            int p = parent[i];
+            if (p >= 0) {
+                if (children[p] == null) {
+                    children[p] = new ArrayList<>();
+                }
+                children[p].add(it);
+                depth[i] = depth[p] + 1;
+                if (depth[i] > depth[deepest]) {
+                    deepest = i;
+                }
+            }
+        }
+
+        for (int i = size - 1; i >= 0; i--) {
+            if (children[i] != null) {
+                items[i].getChildren().setAll(children[i]);
+                children[i] = null;
+            }
+        }
+        return new Tree(items[0], items[deepest], size, depth[deepest]);
+    }
+
+    /** opens the benchmark window, the controls under test are shown at the top */
+    public static void openWindow(Window owner) {
+        TreeBenchmark.openWindow(owner, "Tree Shapes", COLUMNS, TreeShapeBenchmark::createSteps, TreeShapeBenchmark::measure);
+    }
+
+    private static List<Step> createSteps() {
+        ArrayList<Step> rv = new ArrayList<>();
+        for (boolean treeTable: new boolean[] { false, true }) {
+            for (Shape shape: Shape.values()) {
+                rv.add(new Step(treeTable, shape));
+            }
+        }
+        return rv;
+    }
+
+    /** the operations common to TreeView and TreeTableView */
+    private interface Ops {
+        public void setExpandedAll(boolean on);
+
+        public int getRow(TreeItem<String> item);
+
+        public void scrollTo(int row);
+
+        public void select(TreeItem<String> item);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Ops ops(Control c) {
+        if (c instanceof TreeTableView<?> t) {
+            TreeTableView<String> tt = (TreeTableView<String>)t;
+            return new Ops() {
+                @Override
+                public void setExpandedAll(boolean on) {
+                    TreeExpansion.setExpandedAll(tt, null, on);
+                }
+
+                @Override
+                public int getRow(TreeItem<String> item) {
+                    return tt.getRow(item);
+                }
+
+                @Override
+                public void scrollTo(int row) {
+                    tt.scrollTo(row);
+                }
+
+                @Override
+                public void select(TreeItem<String> item) {
+                    tt.getSelectionModel().select(item);
+                }
+            };
+        } else {
+            TreeView<String> tv = (TreeView<String>)c;
+            return new Ops() {
+                @Override
+                public void setExpandedAll(boolean on) {
+                    TreeExpansion.setExpandedAll(tv, null, on);
+                }
+
+                @Override
+                public int getRow(TreeItem<String> item) {
+                    return tv.getRow(item);
+                }
+
+                @Override
+                public void scrollTo(int row) {
+                    tv.scrollTo(row);
+                }
+
+                @Override
+                public void select(TreeItem<String> item) {
+                    tv.getSelectionModel().select(item);
+                }
+            };
+        }
+    }
+
+    private static void measure(Step s, BorderPane host, String[] row) {
+        row[0] = s.treeTable() ? "TreeTableView" : "TreeView";
+        row[1] = s.shape().toString();
+
+        long t0 = System.nanoTime();
+        Tree tree = create(s.shape(), false);
+        row[2] = String.valueOf(tree.size());
+        row[3] = String.valueOf(tree.depth());
+        row[4] = TreeBenchmark.ms(t0);
+
+        TreeItem<String> root = tree.root();
+        TreeItem<String> deepest = tree.deepest();
+
+        t0 = System.nanoTime();
+        Control c = TreeBenchmark.createControl(s.treeTable(), root, true);
+        Ops ops = ops(c);
+        host.setCenter(c);
+        host.applyCss();
+        host.layout();
+        row[5] = TreeBenchmark.ms(t0);
+
+        t0 = System.nanoTime();
+        ops.setExpandedAll(true);
+        host.layout();
+        row[6] = TreeBenchmark.ms(t0);
+
+        t0 = System.nanoTime();
+        int ix = ops.getRow(deepest);
+        row[7] = TreeBenchmark.ms(t0);
+        row[8] = String.valueOf(ix);
+
+        t0 = System.nanoTime();
+        ops.scrollTo(ix);
+        host.layout();
+        row[9] = TreeBenchmark.ms(t0);
+
+        t0 = System.nanoTime();
+        ops.select(deepest);
+        host.layout();
+        row[10] = TreeBenchmark.ms(t0);
+
+        t0 = System.nanoTime();
+        root.setExpanded(false);
+        host.layout();
+        row[11] = TreeBenchmark.ms(t0);
+
+        t0 = System.nanoTime();
+        root.setExpanded(true);
+        host.layout();
+        row[12] = TreeBenchmark.ms(t0);
+
+        t0 = System.nanoTime();
+        ops.setExpandedAll(false);
+        host.layout();
+        row[13] = TreeBenchmark.ms(t0);
+    }
+
+}
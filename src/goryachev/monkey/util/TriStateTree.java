@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.TreeCell;
+import javafx.scene.control.TreeItem;
+
+/**
+ * A compact tri-state (checked, unchecked, indeterminate) tree model, an alternative to CheckBoxTreeItem.
+ * <p>
+ * The structure is given by the parent index array, the state is kept in a byte per node,
+ * along with the number of the checked and the indeterminate children of each node.
+ * Checking or unchecking a node fills its subtree in one pass, then walks up the ancestors,
+ * updating the counters and stopping at the first ancestor whose state does not change,
+ * and notifies the listener once, instead of one property event per affected item.
+ */
+public class TriStateTree {
+    public static final byte UNCHECKED = 0;
+    public static final byte CHECKED = 1;
+    public static final byte INDETERMINATE = 2;
+
+    /** the tree item which refers to the model node */
+    public static class Item extends TreeItem<String> {
+        private final int index;
+
+        public Item(int index) {
+            super("N" + index);
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+    }
+
+    private final int[] parent;
+    /** the children of node i are children[childStart[i] ... childStart[i + 1]) */
+    private final int[] childStart;
+    private final int[] children;
+    private final byte[] state;
+    private final int[] checkedChildren;
+    private final int[] indeterminateChildren;
+    private Runnable onChange;
+    private int changed;
+
+    /**
+     * @param parent the parent index of each node, -1 for the root, each parent must precede its children
+     */
+    public TriStateTree(int[] parent) {
+        int n = parent.length;
+        this.parent = parent;
+        childStart = new int[n + 1];
+        for (int i = 1; i < n; i++) {
+            childStart[parent[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            childStart[i + 1] += childStart[i];
+        }
+        children = new int[Math.max(0, n - 1)];
+        int[] pos = Arrays.copyOf(childStart, n);
+        for (int i = 1; i < n; i++) {
+            children[pos[parent[i]]++] = i;
+        }
+        state = new byte[n];
+        checkedChildren = new int[n];
+        indeterminateChildren = new int[n];
+    }
+
+    public int size() {
+        return parent.length;
+    }
+
+    public int getChildCount(int ix) {
+        return childStart[ix + 1] - childStart[ix];
+    }
+
+    public int getChild(int ix, int k) {
+        return children[childStart[ix] + k];
+    }
+
+    public byte getState(int ix) {
+        return state[ix];
+    }
+
+    /** returns the number of nodes whose state has been changed by the last operation */
+    public int getChangedCount() {
+        return changed;
+    }
+
+    /** sets the callback invoked once after each operation */
+    public void setOnChange(Runnable r) {
+        onChange = r;
+    }
+
+    /** checks or unchecks the node and its subtree, and updates the ancestors */
+    public void setChecked(int ix, boolean on) {
+        byte s = on ? CHECKED : UNCHECKED;
+        byte old = state[ix];
+        changed = 0;
+
+        // the subtree, without recursion
+        int[] stack = new int[64];
+        int sp = 0;
+        stack[sp++] = ix;
+        while (sp > 0) {
+            int j = stack[--sp];
+            if (state[j] != s) {
+                state[j] = s;
+                changed++;
+            }
+            int ct = getChildCount(j);
+            checkedChildren[j] = on ? ct : 0;
+            indeterminateChildren[j] = 0;
+            if (sp + ct > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, sp + ct));
+            }
+            for (int k = childStart[j]; k < childStart[j + 1]; k++) {
+                stack[sp++] = children[k];
+            }
+        }
+
+        // the ancestors
+        byte before = old;
+        byte after = s;
+        for (int p = parent[ix]; (p >= 0) && (before != after); p = parent[p]) {
+            count(p, before, -1);
+            count(p, after, 1);
+            byte prev = state[p];
+            byte next = computeState(p);
+            if (prev != next) {
+                state[p] = next;
+                changed++;
+            }
+            before = prev;
+            after = next;
+        }
+
+        if (onChange != null) {
+            onChange.run();
+        }
+    }
+
+    private void count(int p, byte s, int delta) {
+        switch (s) {
+        case CHECKED:
+            checkedChildren[p] += delta;
+            break;
+        case INDETERMINATE:
+            indeterminateChildren[p] += delta;
+            break;
+        }
+    }
+
+    private byte computeState(int p) {
+        int ct = getChildCount(p);
+        if (checkedChildren[p] == ct) {
+            return CHECKED;
+        } else if ((checkedChildren[p] == 0) && (indeterminateChildren[p] == 0)) {
+            return UNCHECKED;
+        }
+        return INDETERMINATE;
+    }
+
+    /** creates the tree items for the nodes and attaches them bottom up, returns the list indexed by node */
+    public <I extends TreeItem<String>> List<I> createTreeItems(IntFunction<I> generator, boolean expanded) {
+        int n = parent.length;
+        ArrayList<I> items = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            I it = generator.apply(i);
+            it.setExpanded(expanded);
+            items.add(it);
+        }
+
+        for (int i = n - 1; i >= 0; i--) {
+            int ct = getChildCount(i);
+            if (ct > 0) {
+                ArrayList<TreeItem<String>> ch = new ArrayList<>(ct);
+                for (int k = 0; k < ct; k++) {
+                    ch.add(items.get(getChild(i, k)));
+                }
+                items.get(i).getChildren().setAll(ch);
+            }
+        }
+        return items;
+    }
+
+    /** creates the cell which shows the state of the {@link Item} with a check box */
+    public TreeCell<String> createCell() {
+        CheckBox cb = new CheckBox();
+        TreeCell<String> cell = new TreeCell<>() {
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || !(getTreeItem() instanceof Item it)) {
+                    setText(null);
+                    setGraphic(null);
+                    return;
+                }
+
+                byte s = state[it.getIndex()];
+                cb.setIndeterminate(s == INDETERMINATE);
+                cb.setSelected(s == CHECKED);
+                setText(item);
+                setGraphic(cb);
+            }
+        };
+        cb.setOnAction((ev) -> {
+            if (cell.getTreeItem() instanceof Item it) {
+                setChecked(it.getIndex(), state[it.getIndex()] != CHECKED);
+            }
+        });
+        return cell;
+    }
+}
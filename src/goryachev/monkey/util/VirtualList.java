@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.function.IntFunction;
+import javafx.collections.ObservableListBase;
+
+/**
+ * An ObservableList which stores nothing: its items are synthesized on demand from the index.
+ * The list can only be resized, which makes it suitable for testing the virtualized controls
+ * with tens or hundreds of millions of items at constant memory.
+ */
+public class VirtualList<T> extends ObservableListBase<T> {
+    private final IntFunction<T> generator;
+    private int size;
+
+    public VirtualList(int size, IntFunction<T> generator) {
+        this.size = size;
+        this.generator = generator;
+    }
+
+    @Override
+    public T get(int index) {
+        if ((index < 0) || (index >= size)) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return generator.apply(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** changes the size of the list, firing a single change event */
+    public void setSize(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative size: " + n);
+        }
+
+        int old = size;
+        if (n == old) {
+            return;
+        }
+
+        size = n;
+        beginChange();
+        if (n > old) {
+            nextAdd(old, n);
+        } else {
+            nextRemove(n, range(n, old));
+        }
+        endChange();
+    }
+
+    @Override
+    public void clear() {
+        setSize(0);
+    }
+
+    /** returns a read-only list view of the synthesized items in the specified range */
+    protected List<T> range(int start, int end) {
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                return generator.apply(start + index);
+            }
+
+            @Override
+            public int size() {
+                return end - start;
+            }
+        };
+    }
+}
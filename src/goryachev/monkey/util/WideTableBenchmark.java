@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2023, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package goryachev.monkey.util;
+
+import java.util.function.Consumer;
+import javafx.animation.AnimationTimer;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.TableHeaderRow;
+import javafx.scene.control.skin.TableViewSkin;
+import javafx.scene.control.skin.VirtualFlow;
+
+/**
+ * Scrolls a wide TableView horizontally, one step per pulse, using scrollToColumnIndex(),
+ * and measures the frame times, the time spent laying out the header row,
+ * the number of cells instantiated per row, and the memory retained per visible row.
+ * <p>
+ * The benchmark installs a skin which times the header row layout.
+ * The memory per row is the difference in the heap used after GC between the table
+ * with no items and with the items, divided by the number of visible rows.
+ */
+public class WideTableBenchmark {
+    public static final String[] COLUMNS = {
+        "Demo",
+        "Columns",
+        "Steps",
+        "Frame Avg (ms)",
+        "Frame Max (ms)",
+        "Header Layout Avg (ms)",
+        "Header Layout Max (ms)",
+        "Cells/Row Avg",
+        "Cells/Row Max",
+        "Visible Rows",
+        "Memory/Row (KB)"
+    };
+    /** the maximum number of scroll steps */
+    public static final int MAX_STEPS = 300;
+    private final TableView<?> table;
+    private final Histogram frames = Histogram.millis();
+    private final Histogram header = Histogram.millis();
+    private long headerNanos;
+
+    public WideTableBenchmark(TableView<?> table) {
+        this.table = table;
+    }
+
+    /** runs the benchmark, invoking the callback with the report row, see {@link #COLUMNS} */
+    public void run(String name, Consumer<String[]> onDone) {
+        frames.clear();
+        header.clear();
+        installSkin(table);
+
+        new AnimationTimer() {
+            private int phase;
+            private Runnable restoreItems;
+            private long heapEmpty;
+            private long heapFull;
+            private int visibleRows;
+            private long last;
+            private int steps;
+            private int column;
+            private int stride;
+            private long cells;
+            private int maxCells;
+
+            @Override
+            public void handle(long now) {
+                switch (phase++) {
+                case 0:
+                    restoreItems = clearItems(table);
+                    return;
+                case 1:
+                    heapEmpty = LeakSentinel.usedHeapAfterGC();
+                    restoreItems.run();
+                    return;
+                case 2:
+                    heapFull = LeakSentinel.usedHeapAfterGC();
+                    visibleRows = countVisibleRows();
+                    stride = Math.max(1, (table.getVisibleLeafColumns().size() + MAX_STEPS - 1) / MAX_STEPS);
+                    table.scrollToColumnIndex(0);
+                    headerNanos = 0;
+                    last = now;
+                    return;
+                }
+
+                frames.addNanos(now - last);
+                last = now;
+                if (headerNanos > 0) {
+                    header.addNanos(headerNanos);
+                    headerNanos = 0;
+                }
+                int n = countCellsPerRow();
+                cells += n;
+                maxCells = Math.max(maxCells, n);
+
+                int count = table.getVisibleLeafColumns().size();
+                if ((steps >= MAX_STEPS) || (column >= count - 1)) {
+                    stop();
+                    long perRow = (visibleRows == 0) ? 0 : (heapFull - heapEmpty) / visibleRows;
+                    onDone.accept(new String[] {
+                        name,
+                        String.valueOf(count),
+                        String.valueOf(steps),
+                        String.format("%.2f", frames.getAverage()),
+                        String.format("%.2f", frames.getMax()),
+                        String.format("%.3f", header.getAverage()),
+                        String.format("%.3f", header.getMax()),
+                        String.format("%.1f", cells / (double)(steps + 1)),
+                        String.valueOf(maxCells),
+                        String.valueOf(visibleRows),
+                        String.format("%.1f", perRow / 1024.0)
+                    });
+                    return;
+                }
+
+                column = Math.min(column + stride, count - 1);
+                table.scrollToColumnIndex(column);
+                steps++;
+            }
+        }.start();
+    }
+
+    protected int countVisibleRows() {
+        VirtualFlow<?> f = FX.findVirtualFlow(table);
+        if (f != null) {
+            IndexedCell<?> first = f.getFirstVisibleCell();
+            IndexedCell<?> last = f.getLastVisibleCell();
+            if ((first != null) && (last != null)) {
+                return last.getIndex() - first.getIndex() + 1;
+            }
+        }
+        return 0;
+    }
+
+    /** returns the number of cells in the first visible row */
+    protected int countCellsPerRow() {
+        VirtualFlow<?> f = FX.findVirtualFlow(table);
+        if (f != null) {
+            IndexedCell<?> row = f.getFirstVisibleCell();
+            if (row != null) {
+                int n = 0;
+                for (Node ch: row.getChildrenUnmodifiable()) {
+                    if (ch instanceof TableCell) {
+                        n++;
+                    }
+                }
+                return n;
+            }
+        }
+        return 0;
+    }
+
+    private static <T> Runnable clearItems(TableView<T> t) {
+        ObservableList<T> items = t.getItems();
+        t.setItems(FXCollections.observableArrayList());
+        return () -> t.setItems(items);
+    }
+
+    private <T> void installSkin(TableView<T> t) {
+        t.setSkin(new TimingSkin<>(t));
+    }
+
+    //
+
+    /** a skin whose header row accumulates the time spent in layoutChildren() */
+    protected class TimingSkin<T> extends TableViewSkin<T> {
+        public TimingSkin(TableView<T> t) {
+            super(t);
+        }
+
+        @Override
+        protected TableHeaderRow createTableHeaderRow() {
+            return new TableHeaderRow(this) {
+                @Override
+                protected void layoutChildren() {
+                    long t0 = System.nanoTime();
+                    super.layoutChildren();
+                    headerNanos += (System.nanoTime() - t0);
+                }
+            };
+        }
+    }
+}
@@ -11,5 +11,7 @@ module andy_test {
     requires javafx.graphics;
     requires javafx.web;
     requires java.desktop;
+    requires java.management;
+    requires jdk.management;
     requires javafx.swing;
 }